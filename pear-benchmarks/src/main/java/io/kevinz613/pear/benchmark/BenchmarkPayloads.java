@@ -0,0 +1,101 @@
+package io.kevinz613.pear.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的缓存数据，覆盖小对象、1000个元素的集合和长字符串
+ *
+ * @author kevinz613
+ */
+public final class BenchmarkPayloads {
+
+    //集合数据的元素个数
+    public static final int LIST_SIZE = 1000;
+    //长字符串的长度
+    public static final int LONG_STRING_LENGTH = 16 * 1024;
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * 小对象
+     *
+     * @return 商品
+     */
+    public static Product product() {
+        return product(1L);
+    }
+
+    /**
+     * 小对象
+     *
+     * @param id 商品id
+     * @return 商品
+     */
+    public static Product product(long id) {
+        return new Product(id, "product-" + id, new BigDecimal("199.90"), (int) (id % 100), List.of("new", "hot", "sale"));
+    }
+
+    /**
+     * 1000个元素的集合
+     *
+     * @return 商品列表
+     */
+    public static List<Product> productList() {
+        List<Product> list = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            list.add(product(i));
+        }
+        return list;
+    }
+
+    /**
+     * 不是Json的长字符串
+     *
+     * @return 字符串
+     */
+    public static String longString() {
+        StringBuilder builder = new StringBuilder(LONG_STRING_LENGTH);
+        while (builder.length() < LONG_STRING_LENGTH) {
+            builder.append("pear cache benchmark payload ");
+        }
+        return builder.substring(0, LONG_STRING_LENGTH);
+    }
+
+    /**
+     * 对象转换成的Json字符串
+     *
+     * @param value 对象
+     * @return Json字符串
+     */
+    public static String json(Object value) {
+        return JSONUtil.toJsonStr(value);
+    }
+
+    /**
+     * 商品
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Product {
+
+        //商品id
+        private Long id;
+        //商品名称
+        private String name;
+        //价格
+        private BigDecimal price;
+        //库存
+        private Integer stock;
+        //标签
+        private List<String> tags;
+    }
+}
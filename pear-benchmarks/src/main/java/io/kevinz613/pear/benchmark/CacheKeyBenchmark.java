@@ -0,0 +1,67 @@
+package io.kevinz613.pear.benchmark;
+
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.impl.RedisDistributedCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存key拼接基准测试，覆盖简单类型业务标识、字符串业务标识和对象业务标识
+ *
+ * @author kevinz613
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private static final String KEY_PREFIX = "product:";
+
+    //getKey是接口的默认方法，不依赖Redis连接
+    private DistributedCacheService cacheService;
+
+    private Long longId;
+    private String stringId;
+    private BenchmarkPayloads.Product objectId;
+
+    @Setup
+    public void setup() {
+        cacheService = new RedisDistributedCacheService();
+        longId = 1234567890L;
+        stringId = "sku-1234567890";
+        objectId = BenchmarkPayloads.product();
+    }
+
+    @Benchmark
+    public String longId() {
+        return cacheService.getKey(KEY_PREFIX, longId);
+    }
+
+    @Benchmark
+    public String stringId() {
+        return cacheService.getKey(KEY_PREFIX, stringId);
+    }
+
+    @Benchmark
+    public String objectId() {
+        return cacheService.getKey(KEY_PREFIX, objectId);
+    }
+
+    @Benchmark
+    public String withoutId() {
+        return cacheService.getKey(KEY_PREFIX);
+    }
+}
@@ -0,0 +1,68 @@
+package io.kevinz613.pear.benchmark;
+
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.impl.RedisDistributedCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存数据解码基准测试，覆盖小对象、1000个元素的集合、长字符串和简单类型
+ *
+ * @author kevinz613
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheResultBenchmark {
+
+    //getResult是接口的默认方法，不依赖Redis连接
+    private DistributedCacheService cacheService;
+
+    private String productJson;
+    private String productListJson;
+    private String longString;
+    private String longValue;
+
+    @Setup
+    public void setup() {
+        cacheService = new RedisDistributedCacheService();
+        productJson = BenchmarkPayloads.json(BenchmarkPayloads.product());
+        productListJson = BenchmarkPayloads.json(BenchmarkPayloads.productList());
+        longString = BenchmarkPayloads.longString();
+        longValue = "1234567890";
+    }
+
+    @Benchmark
+    public BenchmarkPayloads.Product smallObject() {
+        return cacheService.getResult(productJson, BenchmarkPayloads.Product.class);
+    }
+
+    @Benchmark
+    public List<BenchmarkPayloads.Product> largeList() {
+        return cacheService.getResultList(productListJson, BenchmarkPayloads.Product.class);
+    }
+
+    @Benchmark
+    public String longString() {
+        return cacheService.getResult(longString, String.class);
+    }
+
+    @Benchmark
+    public Long simpleType() {
+        return cacheService.getResult(longValue, Long.class);
+    }
+}
@@ -0,0 +1,68 @@
+package io.kevinz613.pear.benchmark;
+
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.impl.RedisDistributedCacheService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存value编码基准测试，覆盖小对象、1000个元素的集合、长字符串和简单类型
+ *
+ * @author kevinz613
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueBenchmark {
+
+    //getValue是接口的默认方法，不依赖Redis连接
+    private DistributedCacheService cacheService;
+
+    private BenchmarkPayloads.Product product;
+    private List<BenchmarkPayloads.Product> productList;
+    private String longString;
+    private Long longValue;
+
+    @Setup
+    public void setup() {
+        cacheService = new RedisDistributedCacheService();
+        product = BenchmarkPayloads.product();
+        productList = BenchmarkPayloads.productList();
+        longString = BenchmarkPayloads.longString();
+        longValue = 1234567890L;
+    }
+
+    @Benchmark
+    public String smallObject() {
+        return cacheService.getValue(product);
+    }
+
+    @Benchmark
+    public String largeList() {
+        return cacheService.getValue(productList);
+    }
+
+    @Benchmark
+    public String longString() {
+        return cacheService.getValue(longString);
+    }
+
+    @Benchmark
+    public String simpleType() {
+        return cacheService.getValue(longValue);
+    }
+}
@@ -0,0 +1,129 @@
+package io.kevinz613.pear.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import io.kevinz613.pear.cache.distribute.conversion.TypeConversion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 简单类型判断基准测试，字符串判断时会检查是否是Json，覆盖短字符串、长字符串、Json字符串、简单类型和对象，
+ * legacy开头的方法是按照类型逐个instanceof判断并使用JSONUtil.isJson的原实现，用于对比
+ *
+ * @author kevinz613
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeConversionBenchmark {
+
+    private String shortString;
+    private String longString;
+    private String objectJson;
+    private String listJson;
+    private Long longValue;
+    private Byte byteValue;
+    private BenchmarkPayloads.Product product;
+    private List<BenchmarkPayloads.Product> productList;
+
+    @Setup
+    public void setup() {
+        shortString = "sku-1234567890";
+        longString = BenchmarkPayloads.longString();
+        objectJson = BenchmarkPayloads.json(BenchmarkPayloads.product());
+        listJson = BenchmarkPayloads.json(BenchmarkPayloads.productList());
+        longValue = 1234567890L;
+        byteValue = (byte) 1;
+        product = BenchmarkPayloads.product();
+        productList = BenchmarkPayloads.productList();
+    }
+
+    @Benchmark
+    public boolean shortString() {
+        return TypeConversion.isSimpleType(shortString);
+    }
+
+    @Benchmark
+    public boolean longString() {
+        return TypeConversion.isSimpleType(longString);
+    }
+
+    @Benchmark
+    public boolean objectJson() {
+        return TypeConversion.isSimpleType(objectJson);
+    }
+
+    @Benchmark
+    public boolean listJson() {
+        return TypeConversion.isSimpleType(listJson);
+    }
+
+    @Benchmark
+    public boolean simpleType() {
+        return TypeConversion.isSimpleType(longValue);
+    }
+
+    @Benchmark
+    public boolean byteType() {
+        return TypeConversion.isSimpleType(byteValue);
+    }
+
+    @Benchmark
+    public boolean smallObject() {
+        return TypeConversion.isSimpleType(product);
+    }
+
+    @Benchmark
+    public boolean largeList() {
+        return TypeConversion.isSimpleType(productList);
+    }
+
+    @Benchmark
+    public boolean legacyShortString() {
+        return legacyIsSimpleType(shortString);
+    }
+
+    @Benchmark
+    public boolean legacyLongString() {
+        return legacyIsSimpleType(longString);
+    }
+
+    @Benchmark
+    public boolean legacyObjectJson() {
+        return legacyIsSimpleType(objectJson);
+    }
+
+    @Benchmark
+    public boolean legacySimpleType() {
+        return legacyIsSimpleType(longValue);
+    }
+
+    @Benchmark
+    public boolean legacySmallObject() {
+        return legacyIsSimpleType(product);
+    }
+
+    /**
+     * 原实现：字符串使用JSONUtil.isJson判断，其他类型逐个instanceof判断
+     *
+     * @param t t
+     * @return boolean
+     */
+    private static boolean legacyIsSimpleType(Object t) {
+        return (t instanceof String && !JSONUtil.isJson(t.toString())) || t instanceof Integer || t instanceof Long
+                || t instanceof Double || t instanceof Float || t instanceof Character || t instanceof Boolean || t instanceof Short;
+    }
+}
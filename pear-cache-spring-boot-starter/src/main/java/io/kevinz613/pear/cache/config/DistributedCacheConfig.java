@@ -0,0 +1,34 @@
+package io.kevinz613.pear.cache.config;
+
+import io.kevinz613.pear.cache.distribute.impl.NearDistributedCacheService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 分布式缓存配置
+ *
+ * @author kevinz613
+ */
+@Configuration
+@EnableConfigurationProperties({DistributedCacheProperties.class, LocalCacheProperties.class})
+public class DistributedCacheConfig {
+
+    /**
+     * 二级缓存模式下，订阅其他节点广播的缓存失效消息
+     */
+    @Bean
+    @ConditionalOnProperty(name = "distribute.cache.type", havingValue = "near")
+    public RedisMessageListenerContainer nearCacheListenerContainer(LettuceConnectionFactory lettuceConnectionFactory,
+                                                                    NearDistributedCacheService nearDistributedCacheService,
+                                                                    DistributedCacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(lettuceConnectionFactory);
+        container.addMessageListener(nearDistributedCacheService, new ChannelTopic(properties.getNear().getChannel()));
+        return container;
+    }
+}
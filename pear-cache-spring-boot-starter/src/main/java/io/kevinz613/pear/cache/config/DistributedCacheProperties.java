@@ -0,0 +1,477 @@
+package io.kevinz613.pear.cache.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分布式缓存属性
+ *
+ * @author kevinz613
+ */
+@Data
+@ConfigurationProperties("distribute.cache")
+public class DistributedCacheProperties {
+
+    /**
+     * 分布式缓存类型 redis or near or tracking
+     */
+    private String type = "redis";
+
+    /**
+     * 二级缓存（本地缓存 + 分布式缓存）配置
+     */
+    private Near near = new Near();
+
+    /**
+     * 缓存value编解码配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * 缓存value压缩配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 异步分布式缓存配置
+     */
+    private Async async = new Async();
+
+    /**
+     * 逻辑过期缓存重建配置
+     */
+    private Rebuild rebuild = new Rebuild();
+
+    /**
+     * XFetch提前重建缓存配置
+     */
+    private EarlyRefresh earlyRefresh = new EarlyRefresh();
+
+    /**
+     * 布隆过滤器配置
+     */
+    private Bloom bloom = new Bloom();
+
+    /**
+     * 热点key探测配置
+     */
+    private HotKey hotKey = new HotKey();
+
+    /**
+     * 缓存指标配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 缓存过期时间策略配置
+     */
+    private Ttl ttl = new Ttl();
+
+    /**
+     * 服务端辅助的客户端缓存配置
+     */
+    private Tracking tracking = new Tracking();
+
+    /**
+     * 缓存预热配置
+     */
+    private Warmup warmup = new Warmup();
+
+    @Data
+    @NoArgsConstructor
+    public static class Near {
+
+        /**
+         * 本地缓存过期时间，单位秒
+         */
+        private long localTtl = 30;
+
+        /**
+         * 本地缓存初始容量
+         */
+        private int initialCapacity = 100;
+
+        /**
+         * 本地缓存最大条数
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * 开启本地缓存的key前缀，为空时所有key都开启本地缓存
+         */
+        private List<String> prefixes = new ArrayList<>();
+
+        /**
+         * 节点间广播缓存失效消息的频道
+         */
+        private String channel = "pear:cache:near:invalidate";
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Codec {
+
+        /**
+         * 默认编解码器 hutool、jackson or jsonb
+         */
+        private String defaultCodec = "hutool";
+
+        /**
+         * key前缀与编解码器名称的映射，key前缀包含特殊字符时使用[]包裹，例如 prefixes.[product:]=jsonb
+         */
+        private Map<String, String> prefixes = new LinkedHashMap<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Compression {
+
+        /**
+         * 是否开启压缩，关闭后仍然可以读取已经压缩的数据
+         */
+        private boolean enabled = false;
+
+        /**
+         * 压缩阈值，编码后超过该字节数的value才压缩
+         */
+        private int threshold = 4096;
+
+        /**
+         * 压缩算法
+         */
+        private String algorithm = "deflate";
+
+        /**
+         * 压缩级别，-1为默认级别，取值范围0-9
+         */
+        private int level = -1;
+
+        /**
+         * 开启压缩的key前缀，为空时所有key都开启压缩
+         */
+        private List<String> prefixes = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Async {
+
+        /**
+         * 是否开启异步分布式缓存服务
+         */
+        private boolean enabled = false;
+
+        /**
+         * 执行数据库查询的线程数，数据库查询不在Redis I/O线程中执行；逻辑过期数据的重建使用rebuild中配置的线程池
+         */
+        private int loaderThreads = 16;
+
+        /**
+         * 数据库查询任务的队列长度
+         */
+        private int loaderQueueCapacity = 4096;
+
+        /**
+         * 解码缓存数据和失效本地缓存的线程数，不在Lettuce I/O线程中解码数据或发送失效消息
+         */
+        private int decodeThreads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 逻辑过期方式查询时缓存不存在，等待其他调用重建缓存的最长时间，单位毫秒，超时后返回异常；
+         * 默认与Redisson锁的看门狗超时时间一致，持有锁的节点宕机后锁在该时间内释放
+         */
+        private long rebuildWaitMillis = 30000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Rebuild {
+
+        /**
+         * 执行缓存重建的线程数
+         */
+        private int threads = 16;
+
+        /**
+         * 重建任务的队列长度，队列已满时丢弃重建任务，下次读取到过期数据时再次提交
+         */
+        private int queueCapacity = 4096;
+
+        /**
+         * 同一个key前缀同时执行的重建任务数量上限
+         */
+        private int maxConcurrentPerPrefix = 4;
+
+        /**
+         * key前缀与并发重建上限的映射，未配置的前缀使用maxConcurrentPerPrefix
+         */
+        private Map<String, Integer> prefixLimits = new LinkedHashMap<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class EarlyRefresh {
+
+        /**
+         * 提前重建系数，默认1.0，大于1时更倾向于提前重建，小于1时更接近过期时间才重建
+         */
+        private double beta = 1.0D;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Bloom {
+
+        /**
+         * 本地副本刷新间隔，单位秒
+         */
+        private long refreshInterval = 30;
+
+        /**
+         * Redis中位图key的前缀
+         */
+        private String redisKeyPrefix = "pear:bloom:";
+
+        /**
+         * 初始化位图时每批写入的数量
+         */
+        private int seedBatchSize = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class HotKey {
+
+        /**
+         * 是否开启热点key探测
+         */
+        private boolean enabled = false;
+
+        /**
+         * 统计时间窗口，单位秒
+         */
+        private long window = 1;
+
+        /**
+         * 时间窗口内访问次数超过该值的key提升到本地缓存，低于该值一半时降级
+         */
+        private long threshold = 1000;
+
+        /**
+         * 采样率，取值范围(0, 1]，访问量很大时可以降低采样率减少统计开销
+         */
+        private double sampleRate = 1.0D;
+
+        /**
+         * 统计的热点key数量
+         */
+        private int topK = 20;
+
+        /**
+         * Count-Min Sketch的哈希函数个数
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * Count-Min Sketch每行的计数器个数
+         */
+        private int sketchWidth = 4096;
+
+        /**
+         * 每个时间窗口最多跟踪的候选key数量
+         */
+        private int maxCandidates = 1024;
+
+        /**
+         * 热点key本地缓存过期时间，单位秒，其他节点写入后本节点最多读取到该时长的旧数据
+         */
+        private long localTtl = 2;
+
+        /**
+         * 热点key本地缓存最大条数
+         */
+        private long maximumSize = 1000;
+
+        /**
+         * 保留的提升和降级事件数量
+         */
+        private int eventHistory = 200;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Metrics {
+
+        /**
+         * 是否开启缓存指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 指标中key前缀标签的最大取值个数，超出的key前缀统一记为other，防止业务标识进入标签导致指标数量膨胀
+         */
+        private int maxPrefixTags = 100;
+
+        /**
+         * 直接读写缓存时用于归类key的前缀，未配置或没有匹配时取key中第一个冒号及之前的部分
+         */
+        private List<String> prefixes = new ArrayList<>();
+
+        /**
+         * 数据库查询和分布式锁等待耗时是否发布百分位直方图
+         */
+        private boolean histogram = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Ttl {
+
+        /**
+         * 随机抖动比例，实际过期时间在[timeout, timeout * (1 + jitter)]之间随机，为0时不抖动；
+         * 默认不抖动，保证调用方传入的过期时间不变，需要防止同时过期的key前缀在prefixes中单独开启
+         */
+        private double jitter = 0D;
+
+        /**
+         * 最小过期时间，单位秒，为0时不限制
+         */
+        private long min = 0;
+
+        /**
+         * 最大过期时间，单位秒，为0时不限制
+         */
+        private long max = 0;
+
+        /**
+         * 缓存空数据的过期时间，单位秒
+         */
+        private long nullTtl = 60;
+
+        /**
+         * 批量写入时按照key在该时长内错开过期时间，单位秒，为0时不错开
+         */
+        private long stagger = 0;
+
+        /**
+         * 逻辑过期数据未指定缓存时长时的逻辑过期时间，单位秒，缓存本身不设置物理过期时间
+         */
+        private long logicalTtl = 3600;
+
+        /**
+         * 按照key前缀单独配置的过期时间策略，未配置的项使用上面的默认值
+         */
+        private Map<String, TtlPolicy> prefixes = new LinkedHashMap<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class TtlPolicy {
+
+        /**
+         * 随机抖动比例
+         */
+        private Double jitter;
+
+        /**
+         * 最小过期时间，单位秒
+         */
+        private Long min;
+
+        /**
+         * 最大过期时间，单位秒
+         */
+        private Long max;
+
+        /**
+         * 缓存空数据的过期时间，单位秒
+         */
+        private Long nullTtl;
+
+        /**
+         * 批量写入时错开过期时间的时长，单位秒
+         */
+        private Long stagger;
+
+        /**
+         * 未指定缓存时长时的逻辑过期时间，单位秒
+         */
+        private Long logicalTtl;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Tracking {
+
+        /**
+         * 是否使用广播模式，广播模式下服务端按照key前缀推送失效消息，不记录每个连接读取过的key
+         */
+        private boolean broadcast = false;
+
+        /**
+         * 开启客户端缓存的key前缀，为空时所有key都开启客户端缓存，广播模式下同时作为跟踪的前缀
+         */
+        private List<String> prefixes = new ArrayList<>();
+
+        /**
+         * 本地缓存过期时间，单位秒，作为失效消息丢失时的兜底
+         */
+        private long localTtl = 300;
+
+        /**
+         * 本地缓存初始容量
+         */
+        private int initialCapacity = 100;
+
+        /**
+         * 本地缓存最大条数
+         */
+        private long maximumSize = 10000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Warmup {
+
+        /**
+         * 是否开启缓存预热
+         */
+        private boolean enabled = false;
+
+        /**
+         * 是否在启动时预热，关闭时只能按需预热
+         */
+        private boolean onStartup = true;
+
+        /**
+         * 所有数据源同时执行的批次数量
+         */
+        private int concurrency = 4;
+
+        /**
+         * 每批次的业务标识数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 就绪比例，每个数据源已处理的业务标识达到预计数量的百分比后认为就绪，未声明预计数量的数据源预热完成后就绪
+         */
+        private double readyPercent = 90;
+
+        /**
+         * 等待就绪的最长时间，单位秒，超时后不再阻塞，预热在后台继续执行
+         */
+        private long readyTimeout = 300;
+
+        /**
+         * 输出预热进度的间隔，单位秒
+         */
+        private long progressInterval = 10;
+    }
+}
@@ -0,0 +1,94 @@
+package io.kevinz613.pear.cache.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存属性
+ *
+ * @author kevinz613
+ */
+@Data
+@ConfigurationProperties("local.cache")
+public class LocalCacheProperties {
+
+    /**
+     * 本地缓存类型 guava or caffeine，同时作为缓存区域的默认类型
+     */
+    private String type = "caffeine";
+
+    /**
+     * 缓存区域名称与配置的映射，每个区域是一个独立的本地缓存，互不影响淘汰
+     */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * 本地缓存快照目录，需要在重启后保留，容器部署时挂载持久卷
+     */
+    private String snapshotDir = System.getProperty("java.io.tmpdir") + "/pear-cache";
+
+    @Data
+    @NoArgsConstructor
+    public static class Region {
+
+        /**
+         * 本地缓存类型 guava、caffeine or offheap，为空时使用local.cache.type；offheap区域需要指定value类型，
+         * 通过LocalCacheManager.getOffHeapCache获取
+         */
+        private String type;
+
+        /**
+         * 初始容量
+         */
+        private int initialCapacity = 100;
+
+        /**
+         * 最大缓存条数，配置了最大权重时不生效
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * 最大权重，单位字节，大于0时按照条目序列化后的估算大小淘汰；offheap区域必须配置，即堆外内存的总字节数
+         */
+        private long maximumWeight = 0;
+
+        /**
+         * 写入后过期时间，单位秒，小于等于0时不过期
+         */
+        private long expireAfterWrite = 300;
+
+        /**
+         * 访问后过期时间，单位秒，小于等于0时不过期
+         */
+        private long expireAfterAccess = 0;
+
+        /**
+         * 是否统计命中率
+         */
+        private boolean recordStats = true;
+
+        /**
+         * 堆外缓存的value编解码器 hutool、jackson or jsonb
+         */
+        private String codec = "jsonb";
+
+        /**
+         * 堆外缓存的分段数量，每个分段有独立的锁和直接内存
+         */
+        private int segments = 16;
+
+        /**
+         * 堆外缓存单个条目的最大字节数，超过的数据不缓存
+         */
+        private int maxEntrySize = 1024 * 1024;
+
+        /**
+         * 堆外缓存的快照间隔，单位秒，大于0时定期将未过期的条目写入快照文件，启动时从快照恢复
+         */
+        private long snapshotInterval = 0;
+    }
+}
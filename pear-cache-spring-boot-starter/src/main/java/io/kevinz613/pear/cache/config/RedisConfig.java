@@ -12,13 +12,21 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
 import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.resource.DefaultClientResources;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
@@ -29,13 +37,17 @@ import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Redis 池配置
+ * Redis 池配置，按照redis.arrange.type选择单机、集群或哨兵模式，集群和哨兵模式下按照redis.read-from从从节点读取，
+ * 写入和分布式锁始终在主节点执行
  *
  * @author kevinz613
  */
@@ -47,6 +59,7 @@ public class RedisConfig {
     private static final String DEFAULT_TIME_FORMAT = "HH:mm:ss";
     private static final String MILLI_SECONDS_UNIT = "ms";
     private static final String DEFAULT_MAX_WAIT = "1000";
+    private static final String ARRANGE_TYPE = "redis.arrange.type";
 
     @Value("${spring.data.redis.lettuce.pool.max-idle}")
     private int maxIdle;
@@ -64,6 +77,25 @@ public class RedisConfig {
     private String password;
     @Value("${spring.data.redis.database}")
     private int database;
+    @Value("${redis.arrange.type:single}")
+    private String arrangeType;
+    //集群节点，多个节点用逗号分隔，格式host:port
+    @Value("${spring.data.redis.cluster.nodes:}")
+    private String clusterNodes;
+    @Value("${spring.data.redis.cluster.max-redirects:5}")
+    private int maxRedirects;
+    //哨兵的主节点名称
+    @Value("${spring.data.redis.sentinel.master:}")
+    private String sentinelMaster;
+    //哨兵节点，多个节点用逗号分隔，格式host:port
+    @Value("${spring.data.redis.sentinel.nodes:}")
+    private String sentinelNodes;
+    //集群和哨兵模式下的读取策略，例如upstream、upstreamPreferred、replicaPreferred、lowestLatency、any
+    @Value("${redis.read-from:replicaPreferred}")
+    private String readFrom;
+    //集群拓扑定期刷新间隔，单位秒
+    @Value("${redis.topology-refresh-period:30}")
+    private long topologyRefreshPeriod;
 
     private long getMaxWait(String maxWait) {
         //判断是否为空
@@ -96,8 +128,12 @@ public class RedisConfig {
         return DefaultClientResources.create();
     }
 
+    /**
+     * 单机模式
+     */
     @Bean
-    public RedisStandaloneConfiguration redisSentinelConfiguration() {
+    @ConditionalOnProperty(name = ARRANGE_TYPE, havingValue = "single", matchIfMissing = true)
+    public RedisStandaloneConfiguration redisStandaloneConfiguration() {
         RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration();
         redisStandaloneConfiguration.setDatabase(database);
         redisStandaloneConfiguration.setHostName(host);
@@ -106,14 +142,69 @@ public class RedisConfig {
         return redisStandaloneConfiguration;
     }
 
+    /**
+     * 集群模式，数据按照槽位分布在多个主节点上
+     */
+    @Bean
+    @ConditionalOnProperty(name = ARRANGE_TYPE, havingValue = "cluster")
+    public RedisClusterConfiguration redisClusterConfiguration() {
+        RedisClusterConfiguration redisClusterConfiguration = new RedisClusterConfiguration(this.splitNodes(clusterNodes));
+        redisClusterConfiguration.setMaxRedirects(maxRedirects);
+        redisClusterConfiguration.setPassword(password);
+        return redisClusterConfiguration;
+    }
+
+    /**
+     * 哨兵模式，由哨兵发现主节点和从节点
+     */
+    @Bean
+    @ConditionalOnProperty(name = ARRANGE_TYPE, havingValue = "sentinel")
+    public RedisSentinelConfiguration redisSentinelConfiguration() {
+        RedisSentinelConfiguration redisSentinelConfiguration = new RedisSentinelConfiguration();
+        redisSentinelConfiguration.master(sentinelMaster);
+        for (String node : this.splitNodes(sentinelNodes)) {
+            redisSentinelConfiguration.addSentinel(RedisNode.fromString(node));
+        }
+        redisSentinelConfiguration.setDatabase(database);
+        redisSentinelConfiguration.setPassword(password);
+        return redisSentinelConfiguration;
+    }
+
     @Bean
     public LettuceClientConfiguration lettuceClientConfiguration(GenericObjectPoolConfig genericObjectPoolConfig, ClientResources lettuceClientResources) {
-        return LettucePoolingClientConfiguration.builder().clientResources(lettuceClientResources).poolConfig(genericObjectPoolConfig).build();
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder builder = LettucePoolingClientConfiguration.builder()
+                .clientResources(lettuceClientResources).poolConfig(genericObjectPoolConfig);
+        if ("cluster".equals(arrangeType)) {
+            //定期刷新拓扑，并在节点迁移、重定向、连接断开时自适应刷新
+            ClusterTopologyRefreshOptions refreshOptions = ClusterTopologyRefreshOptions.builder()
+                    .enablePeriodicRefresh(Duration.ofSeconds(topologyRefreshPeriod))
+                    .enableAllAdaptiveRefreshTriggers()
+                    .build();
+            builder.clientOptions(ClusterClientOptions.builder().topologyRefreshOptions(refreshOptions).build());
+        }
+        if ("cluster".equals(arrangeType) || "sentinel".equals(arrangeType)) {
+            //读命令按照策略路由到从节点，写命令始终发送到主节点
+            builder.readFrom(ReadFrom.valueOf(readFrom));
+        }
+        return builder.build();
     }
 
     @Bean
-    public LettuceConnectionFactory lettuceConnectionFactory(RedisStandaloneConfiguration redisSentinelConfiguration, LettuceClientConfiguration lettuceClientConfiguration) {
-        return new LettuceConnectionFactory(redisSentinelConfiguration, lettuceClientConfiguration);
+    public LettuceConnectionFactory lettuceConnectionFactory(RedisConfiguration redisConfiguration, LettuceClientConfiguration lettuceClientConfiguration) {
+        return new LettuceConnectionFactory(redisConfiguration, lettuceClientConfiguration);
+    }
+
+    /**
+     * 解析逗号分隔的节点列表
+     *
+     * @param nodes 节点列表，格式host:port
+     * @return 节点列表
+     */
+    private List<String> splitNodes(String nodes) {
+        if (!StringUtils.hasText(nodes)) {
+            throw new IllegalArgumentException("redis nodes must be configured for arrange type: " + arrangeType);
+        }
+        return Arrays.stream(nodes.split(",")).map(String::trim).filter(StringUtils::hasText).toList();
     }
 
     @Bean(name = "redisTemplate")
@@ -142,6 +233,21 @@ public class RedisConfig {
         return redisTemplate;
     }
 
+    /**
+     * value为字节数组的RedisTemplate，分布式缓存通过编解码器自行序列化value
+     */
+    @Bean(name = "byteRedisTemplate")
+    public RedisTemplate<String, byte[]> byteRedisTemplate(LettuceConnectionFactory lettuceConnectionFactory) {
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(lettuceConnectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.setHashValueSerializer(RedisSerializer.byteArray());
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
+
     @Bean(name = "stringRedisTemplate")
     public StringRedisTemplate stringRedisTemplate(LettuceConnectionFactory lettuceConnectionFactory) {
         // 重新初始化工厂
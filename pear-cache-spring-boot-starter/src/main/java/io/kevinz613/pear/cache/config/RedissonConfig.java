@@ -5,6 +5,7 @@ import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.SentinelServersConfig;
 import org.redisson.config.SingleServerConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -31,6 +32,12 @@ public class RedissonConfig {
     @Value("${spring.data.redis.database}")
     private int database;
 
+    @Value("${spring.data.redis.sentinel.master:}")
+    private String sentinelMaster;
+
+    @Value("${spring.data.redis.sentinel.nodes:}")
+    private String sentinelNodes;
+
     @Bean(name = "redissonClient")
     @ConditionalOnProperty(name = "redis.arrange.type", havingValue = "single")
     public RedissonClient singleRedissonClient() {
@@ -55,4 +62,21 @@ public class RedissonConfig {
         return Redisson.create(config);
     }
 
+    @Bean(name = "redissonClient")
+    @ConditionalOnProperty(name = "redis.arrange.type", havingValue = "sentinel")
+    public RedissonClient sentinelRedissonClient() {
+        Config config = new Config();
+        SentinelServersConfig sentinelServersConfig = config.useSentinelServers();
+        sentinelServersConfig.setMasterName(sentinelMaster).setDatabase(database);
+        for (String node : sentinelNodes.split(",")) {
+            if (!StrUtil.isBlank(node)) {
+                sentinelServersConfig.addSentinelAddress(node.trim().startsWith("redis") ? node.trim() : "redis://" + node.trim());
+            }
+        }
+        if (!StrUtil.isEmpty(password)) {
+            sentinelServersConfig.setPassword(password);
+        }
+        return Redisson.create(config);
+    }
+
 }
@@ -0,0 +1,241 @@
+package io.kevinz613.pear.cache.distribute;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 异步分布式缓存服务接口，与{@link DistributedCacheService}使用相同的key和缓存格式，所有方法不阻塞调用线程，
+ * 一个请求可以同时发起多个缓存查询
+ *
+ * @author kevinz613
+ */
+public interface AsyncDistributedCacheService {
+
+    /**
+     * 永久缓存数据
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value
+     * @return 写入结果
+     */
+    CompletableFuture<Void> set(String key, Object value);
+
+    /**
+     * 将数据缓存一段时间
+     *
+     * @param key     缓存的key
+     * @param value   缓存的value
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 写入结果
+     */
+    CompletableFuture<Void> set(String key, Object value, Long timeout, TimeUnit unit);
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     缓存的key
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 设置过期时间是否成功
+     */
+    CompletableFuture<Boolean> expire(String key, long timeout, TimeUnit unit);
+
+    /**
+     * 保存缓存时设置逻辑过期时间
+     *
+     * @param key     缓存的key
+     * @param value   缓存的value
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 写入结果
+     */
+    CompletableFuture<Void> setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit);
+
+    /**
+     * 获取缓存中的数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的value
+     */
+    CompletableFuture<String> get(String key);
+
+    /**
+     * 获取缓存数据
+     *
+     * @param key         缓存的key
+     * @param targetClass 目标类
+     * @return t
+     */
+    <T> CompletableFuture<T> getObject(String key, Class<T> targetClass);
+
+    /**
+     * 根据key列表批量获取value
+     *
+     * @param keys key列表
+     * @return value集合
+     */
+    CompletableFuture<List<String>> multiGet(Collection<String> keys);
+
+    /**
+     * 删除指定的key
+     *
+     * @param key 缓存的key
+     * @return 是否删除成功
+     */
+    CompletableFuture<Boolean> delete(String key);
+
+    /**
+     * 带参数查询对象和简单类型数据，防止缓存穿透
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R, ID> CompletableFuture<R> queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询对象和简单类型数据，防止缓存穿透
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R> CompletableFuture<R> queryWithPassThroughWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，防止缓存穿透
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R, ID> CompletableFuture<List<R>> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询集合数据，防止缓存穿透
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R> CompletableFuture<List<R>> queryWithPassThroughListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询数据，按照逻辑过期时间读取缓存数据，异步重建缓存，直接返回逻辑过期数据
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R, ID> CompletableFuture<R> queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询数据，按照逻辑过期时间读取缓存数据，异步重建缓存，直接返回逻辑过期数据
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R> CompletableFuture<R> queryWithLogicalExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照逻辑过期时间读取缓存数据，异步重建缓存，直接返回逻辑过期数据
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R, ID> CompletableFuture<List<R>> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询集合数据，按照逻辑过期时间读取缓存数据，异步重建缓存，直接返回逻辑过期数据
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R> CompletableFuture<List<R>> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个调用访问数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R, ID> CompletableFuture<R> queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个调用访问数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    <R> CompletableFuture<R> queryWithMutexWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照互斥锁方式获取缓存数据，同一时刻只有一个调用访问数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R, ID> CompletableFuture<List<R>> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询集合数据，按照互斥锁方式获取缓存数据，同一时刻只有一个调用访问数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R> CompletableFuture<List<R>> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
+}
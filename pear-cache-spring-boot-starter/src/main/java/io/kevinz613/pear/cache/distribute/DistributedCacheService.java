@@ -1,15 +1,16 @@
 package io.kevinz613.pear.cache.distribute;
 
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.crypto.digest.MD5;
 import cn.hutool.json.JSONUtil;
 import io.kevinz613.pear.cache.distribute.conversion.TypeConversion;
+import io.kevinz613.pear.cache.distribute.key.CacheKeyGenerator;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -86,13 +87,49 @@ public interface DistributedCacheService {
     List<String> multiGet(Collection<String> keys);
 
     /**
-     * 根据正则表达式获取所有的key集合
+     * 根据正则表达式获取所有的key集合，基于SCAN游标遍历，不会阻塞Redis
      *
      * @param pattern 正则表达式
      * @return key集合
      */
     Set<String> keys(String pattern);
 
+    /**
+     * 根据正则表达式分页遍历key，基于SCAN游标，每凑满一页回调一次
+     *
+     * @param pattern  正则表达式
+     * @param pageSize 每页key的数量，同时作为SCAN的COUNT参数
+     * @param consumer 每页key的回调
+     */
+    void scan(String pattern, int pageSize, Consumer<List<String>> consumer);
+
+    /**
+     * 根据正则表达式批量删除key，基于SCAN游标遍历，使用UNLINK异步释放内存
+     *
+     * @param pattern   正则表达式
+     * @param batchSize 每批删除key的数量
+     * @return 删除的key数量
+     */
+    long deleteByPattern(String pattern, int batchSize);
+
+
+    /**
+     * 为key前缀注册布隆过滤器，查询一定不存在的业务标识时不访问Redis和数据库
+     *
+     * @param keyPrefix          缓存的key前缀
+     * @param expectedInsertions 预计插入的数量
+     * @param fpp                误判率
+     * @param idLoader           加载所有存在的业务标识，用于初始化布隆过滤器
+     */
+    <ID> void registerBloomFilter(String keyPrefix, long expectedInsertions, double fpp, Supplier<? extends Iterable<ID>> idLoader);
+
+    /**
+     * 将业务标识加入布隆过滤器，新增的业务数据没有写入缓存时需要调用
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param id        缓存的业务标识
+     */
+    <ID> void addToBloomFilter(String keyPrefix, ID id);
 
     /**
      * 删除指定的key
@@ -102,6 +139,14 @@ public interface DistributedCacheService {
      */
     Boolean delete(String key);
 
+    /**
+     * key已经被其他客户端(例如异步缓存服务)写入或删除后，失效当前节点的热点key本地缓存和近端缓存，
+     * 近端缓存模式下同时通知其他节点失效本地缓存
+     *
+     * @param keys 缓存的key列表
+     */
+    void invalidateLocal(Collection<String> keys);
+
     /**
      * 带参数查询对象和简单类型数据，防止缓存穿透
      *
@@ -261,6 +306,149 @@ public interface DistributedCacheService {
      */
     <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
 
+    /**
+     * 带参数查询数据，按照XFetch算法提前重建缓存，缓存中保存重建耗时，每次读取按照概率在过期前触发后台重建，
+     * 重建耗时越长、越接近过期时间，触发概率越大，避免同一批key同时过期
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return r
+     */
+    <R, ID> R queryWithEarlyRefresh(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询数据，按照XFetch算法提前重建缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return r
+     */
+    <R> R queryWithEarlyRefreshWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询集合数据，按照XFetch算法提前重建缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R, ID> List<R> queryWithEarlyRefreshList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 不带参数查询集合数据，按照XFetch算法提前重建缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    <R> List<R> queryWithEarlyRefreshListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit);
+
+
+    /**
+     * 批量带参数查询对象和简单类型数据，防止缓存穿透，一次批量读取缓存，只对缺失的数据调用一次批量查询数据库，
+     * 查询结果和空数据批量写回缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param ids        缓存的业务标识集合
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 批量查询数据库的Function函数，返回业务标识与业务数据的映射
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 与业务标识顺序一致的业务数据列表，不存在的数据为null
+     */
+    <R, ID> List<R> queryWithPassThroughBatch(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 批量带参数查询数据，按照互斥锁方式获取缓存数据，缺失的数据获取到锁后一次批量查询数据库，未获取到锁的数据逐个重试
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param ids        缓存的业务标识集合
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 批量查询数据库的Function函数，返回业务标识与业务数据的映射
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 与业务标识顺序一致的业务数据列表，不存在的数据为null
+     */
+    <R, ID> List<R> queryWithMutexBatch(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 通过管道批量缓存数据，按照key错开过期时间，值为null的数据不缓存
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param values    业务标识与业务数据的映射
+     * @param timeout   缓存时长
+     * @param unit      缓存时长单位
+     * @return 缓存的数据数量
+     */
+    <R, ID> int multiSet(String keyPrefix, Map<ID, R> values, Long timeout, TimeUnit unit);
+
+    /**
+     * 以Hash方式缓存对象，每个属性对应一个字段，读取时可以只读取需要的字段，更新时可以只更新部分字段
+     *
+     * @param key     缓存的key
+     * @param value   缓存的对象
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    void setHash(String key, Object value, Long timeout, TimeUnit unit);
+
+    /**
+     * 读取Hash方式缓存的对象，只读取视图类型需要的字段，视图类型可以是record或者带无参构造方法的类
+     *
+     * @param key      缓存的key
+     * @param viewType 视图类型
+     * @return 视图对象，缓存不存在或缓存了空数据时返回null
+     */
+    <V> V getHash(String key, Class<V> viewType);
+
+    /**
+     * 更新Hash方式缓存的对象的部分字段，值为null的字段被删除，缓存不存在时不写入
+     *
+     * @param key    缓存的key
+     * @param fields 字段名与字段值的映射
+     * @return 是否更新成功
+     */
+    Boolean updateHashFields(String key, Map<String, ?> fields);
+
+    /**
+     * 带参数查询Hash方式缓存的对象，防止缓存穿透，只读取视图类型需要的字段
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param viewType   视图类型
+     * @param dbFallback 查询数据库的Function函数，返回完整的对象
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 视图对象
+     */
+    <V, E, ID> V queryHashWithPassThrough(String keyPrefix, ID id, Class<V> viewType, Function<ID, E> dbFallback, Long timeout, TimeUnit unit);
+
+    /**
+     * 带参数查询Hash方式缓存的对象，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，只读取视图类型需要的字段
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param viewType   视图类型
+     * @param dbFallback 查询数据库的Function函数，返回完整的对象
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 视图对象
+     */
+    <V, E, ID> V queryHashWithMutex(String keyPrefix, ID id, Class<V> viewType, Function<ID, E> dbFallback, Long timeout, TimeUnit unit);
 
     /**
      * 将对象类型的Json字符串转换成泛型类型
@@ -275,7 +463,7 @@ public interface DistributedCacheService {
         }
         //简单类型
         if (TypeConversion.isSimpleType(obj)) {
-            return Convert.convert(type, obj);
+            return TypeConversion.convert(obj, type);
         }
         return JSONUtil.toBean(JSONUtil.toJsonStr(obj), type);
     }
@@ -305,27 +493,15 @@ public interface DistributedCacheService {
     }
 
     /**
-     * 不确定参数类型的情况下，使用MD5计算参数的拼接到Redis中的唯一key
+     * 拼接业务标识到Redis中的唯一key，简单类型直接拼接，声明了提取器的类型按照提取器拼接，
+     * 其他类型对字段值计算128位哈希，详见CacheKeyGenerator
      *
      * @param keyPrefix 缓存的key前缀
      * @param id        泛型参数
      * @return 拼接好的缓存key
      */
     default <ID> String getKey(String keyPrefix, ID id) {
-        if (id == null) {
-            return keyPrefix;
-        }
-        String key = "";
-        //简单数据类型与简单字符串
-        if (TypeConversion.isSimpleType(id)) {
-            key = StrUtil.toString(id);
-        } else {
-            key = MD5.create().digestHex(JSONUtil.toJsonStr(id));
-        }
-        if (StrUtil.isEmpty(key)) {
-            key = "";
-        }
-        return keyPrefix.concat(key);
+        return CacheKeyGenerator.generate(keyPrefix, id);
     }
 
     /**
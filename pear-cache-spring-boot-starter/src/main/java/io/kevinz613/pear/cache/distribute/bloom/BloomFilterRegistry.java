@@ -0,0 +1,275 @@
+package io.kevinz613.pear.cache.distribute.bloom;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.lock.DistributedLockService;
+import io.kevinz613.pear.cache.lock.factory.DistributedLockFactory;
+import io.kevinz613.pear.cache.metrics.CacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 布隆过滤器注册中心，按照缓存key前缀注册布隆过滤器，防止查询一定不存在的数据时访问Redis和数据库，
+ * 位图保存在Redis中由所有节点共享，各节点定期刷新本地副本；首次注册时由获取到分布式锁的节点从数据源批量初始化位图
+ *
+ * @author kevinz613
+ */
+@Component
+public class BloomFilterRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(BloomFilterRegistry.class);
+
+    //位图初始化完成标记的key后缀
+    private static final String READY_SUFFIX = ":ready";
+    //初始化位图的分布式锁key后缀
+    private static final String LOCK_SUFFIX = "_lock";
+
+    @Autowired
+    @Qualifier("byteRedisTemplate")
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Autowired
+    private DistributedLockFactory distributedLockFactory;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    //key前缀与布隆过滤器的映射
+    private final Map<String, CacheBloomFilter> filters = new ConcurrentHashMap<>();
+
+    //按照前缀长度倒序排列的布隆过滤器，优先匹配最长的前缀
+    private final List<CacheBloomFilter> prefixFilters = new CopyOnWriteArrayList<>();
+
+    //刷新本地副本和初始化位图的线程
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("pear-cache-bloom-%d").setDaemon(true).build());
+        long interval = properties.getBloom().getRefreshInterval();
+        scheduler.scheduleWithFixedDelay(this::refreshAll, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 注册布隆过滤器，Redis中的位图未初始化时异步从数据源批量初始化，初始化完成前不拒绝任何数据；
+     * 位图的key包含位数和哈希函数个数，修改预计插入数量或误判率后，以及新旧配置混合部署时，不同形状的过滤器使用各自的位图
+     *
+     * @param keyPrefix          缓存的key前缀
+     * @param expectedInsertions 预计插入的数量
+     * @param fpp                误判率
+     * @param loader             数据源，将所有存在的缓存key逐个写入参数中的Consumer
+     * @return 布隆过滤器
+     */
+    public CacheBloomFilter register(String keyPrefix, long expectedInsertions, double fpp, Consumer<Consumer<String>> loader) {
+        CacheBloomFilter filter = new CacheBloomFilter(keyPrefix, properties.getBloom().getRedisKeyPrefix(), expectedInsertions, fpp);
+        if (filters.putIfAbsent(keyPrefix, filter) != null) {
+            throw new IllegalStateException("bloom filter already registered: " + keyPrefix);
+        }
+        prefixFilters.add(filter);
+        prefixFilters.sort(Comparator.comparingInt((CacheBloomFilter item) -> item.getKeyPrefix().length()).reversed());
+        cacheMetrics.bindBloomFilter(filter);
+        scheduler.execute(() -> {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(filter.getRedisKey().concat(READY_SUFFIX)))) {
+                this.seed(filter, loader);
+            }
+            this.refresh(filter);
+        });
+        return filter;
+    }
+
+    /**
+     * 根据key前缀获取布隆过滤器
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @return 布隆过滤器，未注册时返回null
+     */
+    public CacheBloomFilter getFilter(String keyPrefix) {
+        return filters.get(keyPrefix);
+    }
+
+    /**
+     * 获取所有布隆过滤器
+     *
+     * @return 布隆过滤器集合
+     */
+    public Collection<CacheBloomFilter> getFilters() {
+        return Collections.unmodifiableCollection(filters.values());
+    }
+
+    /**
+     * 判断缓存key是否可能存在，没有匹配的布隆过滤器时返回true
+     *
+     * @param key 缓存的key
+     * @return 返回false时数据一定不存在
+     */
+    public boolean mightContain(String key) {
+        CacheBloomFilter filter = this.resolve(key);
+        return filter == null || filter.mightContain(key);
+    }
+
+    /**
+     * 将缓存key加入匹配的布隆过滤器，同时写入Redis位图和本地副本
+     *
+     * @param key 缓存的key
+     */
+    public void put(String key) {
+        CacheBloomFilter filter = this.resolve(key);
+        if (filter == null) {
+            return;
+        }
+        long[] offsets = filter.offsets(key);
+        if (filter.containsLocal(offsets)) {
+            //本地副本中已经存在，Redis位图中也一定存在
+            return;
+        }
+        this.setBits(filter.getRedisKey(), Collections.singletonList(offsets));
+        filter.setLocal(offsets);
+    }
+
+    /**
+     * 重新从数据源初始化布隆过滤器，已经存在的位不会被清除
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param loader    数据源
+     */
+    public void reseed(String keyPrefix, Consumer<Consumer<String>> loader) {
+        CacheBloomFilter filter = filters.get(keyPrefix);
+        if (filter == null) {
+            throw new IllegalArgumentException("bloom filter not registered: " + keyPrefix);
+        }
+        scheduler.execute(() -> {
+            this.seed(filter, loader);
+            this.refresh(filter);
+        });
+    }
+
+    /**
+     * 根据缓存key选择布隆过滤器
+     *
+     * @param key 缓存的key
+     * @return 布隆过滤器，没有匹配的前缀时返回null
+     */
+    private CacheBloomFilter resolve(String key) {
+        for (CacheBloomFilter filter : prefixFilters) {
+            if (key.startsWith(filter.getKeyPrefix())) {
+                return filter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取分布式锁后从数据源批量初始化Redis位图，完成后写入初始化完成标记
+     *
+     * @param filter 布隆过滤器
+     * @param loader 数据源
+     */
+    private void seed(CacheBloomFilter filter, Consumer<Consumer<String>> loader) {
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(filter.getRedisKey().concat(LOCK_SUFFIX));
+        try {
+            if (!distributedLock.tryLock()) {
+                //其他节点正在初始化，等待定期刷新读取初始化完成标记
+                return;
+            }
+            try {
+                int batchSize = properties.getBloom().getSeedBatchSize();
+                List<long[]> batch = new ArrayList<>(batchSize);
+                long[] count = new long[1];
+                loader.accept(key -> {
+                    long[] offsets = filter.offsets(key);
+                    batch.add(offsets);
+                    filter.setLocal(offsets);
+                    count[0]++;
+                    if (batch.size() >= batchSize) {
+                        this.setBits(filter.getRedisKey(), batch);
+                        batch.clear();
+                    }
+                });
+                this.setBits(filter.getRedisKey(), batch);
+                redisTemplate.opsForValue().set(filter.getRedisKey().concat(READY_SUFFIX), new byte[]{'1'});
+                logger.info("seed bloom filter | {} | {} keys", filter.getKeyPrefix(), count[0]);
+            } finally {
+                distributedLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("seed bloom filter | {} | {}", filter.getKeyPrefix(), e.getMessage());
+        }
+    }
+
+    /**
+     * 通过管道批量设置Redis位图中的位
+     *
+     * @param redisKey    Redis中位图的key
+     * @param offsetsList 位偏移量列表
+     */
+    private void setBits(String redisKey, List<long[]> offsetsList) {
+        if (offsetsList.isEmpty()) {
+            return;
+        }
+        byte[] rawKey = RedisSerializer.string().serialize(redisKey);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long[] offsets : offsetsList) {
+                for (long offset : offsets) {
+                    connection.stringCommands().setBit(rawKey, offset, true);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 刷新所有布隆过滤器的本地副本
+     */
+    private void refreshAll() {
+        for (CacheBloomFilter filter : filters.values()) {
+            this.refresh(filter);
+        }
+    }
+
+    /**
+     * 使用Redis中的位图刷新本地副本
+     *
+     * @param filter 布隆过滤器
+     */
+    private void refresh(CacheBloomFilter filter) {
+        try {
+            boolean ready = Boolean.TRUE.equals(redisTemplate.hasKey(filter.getRedisKey().concat(READY_SUFFIX)));
+            filter.refresh(redisTemplate.opsForValue().get(filter.getRedisKey()), ready);
+        } catch (Exception e) {
+            logger.warn("refresh bloom filter | {} | {}", filter.getKeyPrefix(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package io.kevinz613.pear.cache.distribute.bloom;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 基于Redis位图的布隆过滤器，Redis中保存完整的位图，本地保存定期刷新的副本，判断是否存在时只读取本地副本，
+ * 位偏移量按照murmur3_128双重哈希计算，与Redis SETBIT的位顺序一致；
+ * Redis中位图的key包含位数和哈希函数个数，预计插入数量或误判率变化后使用新的位图重新初始化，不会按照其他形状的位图判断
+ *
+ * @author kevinz613
+ */
+public class CacheBloomFilter {
+
+    //Redis位图的最大位数
+    private static final long MAX_BIT_SIZE = 1L << 32;
+
+    //缓存的key前缀
+    private final String keyPrefix;
+    //Redis中位图的key，包含位数和哈希函数个数
+    private final String redisKey;
+    //预计插入的数量
+    private final long expectedInsertions;
+    //配置的误判率
+    private final double fpp;
+    //位图的位数
+    private final long bitSize;
+    //哈希函数的个数
+    private final int hashCount;
+
+    //本地位图副本，按照大端序保存，与Redis位图的位顺序一致
+    private volatile AtomicLongArray bits;
+    //Redis中的位图是否已经初始化完成，初始化完成前不拒绝任何数据
+    private volatile boolean ready;
+    //位图中为1的位数占比
+    private volatile double fillRatio;
+    //本地设置位时持有读锁，刷新时持有写锁替换本地副本，保证替换前设置的位都已经合并
+    private final StampedLock publishLock = new StampedLock();
+
+    //判断一定不存在而拒绝的次数
+    private final LongAdder rejected = new LongAdder();
+    //判断可能存在的次数
+    private final LongAdder passed = new LongAdder();
+
+    /**
+     * 构建布隆过滤器
+     *
+     * @param keyPrefix          缓存的key前缀
+     * @param redisKeyPrefix     Redis中位图的key前缀，实际的key追加缓存的key前缀、位数和哈希函数个数
+     * @param expectedInsertions 预计插入的数量
+     * @param fpp                误判率
+     */
+    public CacheBloomFilter(String keyPrefix, String redisKeyPrefix, long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expected insertions must be positive: " + expectedInsertions);
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("false positive probability must be in (0, 1): " + fpp);
+        }
+        this.keyPrefix = keyPrefix;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.bitSize = Math.min(MAX_BIT_SIZE, Math.max(Long.SIZE, optimalBitSize(expectedInsertions, fpp)));
+        this.hashCount = optimalHashCount(expectedInsertions, bitSize);
+        this.redisKey = redisKeyPrefix + keyPrefix + ":m" + bitSize + "k" + hashCount;
+        this.bits = new AtomicLongArray((int) ((bitSize + Long.SIZE - 1) / Long.SIZE));
+    }
+
+    /**
+     * 计算元素在位图中的位偏移量
+     *
+     * @param element 元素
+     * @return 位偏移量
+     */
+    public long[] offsets(String element) {
+        ByteBuffer hash = ByteBuffer.wrap(Hashing.murmur3_128().hashString(element, StandardCharsets.UTF_8).asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        long hash1 = hash.getLong(0);
+        long hash2 = hash.getLong(8);
+        long[] offsets = new long[hashCount];
+        long combinedHash = hash1;
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = (combinedHash & Long.MAX_VALUE) % bitSize;
+            combinedHash += hash2;
+        }
+        return offsets;
+    }
+
+    /**
+     * 根据本地副本判断元素是否可能存在，位图初始化完成前总是返回true
+     *
+     * @param element 元素
+     * @return 返回false时元素一定不存在
+     */
+    public boolean mightContain(String element) {
+        if (!ready) {
+            return true;
+        }
+        if (!this.containsLocal(this.offsets(element))) {
+            rejected.increment();
+            return false;
+        }
+        passed.increment();
+        return true;
+    }
+
+    /**
+     * 判断本地副本中是否已经设置了所有位偏移量
+     *
+     * @param offsets 位偏移量
+     * @return boolean
+     */
+    public boolean containsLocal(long[] offsets) {
+        AtomicLongArray current = bits;
+        for (long offset : offsets) {
+            if ((current.get((int) (offset >>> 6)) & mask(offset)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在本地副本中设置位偏移量，Redis中的位图由调用方写入
+     *
+     * @param offsets 位偏移量
+     */
+    public void setLocal(long[] offsets) {
+        long stamp = publishLock.readLock();
+        try {
+            AtomicLongArray current = bits;
+            for (long offset : offsets) {
+                long mask = mask(offset);
+                current.getAndAccumulate((int) (offset >>> 6), mask, (a, b) -> a | b);
+            }
+        } finally {
+            publishLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 使用Redis中的位图刷新本地副本，与本地副本按位或合并；替换前在写锁内再合并一次本地副本，
+     * 读取Redis位图之后本地新增的位不会因为替换而丢失
+     *
+     * @param redisBits Redis中的位图
+     * @param redisReady Redis中的位图是否已经初始化完成
+     */
+    public void refresh(byte[] redisBits, boolean redisReady) {
+        AtomicLongArray current = bits;
+        AtomicLongArray merged = new AtomicLongArray(current.length());
+        ByteBuffer buffer = redisBits == null ? ByteBuffer.allocate(0) : ByteBuffer.wrap(redisBits);
+        long setBits = 0;
+        for (int i = 0; i < merged.length(); i++) {
+            long word = current.get(i);
+            int position = i * Long.BYTES;
+            if (position + Long.BYTES <= buffer.limit()) {
+                word |= buffer.getLong(position);
+            } else {
+                for (int j = 0; position + j < buffer.limit(); j++) {
+                    word |= (buffer.get(position + j) & 0xFFL) << (Long.SIZE - Byte.SIZE * (j + 1));
+                }
+            }
+            merged.set(i, word);
+            setBits += Long.bitCount(word);
+        }
+        long stamp = publishLock.writeLock();
+        try {
+            //合并期间本地新增的位
+            for (int i = 0; i < merged.length(); i++) {
+                long word = current.get(i);
+                long mergedWord = merged.get(i);
+                if ((mergedWord | word) != mergedWord) {
+                    merged.set(i, mergedWord | word);
+                    setBits += Long.bitCount(mergedWord | word) - Long.bitCount(mergedWord);
+                }
+            }
+            bits = merged;
+        } finally {
+            publishLock.unlockWrite(stamp);
+        }
+        fillRatio = (double) setBits / bitSize;
+        ready = redisReady;
+    }
+
+    /**
+     * 根据位图填充率估算当前的误判率
+     *
+     * @return 误判率
+     */
+    public double getEstimatedFpp() {
+        return Math.pow(fillRatio, hashCount);
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public String getRedisKey() {
+        return redisKey;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public double getFillRatio() {
+        return fillRatio;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getPassedCount() {
+        return passed.sum();
+    }
+
+    /**
+     * 位偏移量在大端序long中的掩码
+     *
+     * @param offset 位偏移量
+     * @return 掩码
+     */
+    private static long mask(long offset) {
+        return 1L << (Long.SIZE - 1 - (offset & 63));
+    }
+
+    /**
+     * 根据预计插入数量和误判率计算位图的位数
+     *
+     * @param n 预计插入数量
+     * @param p 误判率
+     * @return 位数
+     */
+    private static long optimalBitSize(long n, double p) {
+        return (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+    }
+
+    /**
+     * 根据预计插入数量和位数计算哈希函数的个数
+     *
+     * @param n 预计插入数量
+     * @param m 位数
+     * @return 哈希函数个数
+     */
+    private static int optimalHashCount(long n, long m) {
+        return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+}
@@ -0,0 +1,46 @@
+package io.kevinz613.pear.cache.distribute.codec;
+
+import java.util.List;
+
+/**
+ * 缓存value编解码器，分布式缓存写入和读取value时都经过编解码器，
+ * 实现类注册为Spring Bean后即可按照名称在配置中选择
+ *
+ * @author kevinz613
+ */
+public interface CacheValueCodec {
+
+    /**
+     * 编解码器名称，用于在配置中按照key前缀选择编解码器
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 将缓存value编码为字节数组
+     *
+     * @param value 缓存的value
+     * @return 字节数组
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 将字节数组解码为目标类型的对象；目标类型为String时返回缓存数据的文本形式，字符串原样返回，
+     * 其他对象返回JSON文本，get和multiGet按照String类型解码，二进制格式的编解码器也需要支持
+     *
+     * @param bytes 字节数组
+     * @param type  目标类型
+     * @return 目标类型的对象
+     */
+    <R> R decode(byte[] bytes, Class<R> type);
+
+    /**
+     * 将字节数组解码为目标类型的List集合
+     *
+     * @param bytes 字节数组
+     * @param type  集合元素类型
+     * @return 列表<r>
+     */
+    <R> List<R> decodeList(byte[] bytes, Class<R> type);
+}
@@ -0,0 +1,116 @@
+package io.kevinz613.pear.cache.distribute.codec;
+
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.compress.CacheValueCompression;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存value编解码器注册中心，按照缓存key的前缀选择编解码器，未配置前缀的key使用默认编解码器，
+ * 可以按照前缀逐步迁移编解码器，编码后超过阈值的数据会被压缩
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheValueCodecRegistry {
+
+    @Autowired
+    private List<CacheValueCodec> codecList;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private CacheValueCompression compression;
+
+    //编解码器名称与编解码器的映射
+    private final Map<String, CacheValueCodec> codecs = new HashMap<>();
+
+    //按照前缀长度倒序排列的前缀与编解码器，优先匹配最长的前缀
+    private final List<Map.Entry<String, CacheValueCodec>> prefixCodecs = new ArrayList<>();
+
+    //默认编解码器
+    private CacheValueCodec defaultCodec;
+
+    @PostConstruct
+    public void init() {
+        for (CacheValueCodec codec : codecList) {
+            codecs.put(codec.name(), codec);
+        }
+        DistributedCacheProperties.Codec codec = properties.getCodec();
+        defaultCodec = getCodec(codec.getDefaultCodec());
+        codec.getPrefixes().forEach((prefix, name) -> prefixCodecs.add(Map.entry(prefix, getCodec(name))));
+        prefixCodecs.sort(Comparator.comparingInt((Map.Entry<String, CacheValueCodec> entry) -> entry.getKey().length()).reversed());
+    }
+
+    /**
+     * 根据名称获取编解码器
+     *
+     * @param name 编解码器名称
+     * @return 编解码器
+     */
+    public CacheValueCodec getCodec(String name) {
+        CacheValueCodec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("unknown cache value codec: " + name);
+        }
+        return codec;
+    }
+
+    /**
+     * 根据缓存的key选择编解码器
+     *
+     * @param key 缓存的key
+     * @return 编解码器
+     */
+    public CacheValueCodec resolve(String key) {
+        for (Map.Entry<String, CacheValueCodec> entry : prefixCodecs) {
+            if (key.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return defaultCodec;
+    }
+
+    /**
+     * 编码缓存value
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value
+     * @return 字节数组
+     */
+    public byte[] encode(String key, Object value) {
+        return compression.compress(key, resolve(key).encode(value));
+    }
+
+    /**
+     * 解码缓存value
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  目标类型
+     * @return 目标类型的对象
+     */
+    public <R> R decode(String key, byte[] bytes, Class<R> type) {
+        return resolve(key).decode(compression.decompress(bytes), type);
+    }
+
+    /**
+     * 解码缓存value为List集合
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  集合元素类型
+     * @return 列表<r>
+     */
+    public <R> List<R> decodeList(String key, byte[] bytes, Class<R> type) {
+        return resolve(key).decodeList(compression.decompress(bytes), type);
+    }
+}
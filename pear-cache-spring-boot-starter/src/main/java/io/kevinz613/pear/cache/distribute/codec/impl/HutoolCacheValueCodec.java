@@ -0,0 +1,50 @@
+package io.kevinz613.pear.cache.distribute.codec.impl;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.json.JSONUtil;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodec;
+import io.kevinz613.pear.cache.distribute.conversion.TypeConversion;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 基于hutool JSON的编解码器，简单类型保存为字符串，其他类型保存为JSON字符串，与历史缓存数据格式一致
+ *
+ * @author kevinz613
+ */
+@Component
+public class HutoolCacheValueCodec implements CacheValueCodec {
+
+    public static final String NAME = "hutool";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        String str = TypeConversion.isSimpleType(value) ? String.valueOf(value) : JSONUtil.toJsonStr(value);
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public <R> R decode(byte[] bytes, Class<R> type) {
+        String str = new String(bytes, StandardCharsets.UTF_8);
+        if (type == String.class) {
+            return type.cast(str);
+        }
+        //简单类型
+        if (TypeConversion.isSimpleType(str)) {
+            return Convert.convert(type, str);
+        }
+        return JSONUtil.toBean(str, type);
+    }
+
+    @Override
+    public <R> List<R> decodeList(byte[] bytes, Class<R> type) {
+        return JSONUtil.toList(JSONUtil.parseArray(new String(bytes, StandardCharsets.UTF_8)), type);
+    }
+}
@@ -0,0 +1,104 @@
+package io.kevinz613.pear.cache.distribute.codec.impl;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ClassUtil;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodec;
+import io.kevinz613.pear.cache.distribute.conversion.TypeConversion;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 基于Jackson的编解码器，按照类型缓存ObjectReader和ObjectWriter，简单类型与hutool编解码器一样保存为字符串；
+ * 字符串不论内容是否像JSON都原样保存，解码为String时原样返回，编码和解码保持对称
+ *
+ * @author kevinz613
+ */
+@Component
+public class JacksonCacheValueCodec implements CacheValueCodec {
+
+    public static final String NAME = "jackson";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    //按照类型缓存的ObjectWriter
+    private final ClassValue<ObjectWriter> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return objectMapper.writerFor(type);
+        }
+    };
+
+    //按照类型缓存的ObjectReader
+    private final ClassValue<ObjectReader> readers = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return objectMapper.readerFor(type);
+        }
+    };
+
+    //按照集合元素类型缓存的List ObjectReader
+    private final ClassValue<ObjectReader> listReaders = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+        }
+    };
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (value instanceof String || TypeConversion.isSimpleType(value)) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return writers.get(value.getClass()).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <R> R decode(byte[] bytes, Class<R> type) {
+        if (type == String.class) {
+            return type.cast(new String(bytes, StandardCharsets.UTF_8));
+        }
+        //简单类型
+        if (ClassUtil.isBasicType(type)) {
+            return Convert.convert(type, new String(bytes, StandardCharsets.UTF_8));
+        }
+        try {
+            return readers.get(type).readValue(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <R> List<R> decodeList(byte[] bytes, Class<R> type) {
+        try {
+            return listReaders.get(type).readValue(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
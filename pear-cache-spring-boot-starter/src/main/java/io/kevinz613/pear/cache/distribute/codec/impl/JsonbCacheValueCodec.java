@@ -0,0 +1,75 @@
+package io.kevinz613.pear.cache.distribute.codec.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodec;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 基于fastjson2 JSONB的紧凑二进制编解码器，编码结果比JSON文本更小、解析更快，但不可读；
+ * 解码为String时字符串原样返回，其他数据转换为JSON文本，get和multiGet读取到的是JSON文本
+ *
+ * @author kevinz613
+ */
+@Component
+public class JsonbCacheValueCodec implements CacheValueCodec {
+
+    public static final String NAME = "jsonb";
+
+    //按照集合元素类型缓存的List泛型类型
+    private final ClassValue<Type> listTypes = new ClassValue<>() {
+        @Override
+        protected Type computeValue(Class<?> type) {
+            return new ListType(type);
+        }
+    };
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return JSONB.toBytes(value);
+    }
+
+    @Override
+    public <R> R decode(byte[] bytes, Class<R> type) {
+        if (type == String.class) {
+            Object value = JSONB.parse(bytes);
+            return type.cast(value == null || value instanceof String ? value : JSON.toJSONString(value));
+        }
+        return JSONB.parseObject(bytes, type);
+    }
+
+    @Override
+    public <R> List<R> decodeList(byte[] bytes, Class<R> type) {
+        return JSONB.parseObject(bytes, listTypes.get(type));
+    }
+
+    /**
+     * List<元素类型> 的泛型类型
+     */
+    private record ListType(Type elementType) implements ParameterizedType {
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return new Type[]{elementType};
+        }
+
+        @Override
+        public Type getRawType() {
+            return List.class;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.kevinz613.pear.cache.distribute.compress;
+
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存value压缩，超过阈值的value压缩后写入缓存，并在头部写入压缩标记和压缩算法标识，
+ * 读取时根据头部标记透明解压，没有标记的历史数据原样返回
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheValueCompression {
+
+    //压缩数据的头部标记
+    private static final byte[] MAGIC = {0x00, 'P', 'Z'};
+    //头部长度，头部标记 + 压缩算法标识
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    @Autowired
+    private List<CacheValueCompressor> compressorList;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    //压缩算法标识与压缩算法的映射
+    private final Map<Byte, CacheValueCompressor> compressors = new HashMap<>();
+
+    //写入缓存时使用的压缩算法
+    private CacheValueCompressor compressor;
+
+    //压缩次数
+    private final LongAdder compressCount = new LongAdder();
+    //压缩前的字节数
+    private final LongAdder compressInputBytes = new LongAdder();
+    //压缩后的字节数
+    private final LongAdder compressOutputBytes = new LongAdder();
+    //压缩耗时，单位纳秒
+    private final LongAdder compressNanos = new LongAdder();
+    //解压次数
+    private final LongAdder decompressCount = new LongAdder();
+    //解压耗时，单位纳秒
+    private final LongAdder decompressNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        String algorithm = properties.getCompression().getAlgorithm();
+        for (CacheValueCompressor item : compressorList) {
+            if (compressors.putIfAbsent(item.id(), item) != null) {
+                throw new IllegalStateException("duplicate cache value compressor id: " + item.id());
+            }
+            if (item.name().equals(algorithm)) {
+                compressor = item;
+            }
+        }
+        if (compressor == null) {
+            throw new IllegalArgumentException("unknown cache value compressor: " + algorithm);
+        }
+    }
+
+    /**
+     * 超过阈值时压缩缓存value，压缩后没有变小时保留原始数据
+     *
+     * @param key   缓存的key
+     * @param bytes 编码后的缓存value
+     * @return 写入缓存的数据
+     */
+    public byte[] compress(String key, byte[] bytes) {
+        DistributedCacheProperties.Compression compression = properties.getCompression();
+        if (!compression.isEnabled() || bytes.length < compression.getThreshold() || !isCompressKey(key, compression.getPrefixes())) {
+            return bytes;
+        }
+        long start = System.nanoTime();
+        byte[] compressed = compressor.compress(bytes);
+        compressNanos.add(System.nanoTime() - start);
+        compressCount.increment();
+        compressInputBytes.add(bytes.length);
+        if (compressed.length + HEADER_LENGTH >= bytes.length) {
+            compressOutputBytes.add(bytes.length);
+            return bytes;
+        }
+        compressOutputBytes.add(compressed.length + HEADER_LENGTH);
+        byte[] result = new byte[compressed.length + HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, result, 0, MAGIC.length);
+        result[MAGIC.length] = compressor.id();
+        System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+        return result;
+    }
+
+    /**
+     * 根据头部标记解压缓存value，没有压缩标记时原样返回
+     *
+     * @param bytes 缓存中读取的数据
+     * @return 编码后的缓存value
+     */
+    public byte[] decompress(byte[] bytes) {
+        if (!isCompressed(bytes)) {
+            return bytes;
+        }
+        CacheValueCompressor item = compressors.get(bytes[MAGIC.length]);
+        if (item == null) {
+            throw new IllegalStateException("unknown cache value compressor id: " + bytes[MAGIC.length]);
+        }
+        long start = System.nanoTime();
+        byte[] result = item.decompress(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+        decompressNanos.add(System.nanoTime() - start);
+        decompressCount.increment();
+        return result;
+    }
+
+    /**
+     * 判断数据是否带有压缩标记
+     *
+     * @param bytes 缓存中读取的数据
+     * @return boolean
+     */
+    public static boolean isCompressed(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 压缩率，压缩后字节数 / 压缩前字节数
+     *
+     * @return 压缩率，没有压缩过数据时为1
+     */
+    public double getCompressionRatio() {
+        long input = compressInputBytes.sum();
+        return input == 0 ? 1D : (double) compressOutputBytes.sum() / input;
+    }
+
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    public long getCompressInputBytes() {
+        return compressInputBytes.sum();
+    }
+
+    public long getCompressOutputBytes() {
+        return compressOutputBytes.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+
+    /**
+     * 判断key是否开启压缩
+     *
+     * @param key      缓存的key
+     * @param prefixes 开启压缩的key前缀
+     * @return boolean
+     */
+    private boolean isCompressKey(String key, List<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
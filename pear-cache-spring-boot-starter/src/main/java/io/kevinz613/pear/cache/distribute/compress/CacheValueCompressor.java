@@ -0,0 +1,39 @@
+package io.kevinz613.pear.cache.distribute.compress;
+
+/**
+ * 缓存value压缩算法，实现类注册为Spring Bean后即可按照名称在配置中选择
+ *
+ * @author kevinz613
+ */
+public interface CacheValueCompressor {
+
+    /**
+     * 压缩算法名称，用于在配置中选择压缩算法
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 压缩算法标识，写入压缩数据的头部，读取时根据标识选择解压算法，不同算法的标识不能重复
+     *
+     * @return 标识
+     */
+    byte id();
+
+    /**
+     * 压缩
+     *
+     * @param bytes 原始数据
+     * @return 压缩后的数据
+     */
+    byte[] compress(byte[] bytes);
+
+    /**
+     * 解压
+     *
+     * @param bytes 压缩后的数据
+     * @return 原始数据
+     */
+    byte[] decompress(byte[] bytes);
+}
@@ -0,0 +1,78 @@
+package io.kevinz613.pear.cache.distribute.compress.impl;
+
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.compress.CacheValueCompressor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于JDK Deflater的压缩算法
+ *
+ * @author kevinz613
+ */
+@Component
+public class DeflateCacheValueCompressor implements CacheValueCompressor {
+
+    public static final String NAME = "deflate";
+
+    //压缩和解压时使用的缓冲区大小
+    private static final int BUFFER_SIZE = 4096;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte id() {
+        return 1;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(properties.getCompression().getLevel());
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(bytes.length / 2, 64));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("truncated deflate cache value");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("invalid deflate cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package io.kevinz613.pear.cache.distribute.conversion;
 
 import cn.hutool.core.convert.Convert;
-import cn.hutool.json.JSONUtil;
-import io.lettuce.core.StrAlgoArgs;
+import cn.hutool.core.util.CharUtil;
 
 import java.util.Collection;
+import java.util.Set;
 
 /**
- * 类型转换
+ * 类型转换，按照Class缓存类型分类，判断简单类型时每个Class只解析一次，
+ * 字符串只根据首尾字符判断是否是Json，不解析整个字符串
  *
  * @author kevinz613
  */
 public class TypeConversion {
 
+    //简单类型（基本类型的包装类型）
+    private static final Set<Class<?>> SIMPLE_TYPES = Set.of(Integer.class, Long.class, Double.class, Float.class,
+            Character.class, Boolean.class, Short.class, Byte.class);
+
+    //Class与类型分类的映射，每个Class只计算一次
+    private static final ClassValue<Kind> KINDS = new ClassValue<>() {
+        @Override
+        protected Kind computeValue(Class<?> type) {
+            if (type == String.class) {
+                return Kind.STRING;
+            }
+            return SIMPLE_TYPES.contains(type) ? Kind.SIMPLE : Kind.OTHER;
+        }
+    };
+
     /**
      * 是集合类型
      *
@@ -30,7 +46,14 @@ public class TypeConversion {
      * @return boolean
      */
     public static <T> boolean isSimpleType(T t) {
-        return isSimpleString(t) || isInt(t) || isLong(t) || isDouble(t) || isFloat(t) || isChar(t) || isBoolean(t) || isShort(t) || isByte(t);
+        if (t == null) {
+            return false;
+        }
+        return switch (KINDS.get(t.getClass())) {
+            case STRING -> !isJson((String) t);
+            case SIMPLE -> true;
+            case OTHER -> false;
+        };
     }
 
     /**
@@ -43,7 +66,33 @@ public class TypeConversion {
         if (t == null || !isString(t)) {
             return false;
         }
-        return !JSONUtil.isJson(t.toString());
+        return !isJson((String) t);
+    }
+
+    /**
+     * 根据去掉首尾空白后的首尾字符判断字符串是否是Json对象或Json数组，与JSONUtil.isTypeJSON的判断一致，不创建新字符串
+     *
+     * @param s 字符串
+     * @return boolean
+     */
+    public static boolean isJson(String s) {
+        if (s == null) {
+            return false;
+        }
+        int start = 0;
+        int end = s.length() - 1;
+        while (start <= end && CharUtil.isBlankChar(s.charAt(start))) {
+            start++;
+        }
+        while (end > start && CharUtil.isBlankChar(s.charAt(end))) {
+            end--;
+        }
+        if (start >= end) {
+            return false;
+        }
+        char first = s.charAt(start);
+        char last = s.charAt(end);
+        return (first == '{' && last == '}') || (first == '[' && last == ']');
     }
 
 
@@ -64,7 +113,7 @@ public class TypeConversion {
      * @return boolean
      */
     public static <T> boolean isByte(T t) {
-        return t instanceof StrAlgoArgs.By;
+        return t instanceof Byte;
     }
 
     public static <T> boolean isShort(T t) {
@@ -103,4 +152,30 @@ public class TypeConversion {
         return Convert.convert(type, s);
     }
 
+    /**
+     * 转换简单类型，已经是目标类型时直接返回，不经过转换器查找
+     *
+     * @param value 简单类型的值
+     * @param type  目标类型
+     * @return r
+     */
+    public static <R> R convert(Object value, Class<R> type) {
+        if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        return Convert.convert(type, value);
+    }
+
+    /**
+     * 类型分类
+     */
+    private enum Kind {
+        //字符串，需要判断是否是Json
+        STRING,
+        //基本类型的包装类型
+        SIMPLE,
+        //其他类型
+        OTHER
+    }
+
 }
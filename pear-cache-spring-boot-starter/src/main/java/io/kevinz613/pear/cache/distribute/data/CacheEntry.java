@@ -0,0 +1,27 @@
+package io.kevinz613.pear.cache.distribute.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量写入Redis的缓存条目，每个条目可以有各自的缓存时长
+ *
+ * @author kevinz613
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheEntry {
+
+    //缓存的key
+    private String key;
+    //已经编码好的缓存value
+    private byte[] value;
+    //缓存时长，为null时永久缓存
+    private Long timeout;
+    //缓存时长单位
+    private TimeUnit unit;
+}
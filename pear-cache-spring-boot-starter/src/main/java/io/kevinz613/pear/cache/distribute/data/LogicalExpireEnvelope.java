@@ -0,0 +1,211 @@
+package io.kevinz613.pear.cache.distribute.data;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * 逻辑过期缓存数据的紧凑格式，固定长度的头部包含格式标记、版本、标志位和过期时间戳，头部之后是编码后的业务数据，
+ * 判断是否过期时只读取头部，业务数据在需要时才解码，标志位包含{@link #FLAG_DELTA}时头部之后是重建耗时
+ * <pre>
+ * | 格式标记 3字节 | 版本 1字节 | 标志位 1字节 | 过期时间戳(毫秒) 8字节 | [重建耗时(毫秒) 4字节] | 业务数据 |
+ * </pre>
+ *
+ * @author kevinz613
+ */
+public class LogicalExpireEnvelope {
+
+    //格式标记
+    private static final byte[] MAGIC = {0x00, 'P', 'E'};
+    //格式版本
+    private static final byte VERSION = 1;
+    //版本的位置
+    private static final int VERSION_OFFSET = MAGIC.length;
+    //标志位的位置
+    private static final int FLAGS_OFFSET = VERSION_OFFSET + 1;
+    //过期时间戳的位置
+    private static final int EXPIRE_AT_OFFSET = FLAGS_OFFSET + 1;
+    //头部长度
+    private static final int HEADER_LENGTH = EXPIRE_AT_OFFSET + Long.BYTES;
+
+    //历史RedisData格式中的空数据
+    private static final String LEGACY_EMPTY_DATA = "";
+    //历史RedisData格式中的空列表数据
+    private static final String LEGACY_EMPTY_LIST_VALUE = "[]";
+
+    //标志位：缓存的是空数据
+    public static final byte FLAG_EMPTY = 0x01;
+    //标志位：头部之后带有重建耗时
+    public static final byte FLAG_DELTA = 0x02;
+
+    //完整的缓存数据
+    private final byte[] bytes;
+    //标志位
+    private final byte flags;
+    //过期时间戳，单位毫秒
+    private final long expireAt;
+    //重建耗时，单位毫秒
+    private final int delta;
+    //历史RedisData格式中的业务数据
+    private final Object legacyData;
+
+    private LogicalExpireEnvelope(byte[] bytes, byte flags, long expireAt, int delta, Object legacyData) {
+        this.bytes = bytes;
+        this.flags = flags;
+        this.expireAt = expireAt;
+        this.delta = delta;
+        this.legacyData = legacyData;
+    }
+
+    /**
+     * 将编码后的业务数据包装为逻辑过期缓存数据
+     *
+     * @param expireAt 过期时间戳，单位毫秒
+     * @param flags    标志位
+     * @param payload  编码后的业务数据
+     * @return 写入缓存的数据
+     */
+    public static byte[] wrap(long expireAt, byte flags, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + payload.length);
+        buffer.put(MAGIC).put(VERSION).put(flags).putLong(expireAt).put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * 将编码后的业务数据和重建耗时包装为逻辑过期缓存数据
+     *
+     * @param expireAt 过期时间戳，单位毫秒
+     * @param flags    标志位，会自动加上{@link #FLAG_DELTA}
+     * @param delta    重建耗时，单位毫秒
+     * @param payload  编码后的业务数据
+     * @return 写入缓存的数据
+     */
+    public static byte[] wrap(long expireAt, byte flags, int delta, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES + payload.length);
+        buffer.put(MAGIC).put(VERSION).put((byte) (flags | FLAG_DELTA)).putLong(expireAt).putInt(delta).put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * 判断缓存数据是否是紧凑格式
+     *
+     * @param bytes 缓存中读取的数据
+     * @return boolean
+     */
+    public static boolean isEnvelope(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return bytes[VERSION_OFFSET] == VERSION;
+    }
+
+    /**
+     * 只解析头部，不解码业务数据
+     *
+     * @param bytes 缓存中读取的紧凑格式数据
+     * @return 逻辑过期缓存数据
+     */
+    public static LogicalExpireEnvelope parse(byte[] bytes) {
+        byte flags = bytes[FLAGS_OFFSET];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int delta = (flags & FLAG_DELTA) != 0 && bytes.length >= HEADER_LENGTH + Integer.BYTES ? buffer.getInt(HEADER_LENGTH) : 0;
+        return new LogicalExpireEnvelope(bytes, flags, buffer.getLong(EXPIRE_AT_OFFSET), delta, null);
+    }
+
+    /**
+     * 由历史RedisData格式转换，用于滚动升级期间读取旧数据
+     *
+     * @param expireAt 过期时间戳，单位毫秒
+     * @param data     业务数据，为null时表示空数据
+     * @return 逻辑过期缓存数据
+     */
+    public static LogicalExpireEnvelope legacy(long expireAt, Object data) {
+        return new LogicalExpireEnvelope(null, data == null ? FLAG_EMPTY : 0, expireAt, 0, data);
+    }
+
+    /**
+     * 由历史RedisData格式转换，空字符串和空列表按照空数据处理
+     *
+     * @param redisData 历史格式的缓存数据
+     * @return 逻辑过期缓存数据，无法转换时返回null
+     */
+    public static LogicalExpireEnvelope legacy(RedisData redisData) {
+        if (redisData == null || redisData.getExpireTime() == null) {
+            return null;
+        }
+        long expireAt = redisData.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Object data = redisData.getData();
+        if (LEGACY_EMPTY_DATA.equals(data) || LEGACY_EMPTY_LIST_VALUE.equals(data)) {
+            return legacy(expireAt, null);
+        }
+        return legacy(expireAt, data);
+    }
+
+    /**
+     * 是否已经逻辑过期
+     *
+     * @param now 当前时间戳，单位毫秒
+     * @return boolean
+     */
+    public boolean isExpired(long now) {
+        return expireAt <= now;
+    }
+
+    /**
+     * 缓存的是否是空数据
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return (flags & FLAG_EMPTY) != 0;
+    }
+
+    /**
+     * 是否是历史RedisData格式
+     *
+     * @return boolean
+     */
+    public boolean isLegacy() {
+        return bytes == null;
+    }
+
+    /**
+     * 按照XFetch算法判断是否需要提前重建：now - delta * beta * ln(random) >= expireAt，
+     * 重建耗时越长、越接近过期时间，提前重建的概率越大
+     *
+     * @param now    当前时间戳，单位毫秒
+     * @param beta   提前重建系数，大于1时更倾向于提前重建
+     * @param random (0, 1]区间的随机数
+     * @return boolean
+     */
+    public boolean shouldEarlyRefresh(long now, double beta, double random) {
+        return now - delta * beta * Math.log(random) >= expireAt;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public Object getLegacyData() {
+        return legacyData;
+    }
+
+    /**
+     * 获取编码后的业务数据
+     *
+     * @return 字节数组
+     */
+    public byte[] getPayload() {
+        int offset = (flags & FLAG_DELTA) != 0 ? HEADER_LENGTH + Integer.BYTES : HEADER_LENGTH;
+        return Arrays.copyOfRange(bytes, offset, bytes.length);
+    }
+}
@@ -7,7 +7,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * 缓存到Redis中的数据，主要配合使用数据的逻辑过期
+ * 缓存到Redis中的数据，主要配合使用数据的逻辑过期，
+ * 逻辑过期数据已改为{@link LogicalExpireEnvelope}紧凑格式写入，此类仅用于读取历史数据
  *
  * @author kevinz613
  */
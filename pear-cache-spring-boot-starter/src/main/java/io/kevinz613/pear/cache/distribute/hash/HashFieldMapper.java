@@ -0,0 +1,216 @@
+package io.kevinz613.pear.cache.distribute.hash;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash存储方式的对象与字段映射，对象的每个属性对应Hash中的一个字段，值为null的属性不写入Hash。
+ * 视图类型可以是record或者带无参构造方法的类，按照属性名从Hash中读取需要的字段，每个类的属性列表只通过反射解析一次
+ *
+ * @author kevinz613
+ */
+public final class HashFieldMapper {
+
+    //标记字段，值为1表示缓存了数据，值为0表示缓存了空数据，不存在表示缓存不存在
+    public static final String META_FIELD = "@";
+    //标记字段的值：缓存了数据
+    public static final byte[] META_PRESENT = {'1'};
+    //标记字段的值：缓存了空数据
+    public static final byte[] META_EMPTY = {'0'};
+
+    //类与属性映射的映射
+    private static final ClassValue<Mapping> MAPPINGS = new ClassValue<>() {
+        @Override
+        protected Mapping computeValue(Class<?> type) {
+            return mapping(type);
+        }
+    };
+
+    private HashFieldMapper() {
+    }
+
+    /**
+     * 获取类型的属性名列表，即读取视图时需要的Hash字段
+     *
+     * @param type 类型
+     * @return 属性名列表
+     */
+    public static List<String> fieldNames(Class<?> type) {
+        return MAPPINGS.get(type).names();
+    }
+
+    /**
+     * 获取类型的属性类型，与属性名列表顺序一致
+     *
+     * @param type 类型
+     * @return 属性类型
+     */
+    public static Class<?>[] fieldTypes(Class<?> type) {
+        return MAPPINGS.get(type).types().clone();
+    }
+
+    /**
+     * 读取对象的属性，跳过值为null的属性
+     *
+     * @param value 对象
+     * @return 属性名与属性值的映射
+     */
+    public static Map<String, Object> toFields(Object value) {
+        Mapping mapping = MAPPINGS.get(value.getClass());
+        Map<String, Object> fields = new LinkedHashMap<>(mapping.fields().length * 2);
+        for (Field field : mapping.fields()) {
+            Object fieldValue = read(field, value);
+            if (fieldValue != null) {
+                fields.put(field.getName(), fieldValue);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 按照属性值创建视图对象
+     *
+     * @param type   视图类型
+     * @param values 与属性名列表顺序一致的属性值，值为null的属性使用默认值
+     * @return 视图对象
+     */
+    public static <V> V newView(Class<V> type, Object[] values) {
+        Mapping mapping = MAPPINGS.get(type);
+        try {
+            if (mapping.constructor().getParameterCount() > 0) {
+                Object[] args = new Object[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    args[i] = values[i] == null && mapping.types()[i].isPrimitive()
+                            ? Array.get(Array.newInstance(mapping.types()[i], 1), 0) : values[i];
+                }
+                return type.cast(mapping.constructor().newInstance(args));
+            }
+            V view = type.cast(mapping.constructor().newInstance());
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    mapping.fields()[i].set(view, values[i]);
+                }
+            }
+            return view;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | IllegalArgumentException e) {
+            throw new IllegalStateException("create hash cache view: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 在内存中将实体对象投影为视图对象，属性名相同且类型兼容的属性被复制
+     *
+     * @param entity 实体对象
+     * @param type   视图类型
+     * @return 视图对象
+     */
+    public static <V> V project(Object entity, Class<V> type) {
+        if (entity == null) {
+            return null;
+        }
+        if (type.isInstance(entity)) {
+            return type.cast(entity);
+        }
+        Map<String, Object> fields = toFields(entity);
+        Mapping mapping = MAPPINGS.get(type);
+        Object[] values = new Object[mapping.names().size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = fields.get(mapping.names().get(i));
+            if (value != null && !wrap(mapping.types()[i]).isInstance(value)) {
+                throw new IllegalArgumentException("hash cache view field type mismatch: " + type.getName() + "." + mapping.names().get(i));
+            }
+            values[i] = value;
+        }
+        return newView(type, values);
+    }
+
+    /**
+     * 读取属性值
+     *
+     * @param field 属性
+     * @param value 对象
+     * @return 属性值
+     */
+    private static Object read(Field field, Object value) {
+        try {
+            return field.get(value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("read hash cache field: " + field, e);
+        }
+    }
+
+    /**
+     * 基本类型转换为包装类型
+     *
+     * @param type 类型
+     * @return 包装类型
+     */
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    /**
+     * 解析类型的属性映射，record按照组件顺序使用规范构造方法创建，其他类型使用无参构造方法创建后逐个设置属性，
+     * 排除静态字段和transient字段，子类中的同名字段覆盖父类字段
+     *
+     * @param type 类型
+     * @return 属性映射
+     */
+    private static Mapping mapping(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        Constructor<?> constructor;
+        try {
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] parameterTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    parameterTypes[i] = components[i].getType();
+                    fields.add(type.getDeclaredField(components[i].getName()));
+                }
+                constructor = type.getDeclaredConstructor(parameterTypes);
+            } else {
+                Set<String> names = new HashSet<>();
+                for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                    for (Field field : current.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic() || !names.add(field.getName())) {
+                            continue;
+                        }
+                        fields.add(field);
+                    }
+                }
+                constructor = type.getDeclaredConstructor();
+            }
+        } catch (NoSuchMethodException | NoSuchFieldException e) {
+            throw new IllegalArgumentException("hash cache type requires a record or a no-args constructor: " + type.getName(), e);
+        }
+        for (Field field : fields) {
+            if (!field.trySetAccessible()) {
+                throw new IllegalArgumentException("hash cache field is not accessible: " + field);
+            }
+        }
+        if (!constructor.trySetAccessible()) {
+            throw new IllegalArgumentException("hash cache constructor is not accessible: " + type.getName());
+        }
+        List<String> names = fields.stream().map(Field::getName).toList();
+        Class<?>[] types = fields.stream().map(Field::getType).toArray(Class<?>[]::new);
+        return new Mapping(fields.toArray(new Field[0]), names, types, constructor);
+    }
+
+    /**
+     * 类型的属性映射
+     */
+    private record Mapping(Field[] fields, List<String> names, Class<?>[] types, Constructor<?> constructor) {
+    }
+}
@@ -0,0 +1,80 @@
+package io.kevinz613.pear.cache.distribute.hotkey;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的Count-Min Sketch，使用固定大小的计数矩阵估算元素出现的次数，估算值只会偏大不会偏小
+ *
+ * @author kevinz613
+ */
+public class CountMinSketch {
+
+    //哈希函数的个数，即计数矩阵的行数
+    private final int depth;
+    //每行计数器的个数
+    private final int width;
+    //计数矩阵，按行连续存放
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 增加元素的计数
+     *
+     * @param element 元素
+     * @param count   增加的次数
+     * @return 增加后元素的估算次数
+     */
+    public long add(String element, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int index : this.indexes(element)) {
+            estimate = Math.min(estimate, counters.addAndGet(index, count));
+        }
+        return estimate;
+    }
+
+    /**
+     * 估算元素出现的次数
+     *
+     * @param element 元素
+     * @return 估算次数
+     */
+    public long estimate(String element) {
+        long estimate = Long.MAX_VALUE;
+        for (int index : this.indexes(element)) {
+            estimate = Math.min(estimate, counters.get(index));
+        }
+        return estimate;
+    }
+
+    /**
+     * 按照murmur3_128双重哈希计算元素在每一行的计数器下标
+     *
+     * @param element 元素
+     * @return 计数器下标
+     */
+    private int[] indexes(String element) {
+        ByteBuffer hash = ByteBuffer.wrap(Hashing.murmur3_128().hashString(element, StandardCharsets.UTF_8).asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        long hash1 = hash.getLong(0);
+        long hash2 = hash.getLong(8);
+        int[] indexes = new int[depth];
+        long combinedHash = hash1;
+        for (int i = 0; i < depth; i++) {
+            indexes[i] = i * width + (int) ((combinedHash & Long.MAX_VALUE) % width);
+            combinedHash += hash2;
+        }
+        return indexes;
+    }
+}
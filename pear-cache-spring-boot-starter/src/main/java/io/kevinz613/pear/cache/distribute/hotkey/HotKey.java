@@ -0,0 +1,12 @@
+package io.kevinz613.pear.cache.distribute.hotkey;
+
+/**
+ * 热点key
+ *
+ * @param key      缓存的key
+ * @param count    统计窗口内的估算访问次数
+ * @param promoted 是否已经提升到本地缓存
+ * @author kevinz613
+ */
+public record HotKey(String key, long count, boolean promoted) {
+}
@@ -0,0 +1,312 @@
+package io.kevinz613.pear.cache.distribute.hotkey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.local.factory.LocalCaffeineCacheFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 热点key探测，按照时间窗口将缓存读取采样到Count-Min Sketch中，窗口内访问次数超过阈值的key提升到短过期时间的本地缓存，
+ * 读取热点key时不再访问Redis；窗口结束时统计top-K热点key，访问次数低于阈值一半的key从本地缓存降级
+ *
+ * @author kevinz613
+ */
+@Component
+public class HotKeyDetector {
+
+    private final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    //当前时间窗口的访问计数
+    private volatile CountMinSketch sketch;
+
+    //当前时间窗口内访问次数较多的候选key与估算访问次数
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+    //已经提升到本地缓存的key
+    private final Set<String> promoted = ConcurrentHashMap.newKeySet();
+
+    //热点key的本地缓存
+    private Cache<String, byte[]> hotCache;
+
+    //失效版本号，每次写入或删除缓存时递增，不论当时是否有热点key，防止并发读取时把旧数据回填到本地缓存
+    private final AtomicLong invalidateVersion = new AtomicLong();
+
+    //上一个时间窗口的top-K热点key
+    private volatile List<HotKey> topK = new ArrayList<>();
+
+    //最近的提升和降级事件
+    private final Deque<HotKeyEvent> events = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger eventCount = new AtomicInteger();
+
+    //提升和降级事件的监听器
+    private final List<Consumer<HotKeyEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    //从热点key本地缓存读取的次数
+    private final LongAdder hotHits = new LongAdder();
+
+    //切换时间窗口的线程
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.HotKey hotKey = properties.getHotKey();
+        sketch = new CountMinSketch(hotKey.getSketchDepth(), hotKey.getSketchWidth());
+        hotCache = LocalCaffeineCacheFactory.getLocalCache(16, hotKey.getMaximumSize(), hotKey.getLocalTtl());
+        if (!hotKey.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("pear-cache-hot-key-%d").setDaemon(true).build());
+        scheduler.scheduleAtFixedRate(this::rotate, hotKey.getWindow(), hotKey.getWindow(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * 记录一次缓存读取，按照采样率采样，窗口内估算访问次数超过阈值时提升到本地缓存
+     *
+     * @param key 缓存的key
+     */
+    public void record(String key) {
+        DistributedCacheProperties.HotKey hotKey = properties.getHotKey();
+        if (!hotKey.isEnabled()) {
+            return;
+        }
+        double sampleRate = hotKey.getSampleRate();
+        if (sampleRate < 1D && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        long estimate = (long) (sketch.add(key, 1) / sampleRate);
+        long threshold = hotKey.getThreshold();
+        if (estimate < Math.max(1, threshold / 10)) {
+            return;
+        }
+        boolean hot = estimate >= threshold || promoted.contains(key);
+        this.admit(key, estimate, hot, hotKey.getMaxCandidates());
+        if (estimate >= threshold && promoted.add(key)) {
+            this.publish(new HotKeyEvent(HotKeyEvent.Type.PROMOTE, key, estimate, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * 记录候选key的估算访问次数；候选key已满时替换估算访问次数最少的未提升key，
+     * 热点key总是记录，否则窗口结束时因为没有访问次数被降级
+     *
+     * @param key           缓存的key
+     * @param estimate      估算访问次数
+     * @param hot           是否为热点key
+     * @param maxCandidates 最多跟踪的候选key数量
+     */
+    private void admit(String key, long estimate, boolean hot, int maxCandidates) {
+        if (candidates.containsKey(key) || candidates.size() < maxCandidates) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> lowest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (!promoted.contains(entry.getKey()) && (lowest == null || entry.getValue() < lowest.getValue())) {
+                lowest = entry;
+            }
+        }
+        if (lowest != null && (hot || lowest.getValue() < estimate)) {
+            candidates.remove(lowest.getKey(), lowest.getValue());
+            candidates.put(key, estimate);
+        } else if (hot) {
+            candidates.put(key, estimate);
+        }
+    }
+
+    /**
+     * 从热点key本地缓存读取数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的value，不是热点key或本地缓存不存在时返回null
+     */
+    public byte[] getIfPromoted(String key) {
+        if (promoted.isEmpty() || !promoted.contains(key)) {
+            return null;
+        }
+        byte[] value = hotCache.getIfPresent(key);
+        if (value != null) {
+            hotHits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * 读取Redis前获取失效版本号
+     *
+     * @return 失效版本号
+     */
+    public long stamp() {
+        return invalidateVersion.get();
+    }
+
+    /**
+     * 读取Redis后回填热点key本地缓存，读取期间发生过失效时不回填
+     *
+     * @param key   缓存的key
+     * @param value 从Redis读取的value
+     * @param stamp 读取Redis前获取的失效版本号
+     */
+    public void backfill(String key, byte[] value, long stamp) {
+        if (value != null && promoted.contains(key) && stamp == invalidateVersion.get()) {
+            hotCache.put(key, value);
+        }
+    }
+
+    /**
+     * 写入或删除缓存后失效热点key本地缓存，其他节点的本地缓存在短过期时间后失效
+     *
+     * @param key 缓存的key
+     */
+    public void invalidate(String key) {
+        //先递增版本号再判断是否有热点key，读取期间key被提升时回填也能发现这次失效
+        invalidateVersion.incrementAndGet();
+        if (promoted.isEmpty()) {
+            return;
+        }
+        hotCache.invalidate(key);
+    }
+
+    /**
+     * 批量失效热点key本地缓存
+     *
+     * @param keys 缓存的key列表
+     */
+    public void invalidateAll(Collection<String> keys) {
+        //先递增版本号再判断是否有热点key，读取期间key被提升时回填也能发现这次失效
+        invalidateVersion.incrementAndGet();
+        if (promoted.isEmpty()) {
+            return;
+        }
+        hotCache.invalidateAll(keys);
+    }
+
+    /**
+     * 注册提升和降级事件的监听器，监听器在读取缓存或切换时间窗口的线程中执行
+     *
+     * @param listener 监听器
+     */
+    public void addListener(Consumer<HotKeyEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 上一个时间窗口访问次数最多的key
+     *
+     * @return top-K热点key
+     */
+    public List<HotKey> getTopK() {
+        return topK;
+    }
+
+    /**
+     * 当前提升到本地缓存的key
+     *
+     * @return key集合
+     */
+    public Set<String> getPromotedKeys() {
+        return Set.copyOf(promoted);
+    }
+
+    /**
+     * 最近的提升和降级事件，按照发生时间排序
+     *
+     * @return 事件列表
+     */
+    public List<HotKeyEvent> getRecentEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public long getHotHitCount() {
+        return hotHits.sum();
+    }
+
+    public int getPromotedCount() {
+        return promoted.size();
+    }
+
+    /**
+     * 切换时间窗口，统计top-K热点key，降级访问次数低于阈值一半的key
+     */
+    private void rotate() {
+        try {
+            DistributedCacheProperties.HotKey hotKey = properties.getHotKey();
+            sketch = new CountMinSketch(hotKey.getSketchDepth(), hotKey.getSketchWidth());
+            Map<String, Long> snapshot = new HashMap<>(candidates);
+            candidates.clear();
+            List<HotKey> current = new ArrayList<>();
+            snapshot.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(hotKey.getTopK())
+                    .forEach(entry -> current.add(new HotKey(entry.getKey(), entry.getValue(), promoted.contains(entry.getKey()))));
+            topK = current;
+            long demoteThreshold = hotKey.getThreshold() / 2;
+            for (String key : promoted) {
+                long count = snapshot.getOrDefault(key, 0L);
+                if (count < demoteThreshold) {
+                    promoted.remove(key);
+                    hotCache.invalidate(key);
+                    this.publish(new HotKeyEvent(HotKeyEvent.Type.DEMOTE, key, count, System.currentTimeMillis()));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("rotate hot key window | {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录事件并通知监听器，只保留最近的事件
+     *
+     * @param event 事件
+     */
+    private void publish(HotKeyEvent event) {
+        logger.info("hot key {} | {} | {}", event.type(), event.key(), event.count());
+        events.addLast(event);
+        if (eventCount.incrementAndGet() > properties.getHotKey().getEventHistory()) {
+            events.pollFirst();
+            eventCount.decrementAndGet();
+        }
+        for (Consumer<HotKeyEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                logger.warn("hot key listener | {}", e.getMessage());
+            }
+        }
+    }
+}
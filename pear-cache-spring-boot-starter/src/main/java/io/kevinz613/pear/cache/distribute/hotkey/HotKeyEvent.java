@@ -0,0 +1,20 @@
+package io.kevinz613.pear.cache.distribute.hotkey;
+
+/**
+ * 热点key提升和降级事件
+ *
+ * @param type      事件类型
+ * @param key       缓存的key
+ * @param count     统计窗口内的估算访问次数
+ * @param timestamp 事件发生的时间戳，单位毫秒
+ * @author kevinz613
+ */
+public record HotKeyEvent(Type type, String key, long count, long timestamp) {
+
+    public enum Type {
+        //提升到本地缓存
+        PROMOTE,
+        //从本地缓存降级
+        DEMOTE
+    }
+}
@@ -0,0 +1,755 @@
+package io.kevinz613.pear.cache.distribute.impl;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.AsyncDistributedCacheService;
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodecRegistry;
+import io.kevinz613.pear.cache.distribute.data.LogicalExpireEnvelope;
+import io.kevinz613.pear.cache.distribute.data.RedisData;
+import io.kevinz613.pear.cache.distribute.ttl.CacheTtlPolicy;
+import io.kevinz613.pear.cache.lock.DistributedLockService;
+import io.kevinz613.pear.cache.lock.factory.DistributedLockFactory;
+import io.kevinz613.pear.cache.thread.CacheRebuildScheduler;
+import io.kevinz613.pear.cache.thread.SingleFlight;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import io.lettuce.core.api.async.RedisStringAsyncCommands;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 基于Lettuce异步命令的分布式缓存服务，复用LettuceConnectionFactory中的客户端，所有请求通过一个多路复用连接发送，
+ * 不为每次调用占用线程，数据库查询和缓存数据解码在独立的线程池中执行，不阻塞Redis I/O线程。
+ * 与同步服务使用相同的key、编解码器和缓存格式，二者可以混合使用；读取不经过本地缓存，
+ * 写入和删除后通过同步服务失效热点key本地缓存和近端缓存，近端缓存模式下同时通知其他节点
+ *
+ * @author kevinz613
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.cache.async.enabled", havingValue = "true")
+public class LettuceAsyncDistributedCacheService implements AsyncDistributedCacheService {
+
+    private final Logger logger = LoggerFactory.getLogger(LettuceAsyncDistributedCacheService.class);
+
+    //缓存的空数据
+    private static final byte[] EMPTY_VALUE = new byte[0];
+    //缓存的空数据对应的字符串
+    private static final String EMPTY_DATA = "";
+    //分布式锁key后缀
+    private static final String LOCK_SUFFIX = "_lock";
+    //获取锁失败后重试的间隔毫秒数
+    private static final long RETRY_DELAY_MILLISECONDS = 50;
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    @Autowired
+    private DistributedCacheService distributedCacheService;
+
+    @Autowired
+    private CacheValueCodecRegistry codecRegistry;
+
+    @Autowired
+    private DistributedLockFactory distributedLockFactory;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private CacheTtlPolicy ttlPolicy;
+
+    @Autowired
+    private CacheRebuildScheduler rebuildScheduler;
+
+    //互斥锁方式查询时合并同一节点内对同一个key的并发请求
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    //异步锁的持有者标识，使用负数避免与线程ID冲突
+    private final AtomicLong lockOwnerSequence = new AtomicLong();
+
+    //key为字符串、value为字节数组的连接
+    private StatefulConnection<String, byte[]> connection;
+
+    private RedisStringAsyncCommands<String, byte[]> stringCommands;
+
+    private RedisKeyAsyncCommands<String, byte[]> keyCommands;
+
+    //执行数据库查询的线程池
+    private ThreadPoolExecutor loaderExecutor;
+
+    //解码缓存数据和失效本地缓存的线程池
+    private ExecutorService decodeExecutor;
+
+    //获取锁失败后延迟重试
+    private Executor retryExecutor;
+
+    @PostConstruct
+    public void init() {
+        AbstractRedisClient client = lettuceConnectionFactory.getNativeClient();
+        if (client == null) {
+            throw new IllegalStateException("lettuce client is not initialized");
+        }
+        RedisCodec<String, byte[]> codec = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+        if (client instanceof RedisClusterClient clusterClient) {
+            StatefulRedisClusterConnection<String, byte[]> clusterConnection = clusterClient.connect(codec);
+            connection = clusterConnection;
+            stringCommands = clusterConnection.async();
+            keyCommands = clusterConnection.async();
+        } else {
+            StatefulRedisConnection<String, byte[]> standaloneConnection = ((RedisClient) client).connect(codec);
+            connection = standaloneConnection;
+            stringCommands = standaloneConnection.async();
+            keyCommands = standaloneConnection.async();
+        }
+        DistributedCacheProperties.Async async = properties.getAsync();
+        loaderExecutor = new ThreadPoolExecutor(async.getLoaderThreads(), async.getLoaderThreads(), 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(async.getLoaderQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("pear-cache-async-loader-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        decodeExecutor = Executors.newFixedThreadPool(async.getDecodeThreads(),
+                new ThreadFactoryBuilder().setNameFormat("pear-cache-async-decoder-%d").setDaemon(true).build());
+        retryExecutor = CompletableFuture.delayedExecutor(RETRY_DELAY_MILLISECONDS, TimeUnit.MILLISECONDS, loaderExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (connection != null) {
+            connection.close();
+        }
+        if (loaderExecutor != null) {
+            loaderExecutor.shutdown();
+        }
+        if (decodeExecutor != null) {
+            decodeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 永久缓存数据
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value
+     * @return 写入结果
+     */
+    @Override
+    public CompletableFuture<Void> set(String key, Object value) {
+        return this.doSet(key, this.encode(key, value), null, null);
+    }
+
+    /**
+     * 将数据缓存一段时间
+     *
+     * @param key     缓存的key
+     * @param value   缓存的value
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 写入结果
+     */
+    @Override
+    public CompletableFuture<Void> set(String key, Object value, Long timeout, TimeUnit unit) {
+        return this.doSet(key, this.encode(key, value), ttlPolicy.ttlMillis(key, timeout, unit), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     缓存的key
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 设置过期时间是否成功
+     */
+    @Override
+    public CompletableFuture<Boolean> expire(String key, long timeout, TimeUnit unit) {
+        return keyCommands.pexpire(key, unit.toMillis(timeout)).toCompletableFuture();
+    }
+
+    /**
+     * 保存缓存时设置逻辑过期时间
+     *
+     * @param key     缓存的key
+     * @param value   缓存的value
+     * @param timeout 缓存时长
+     * @param unit    缓存时长单位
+     * @return 写入结果
+     */
+    @Override
+    public CompletableFuture<Void> setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit) {
+        long expireAt = System.currentTimeMillis() + ttlPolicy.logicalTtlMillis(key, timeout, unit);
+        return this.doSet(key, LogicalExpireEnvelope.wrap(expireAt, (byte) 0, this.encode(key, value)), null, null);
+    }
+
+    /**
+     * 获取缓存中的数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的value
+     */
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return this.doGet(key).thenApplyAsync(result -> {
+            if (result == null) {
+                return null;
+            }
+            return isEmptyValue(result) ? EMPTY_DATA : this.decode(key, result, String.class);
+        }, decodeExecutor);
+    }
+
+    /**
+     * 获取缓存数据
+     *
+     * @param key         缓存的key
+     * @param targetClass 目标类
+     * @return t
+     */
+    @Override
+    public <T> CompletableFuture<T> getObject(String key, Class<T> targetClass) {
+        return this.doGet(key).thenApplyAsync(result -> hasValue(result) ? this.decode(key, result, targetClass) : null, decodeExecutor);
+    }
+
+    /**
+     * 根据key列表批量获取value
+     *
+     * @param keys key列表
+     * @return value集合
+     */
+    @Override
+    public CompletableFuture<List<String>> multiGet(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        String[] keyArray = keys.toArray(new String[0]);
+        return stringCommands.mget(keyArray).toCompletableFuture().thenApplyAsync(values -> {
+            List<String> results = new ArrayList<>(values.size());
+            for (int i = 0; i < values.size(); i++) {
+                byte[] value = values.get(i).getValueOrElse(null);
+                if (value == null) {
+                    results.add(null);
+                } else {
+                    results.add(isEmptyValue(value) ? EMPTY_DATA : this.decode(keyArray[i], value, String.class));
+                }
+            }
+            return results;
+        }, decodeExecutor);
+    }
+
+    /**
+     * 删除指定的key
+     *
+     * @param key 缓存的key
+     * @return 是否删除成功
+     */
+    @Override
+    public CompletableFuture<Boolean> delete(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return keyCommands.del(key).toCompletableFuture().thenApplyAsync(count -> {
+            this.invalidateLocal(key);
+            return count != null && count > 0;
+        }, decodeExecutor);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<R> queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.passThrough(key, bytes -> this.decode(key, bytes, type), () -> dbFallback.apply(id), r -> r == null, timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> queryWithPassThroughWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.passThrough(key, bytes -> this.decode(key, bytes, type), dbFallback, r -> r == null, timeout, unit);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<List<R>> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.passThrough(key, bytes -> this.decodeList(key, bytes, type), () -> dbFallback.apply(id), r -> r == null || r.isEmpty(), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<List<R>> queryWithPassThroughListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.passThrough(key, bytes -> this.decodeList(key, bytes, type), dbFallback, r -> r == null || r.isEmpty(), timeout, unit);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<R> queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.logicalExpire(keyPrefix, key, envelope -> this.getEnvelopeResult(key, envelope, type), () -> null, () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> queryWithLogicalExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.logicalExpire(keyPrefix, key, envelope -> this.getEnvelopeResult(key, envelope, type), () -> null, dbFallback, timeout, unit);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<List<R>> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.logicalExpire(keyPrefix, key, envelope -> this.getEnvelopeResultList(key, envelope, type), () -> null, () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<List<R>> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.logicalExpire(keyPrefix, key, envelope -> this.getEnvelopeResultList(key, envelope, type), ArrayList::new, dbFallback, timeout, unit);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<R> queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.mutex(key, bytes -> this.decode(key, bytes, type), () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<R> queryWithMutexWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.mutex(key, bytes -> this.decode(key, bytes, type), dbFallback, timeout, unit);
+    }
+
+    @Override
+    public <R, ID> CompletableFuture<List<R>> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix, id);
+        return this.mutex(key, bytes -> this.decodeList(key, bytes, type), () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    @Override
+    public <R> CompletableFuture<List<R>> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = distributedCacheService.getKey(keyPrefix);
+        return this.mutex(key, bytes -> this.decodeList(key, bytes, type), dbFallback, timeout, unit);
+    }
+
+    /**
+     * 防止缓存穿透的查询，缓存不存在时查询数据库，数据库不存在的数据缓存空数据
+     *
+     * @param key        缓存的key
+     * @param decoder    缓存数据解码函数
+     * @param dbFallback 查询数据库数据
+     * @param absent     判断数据库数据是否不存在
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> passThrough(String key, Function<byte[], T> decoder, Supplier<T> dbFallback, Predicate<T> absent, Long timeout, TimeUnit unit) {
+        return this.doGet(key).thenComposeAsync(result -> {
+            if (hasValue(result)) {
+                T cached = decoder.apply(result);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+            } else if (isEmptyValue(result)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return this.load(key, dbFallback, absent, timeout, unit);
+        }, decodeExecutor);
+    }
+
+    /**
+     * 互斥锁方式查询，同一节点内的并发请求合并为一次加载
+     *
+     * @param key        缓存的key
+     * @param decoder    缓存数据解码函数
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> mutex(String key, Function<byte[], T> decoder, Supplier<T> dbFallback, Long timeout, TimeUnit unit) {
+        return this.doGet(key).thenComposeAsync(result -> {
+            if (hasValue(result)) {
+                T cached = decoder.apply(result);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+            } else if (isEmptyValue(result)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return singleFlight.executeAsync(key, () -> this.loadWithMutex(key, decoder, dbFallback, timeout, unit));
+        }, decodeExecutor);
+    }
+
+    /**
+     * 获取分布式锁后查询数据库并写入缓存，获取锁失败时延迟后读取缓存，直到读取到数据或获取到锁
+     *
+     * @param key        缓存的key
+     * @param decoder    缓存数据解码函数
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> loadWithMutex(String key, Function<byte[], T> decoder, Supplier<T> dbFallback, Long timeout, TimeUnit unit) {
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
+        long ownerId = this.nextLockOwnerId();
+        return distributedLock.tryLockAsync(ownerId).thenCompose(isLock -> {
+            if (!isLock) {
+                //获取分布式锁失败，等待其他节点加载完成
+                return CompletableFuture.runAsync(() -> {
+                }, retryExecutor).thenCompose(v -> this.doGet(key)).thenComposeAsync(result -> {
+                    if (isEmptyValue(result)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    T cached = hasValue(result) ? decoder.apply(result) : null;
+                    if (cached != null) {
+                        return CompletableFuture.completedFuture(cached);
+                    }
+                    return this.loadWithMutex(key, decoder, dbFallback, timeout, unit);
+                }, decodeExecutor);
+            }
+            //获取锁成功，Double check
+            CompletableFuture<T> loading = this.doGet(key).thenComposeAsync(result -> {
+                if (isEmptyValue(result)) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                T cached = hasValue(result) ? decoder.apply(result) : null;
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+                return this.load(key, dbFallback, r -> r == null, timeout, unit);
+            }, decodeExecutor);
+            return this.unlockAfter(distributedLock, ownerId, loading);
+        });
+    }
+
+    /**
+     * 按照逻辑过期时间查询，缓存不存在时触发重建并延迟重试，已经逻辑过期时触发重建并返回过期数据
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param decoder    业务数据解码函数
+     * @param emptyValue 缓存的是空数据时返回的值
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> logicalExpire(String keyPrefix, String key, Function<LogicalExpireEnvelope, T> decoder, Supplier<T> emptyValue, Supplier<?> dbFallback, Long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getAsync().getRebuildWaitMillis());
+        return this.logicalExpire(keyPrefix, key, decoder, emptyValue, dbFallback, timeout, unit, deadline);
+    }
+
+    /**
+     * 按照逻辑过期时间查询，缓存不存在时重试到截止时间为止，防止数据库查询一直失败或持有锁的节点宕机时无限重试
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param decoder    业务数据解码函数
+     * @param emptyValue 缓存的是空数据时返回的值
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @param deadline   停止重试的时间，System.nanoTime()
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> logicalExpire(String keyPrefix, String key, Function<LogicalExpireEnvelope, T> decoder, Supplier<T> emptyValue, Supplier<?> dbFallback, Long timeout, TimeUnit unit, long deadline) {
+        return this.getEnvelope(key).thenCompose(envelope -> {
+            if (envelope == null) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return CompletableFuture.failedFuture(new TimeoutException("cache not rebuilt within "
+                            + properties.getAsync().getRebuildWaitMillis() + "ms: " + key));
+                }
+                //构建缓存数据后重试
+                this.buildCache(keyPrefix, key, dbFallback, timeout, unit);
+                return CompletableFuture.runAsync(() -> {
+                }, retryExecutor).thenCompose(v -> this.logicalExpire(keyPrefix, key, decoder, emptyValue, dbFallback, timeout, unit, deadline));
+            }
+            if (envelope.isEmpty()) {
+                return CompletableFuture.completedFuture(emptyValue.get());
+            }
+            T r = decoder.apply(envelope);
+            if (envelope.isExpired(System.currentTimeMillis())) {
+                //已经逻辑过期，异步重建缓存，返回逻辑过期数据
+                this.buildCache(keyPrefix, key, dbFallback, timeout, unit);
+            }
+            return CompletableFuture.completedFuture(r);
+        });
+    }
+
+    /**
+     * 重建逻辑过期数据，与同步服务一样通过重建调度器提交，同一个key只保留一个重建任务并限制同一前缀的并发重建数量；
+     * 重建任务在调度器的线程中等待异步命令完成，执行期间占用该key的调度名额，只有获取到分布式锁的任务查询数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     */
+    private void buildCache(String keyPrefix, String key, Supplier<?> dbFallback, Long timeout, TimeUnit unit) {
+        rebuildScheduler.submit(keyPrefix, key, () -> {
+            DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
+            long ownerId = this.nextLockOwnerId();
+            if (!distributedLock.tryLockAsync(ownerId).join()) {
+                return;
+            }
+            try {
+                //获取锁成功，Double check，只读取头部判断是否已经被其他调用重建
+                LogicalExpireEnvelope envelope = this.getEnvelope(key).join();
+                if (envelope != null && !envelope.isExpired(System.currentTimeMillis())) {
+                    return;
+                }
+                Object newR = dbFallback.get();
+                if (newR != null) {
+                    this.setWithLogicalExpire(key, newR, timeout, unit).join();
+                } else {
+                    long expireAt = System.currentTimeMillis() + ttlPolicy.nullTtlMillis(key);
+                    this.doSet(key, LogicalExpireEnvelope.wrap(expireAt, LogicalExpireEnvelope.FLAG_EMPTY, EMPTY_VALUE), null, null).join();
+                }
+            } finally {
+                distributedLock.unlockAsync(ownerId).handle((v, unlockError) -> {
+                    if (unlockError != null) {
+                        logger.warn("unlock async | {}", unlockError.getMessage());
+                    }
+                    return null;
+                }).join();
+            }
+        });
+    }
+
+    /**
+     * 在线程池中查询数据库，并将查询结果或空数据写入缓存
+     *
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据
+     * @param absent     判断数据库数据是否不存在
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务数据
+     */
+    private <T> CompletableFuture<T> load(String key, Supplier<T> dbFallback, Predicate<T> absent, Long timeout, TimeUnit unit) {
+        return CompletableFuture.supplyAsync(dbFallback, loaderExecutor).thenCompose(r -> {
+            if (absent.test(r)) {
+                return this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS).thenApply(v -> null);
+            }
+            return this.set(key, r, timeout, unit).thenApply(v -> r);
+        });
+    }
+
+    /**
+     * 异步操作完成后释放分布式锁，释放锁失败不影响操作结果
+     *
+     * @param distributedLock 分布式锁
+     * @param ownerId         锁的持有者标识
+     * @param future          持有锁期间的操作
+     * @return 操作结果
+     */
+    private <T> CompletableFuture<T> unlockAfter(DistributedLockService distributedLock, long ownerId, CompletableFuture<T> future) {
+        return future.handle((r, e) -> distributedLock.unlockAsync(ownerId).handle((v, unlockError) -> {
+            if (unlockError != null) {
+                logger.warn("unlock async | {}", unlockError.getMessage());
+            }
+            if (e != null) {
+                throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+            }
+            return r;
+        })).thenCompose(Function.identity());
+    }
+
+    /**
+     * 读取逻辑过期缓存数据，紧凑格式只解析头部，同时兼容历史RedisData格式
+     *
+     * @param key 缓存的key
+     * @return 逻辑过期缓存数据，不存在或无法解析时为null
+     */
+    private CompletableFuture<LogicalExpireEnvelope> getEnvelope(String key) {
+        return this.doGet(key).thenApplyAsync(result -> {
+            if (!hasValue(result)) {
+                return null;
+            }
+            if (LogicalExpireEnvelope.isEnvelope(result)) {
+                return LogicalExpireEnvelope.parse(result);
+            }
+            return LogicalExpireEnvelope.legacy(this.decode(key, result, RedisData.class));
+        }, decodeExecutor);
+    }
+
+    /**
+     * 解码逻辑过期缓存中的业务数据
+     *
+     * @param key      缓存的key
+     * @param envelope 逻辑过期缓存数据
+     * @param type     缓存的实际对象类型
+     * @return r
+     */
+    private <R> R getEnvelopeResult(String key, LogicalExpireEnvelope envelope, Class<R> type) {
+        if (envelope.isLegacy()) {
+            return distributedCacheService.getResult(envelope.getLegacyData(), type);
+        }
+        return this.decode(key, envelope.getPayload(), type);
+    }
+
+    /**
+     * 解码逻辑过期缓存中的集合业务数据
+     *
+     * @param key      缓存的key
+     * @param envelope 逻辑过期缓存数据
+     * @param type     缓存的实际对象类型
+     * @return 列表<r>
+     */
+    private <R> List<R> getEnvelopeResultList(String key, LogicalExpireEnvelope envelope, Class<R> type) {
+        if (envelope.isLegacy()) {
+            return distributedCacheService.getResultList(JSONUtil.toJsonStr(envelope.getLegacyData()), type);
+        }
+        return this.decodeList(key, envelope.getPayload(), type);
+    }
+
+    /**
+     * 写入或删除Redis后通过同步服务失效本地缓存，失败不影响写入结果
+     *
+     * @param key 缓存的key
+     */
+    private void invalidateLocal(String key) {
+        try {
+            distributedCacheService.invalidateLocal(List.of(key));
+        } catch (Exception e) {
+            logger.warn("invalidate local cache | {} | {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 获取锁缓存的key，与同步服务使用同一把锁
+     *
+     * @param key 缓存的key
+     * @return 字符串
+     */
+    private String getLockKey(String key) {
+        return key.concat(LOCK_SUFFIX);
+    }
+
+    /**
+     * 生成异步锁的持有者标识
+     *
+     * @return 持有者标识
+     */
+    private long nextLockOwnerId() {
+        return -lockOwnerSequence.incrementAndGet();
+    }
+
+    /**
+     * 使用key对应的编解码器编码缓存value
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value
+     * @return 字节数组
+     */
+    private byte[] encode(String key, Object value) {
+        return codecRegistry.encode(key, value);
+    }
+
+    /**
+     * 使用key对应的编解码器解码缓存value，无法解码时返回null，由调用方按照缓存不存在处理
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  目标类型
+     * @return 目标类型的对象
+     */
+    private <R> R decode(String key, byte[] bytes, Class<R> type) {
+        try {
+            return codecRegistry.decode(key, bytes, type);
+        } catch (Exception e) {
+            logger.warn("decode cache value | {} | {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 使用key对应的编解码器解码缓存value为List集合，无法解码时返回null
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  集合元素类型
+     * @return 列表<r>
+     */
+    private <R> List<R> decodeList(String key, byte[] bytes, Class<R> type) {
+        try {
+            return codecRegistry.decodeList(key, bytes, type);
+        } catch (Exception e) {
+            logger.warn("decode cache list value | {} | {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存数据是否存在且不是空数据
+     *
+     * @param value 缓存的value
+     * @return boolean
+     */
+    private static boolean hasValue(byte[] value) {
+        return value != null && value.length > 0;
+    }
+
+    /**
+     * 缓存的是否是空数据
+     *
+     * @param value 缓存的value
+     * @return boolean
+     */
+    private static boolean isEmptyValue(byte[] value) {
+        return value != null && value.length == 0;
+    }
+
+    /**
+     * 从Redis中异步读取缓存数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的value，不存在时为null
+     */
+    private CompletableFuture<byte[]> doGet(String key) {
+        return stringCommands.get(key).toCompletableFuture();
+    }
+
+    /**
+     * 向Redis中异步写入缓存数据，写入后失效本地缓存
+     *
+     * @param key     缓存的key
+     * @param value   已经编码好的缓存value
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     * @return 写入结果
+     */
+    private CompletableFuture<Void> doSet(String key, byte[] value, Long timeout, TimeUnit unit) {
+        CompletableFuture<String> written = timeout == null || unit == null
+                ? stringCommands.set(key, value).toCompletableFuture()
+                : stringCommands.set(key, value, SetArgs.Builder.px(unit.toMillis(timeout))).toCompletableFuture();
+        return written.thenRunAsync(() -> this.invalidateLocal(key), decodeExecutor);
+    }
+}
@@ -0,0 +1,291 @@
+package io.kevinz613.pear.cache.distribute.impl;
+
+import cn.hutool.core.util.StrUtil;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.data.CacheEntry;
+import io.kevinz613.pear.cache.local.LocalCacheService;
+import io.kevinz613.pear.cache.local.factory.LocalCaffeineCacheFactory;
+import io.kevinz613.pear.cache.local.impl.CaffeineLocalCacheService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 二级缓存服务，基于Caffeine的本地缓存位于Redis分布式缓存之前，
+ * 写入和删除缓存时通过Redis发布订阅通知其他节点失效本地缓存
+ *
+ * @author kevinz613
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.cache.type", havingValue = "near")
+public class NearDistributedCacheService extends RedisDistributedCacheService implements MessageListener {
+
+    private final Logger logger = LoggerFactory.getLogger(NearDistributedCacheService.class);
+
+    //失效消息中节点标识与缓存key的分隔符
+    private static final String MESSAGE_SEPARATOR = "|";
+    //失效消息中多个缓存key之间的分隔符
+    private static final char KEY_SEPARATOR = '\n';
+
+    //当前节点标识，用于忽略自身发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    //失效版本号，每次本地缓存失效时递增，防止并发读取时把旧数据回填到本地缓存
+    private final AtomicLong invalidateVersion = new AtomicLong();
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    //本地缓存，基于Caffeine实现
+    private LocalCacheService<String, byte[]> localCache;
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.Near near = properties.getNear();
+        localCache = new CaffeineLocalCacheService<>(LocalCaffeineCacheFactory.getLocalCache(near.getInitialCapacity(), near.getMaximumSize(), near.getLocalTtl()));
+    }
+
+    /**
+     * 优先从本地缓存读取，本地缓存不存在时读取Redis并回填本地缓存
+     *
+     * @param key 缓存的key
+     * @return 缓存的value
+     */
+    @Override
+    protected byte[] doGet(String key) {
+        if (!isNearKey(key)) {
+            return super.doGet(key);
+        }
+        byte[] value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long version = invalidateVersion.get();
+        value = super.doGet(key);
+        //读取期间没有发生失效才回填本地缓存
+        if (value != null && version == invalidateVersion.get()) {
+            localCache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 写入Redis后失效本地缓存，并通知其他节点失效本地缓存
+     *
+     * @param key     缓存的key
+     * @param value   已经编码好的缓存value
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    @Override
+    protected void doSet(String key, byte[] value, Long timeout, TimeUnit unit) {
+        super.doSet(key, value, timeout, unit);
+        if (isNearKey(key)) {
+            invalidateLocal(key);
+            publishInvalidate(key);
+        }
+    }
+
+    /**
+     * 删除Redis数据后失效本地缓存，并通知其他节点失效本地缓存
+     *
+     * @param key 缓存的key
+     * @return 是否删除成功
+     */
+    @Override
+    protected Boolean doDelete(String key) {
+        Boolean deleted = super.doDelete(key);
+        if (isNearKey(key)) {
+            invalidateLocal(key);
+            publishInvalidate(key);
+        }
+        return deleted;
+    }
+
+    /**
+     * 批量读取时优先从本地缓存读取，只有本地缓存不存在的key才读取Redis
+     *
+     * @param keys 缓存的key列表
+     * @return 与key顺序一致的value列表
+     */
+    @Override
+    protected List<byte[]> doMultiGet(List<String> keys) {
+        List<byte[]> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<String> missingKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = isNearKey(keys.get(i)) ? localCache.getIfPresent(keys.get(i)) : null;
+            if (value != null) {
+                values.set(i, value);
+            } else {
+                missingIndexes.add(i);
+                missingKeys.add(keys.get(i));
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return values;
+        }
+        long version = invalidateVersion.get();
+        List<byte[]> remote = super.doMultiGet(missingKeys);
+        boolean fill = version == invalidateVersion.get();
+        for (int i = 0; i < missingKeys.size(); i++) {
+            byte[] value = remote == null ? null : remote.get(i);
+            values.set(missingIndexes.get(i), value);
+            if (fill && value != null && isNearKey(missingKeys.get(i))) {
+                localCache.put(missingKeys.get(i), value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 批量写入Redis后失效本地缓存，并通过一条消息通知其他节点失效本地缓存
+     *
+     * @param entries 缓存条目列表
+     */
+    @Override
+    protected void doMultiSet(List<CacheEntry> entries) {
+        super.doMultiSet(entries);
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (CacheEntry entry : entries) {
+            if (isNearKey(entry.getKey())) {
+                invalidateLocal(entry.getKey());
+                keys.add(entry.getKey());
+            }
+        }
+        publishInvalidate(keys.toArray(new String[0]));
+    }
+
+    /**
+     * 批量删除Redis数据后失效本地缓存，并通过一条消息通知其他节点失效本地缓存
+     *
+     * @param keys 缓存的key列表
+     * @return 删除的key数量
+     */
+    @Override
+    protected Long doUnlink(List<String> keys) {
+        Long deleted = super.doUnlink(keys);
+        if (keys == null || keys.isEmpty()) {
+            return deleted;
+        }
+        List<String> nearKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (isNearKey(key)) {
+                invalidateLocal(key);
+                nearKeys.add(key);
+            }
+        }
+        publishInvalidate(nearKeys.toArray(new String[0]));
+        return deleted;
+    }
+
+    /**
+     * key被其他客户端写入或删除后失效本地缓存，并通过一条消息通知其他节点失效本地缓存
+     *
+     * @param keys 缓存的key列表
+     */
+    @Override
+    public void invalidateLocal(Collection<String> keys) {
+        super.invalidateLocal(keys);
+        List<String> nearKeys = new ArrayList<>();
+        for (String key : keys) {
+            if (isNearKey(key)) {
+                invalidateLocal(key);
+                nearKeys.add(key);
+            }
+        }
+        publishInvalidate(nearKeys.toArray(new String[0]));
+    }
+
+    /**
+     * 接收其他节点广播的缓存失效消息
+     *
+     * @param message 消息
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(MESSAGE_SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        //忽略自身发出的消息
+        if (nodeId.equals(body.substring(0, index))) {
+            return;
+        }
+        for (String key : StrUtil.split(body.substring(index + 1), KEY_SEPARATOR)) {
+            invalidateLocal(key);
+        }
+    }
+
+    /**
+     * 失效本地缓存
+     *
+     * @param key 缓存的key
+     */
+    private void invalidateLocal(String key) {
+        invalidateVersion.incrementAndGet();
+        localCache.remove(key);
+    }
+
+    /**
+     * 广播缓存失效消息
+     *
+     * @param keys 缓存的key，多个key合并为一条消息
+     */
+    private void publishInvalidate(String... keys) {
+        if (keys.length == 0) {
+            return;
+        }
+        String message = nodeId.concat(MESSAGE_SEPARATOR).concat(String.join(String.valueOf(KEY_SEPARATOR), keys));
+        try {
+            stringRedisTemplate.convertAndSend(properties.getNear().getChannel(), message);
+        } catch (Exception e) {
+            logger.error("publish near cache invalidate | {} | {}", keys.length, e.getMessage());
+        }
+    }
+
+    /**
+     * 判断key是否开启本地缓存
+     *
+     * @param key 缓存的key
+     * @return boolean
+     */
+    private boolean isNearKey(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return false;
+        }
+        List<String> prefixes = properties.getNear().getPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,21 +2,57 @@ package io.kevinz613.pear.cache.distribute.impl;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
 import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.bloom.BloomFilterRegistry;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodecRegistry;
+import io.kevinz613.pear.cache.distribute.data.CacheEntry;
+import io.kevinz613.pear.cache.distribute.data.LogicalExpireEnvelope;
 import io.kevinz613.pear.cache.distribute.data.RedisData;
+import io.kevinz613.pear.cache.distribute.hash.HashFieldMapper;
+import io.kevinz613.pear.cache.distribute.hotkey.HotKeyDetector;
+import io.kevinz613.pear.cache.distribute.ttl.CacheTtlPolicy;
 import io.kevinz613.pear.cache.lock.DistributedLockService;
 import io.kevinz613.pear.cache.lock.factory.DistributedLockFactory;
-import io.kevinz613.pear.cache.thread.ThreadPoolUtils;
+import io.kevinz613.pear.cache.metrics.CacheMetrics;
+import io.kevinz613.pear.cache.thread.CacheRebuildScheduler;
+import io.kevinz613.pear.cache.thread.SingleFlight;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.sync.RedisAdvancedClusterCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -31,23 +67,73 @@ public class RedisDistributedCacheService implements DistributedCacheService {
 
     private final Logger logger = LoggerFactory.getLogger(RedisDistributedCacheService.class);
 
-    //缓存空数据的时长，单位秒
-    private static final Long CACHE_NULL_TTL = 60L;
     //缓存的空数据
-    private static final String EMPTY_VALUE = "";
-    //缓存的空列表数据
-    private static final String EMPTY_LIST_VALUE = "[]";
+    private static final byte[] EMPTY_VALUE = new byte[0];
+    //逻辑过期缓存中的空数据
+    private static final String EMPTY_DATA = "";
     //分布式锁key后缀
     private static final String LOCK_SUFFIX = "_lock";
     //线程休眠的毫秒数
     private static final long THREAD_SLEEP_MILLISECONDS = 50;
+    //提前重建方式写入缓存时物理过期时间相对逻辑过期时间的倍数
+    private static final long PHYSICAL_TTL_MULTIPLIER = 2;
+    //SCAN遍历key时默认每次返回的数量
+    private static final int DEFAULT_SCAN_COUNT = 1000;
+    //写入Hash缓存，删除旧数据后写入所有字段，ARGV[1]为过期毫秒数，小于等于0时永久缓存，之后依次是字段名和字段值
+    private static final RedisScript<Long> HASH_SET_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "local ttl = tonumber(ARGV[1]) "
+                    + "if ttl > 0 then redis.call('PEXPIRE', KEYS[1], ttl) end "
+                    + "return 1", Long.class);
+    //更新Hash缓存的部分字段，ARGV[1]为写入的字段数量，之后依次是写入的字段名和字段值、删除的字段名
+    private static final RedisScript<Long> HASH_UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], '" + HashFieldMapper.META_FIELD + "') ~= '1' then return 0 end "
+                    + "local n = tonumber(ARGV[1]) "
+                    + "for i = 2, n * 2, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "for i = n * 2 + 2, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end "
+                    + "return 1", Long.class);
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    @Qualifier("byteRedisTemplate")
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    @Autowired
+    private CacheValueCodecRegistry codecRegistry;
 
     @Autowired
     private DistributedLockFactory distributedLockFactory;
 
+    @Autowired
+    private CacheRebuildScheduler rebuildScheduler;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private BloomFilterRegistry bloomFilterRegistry;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private CacheTtlPolicy ttlPolicy;
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    //互斥锁方式查询时合并同一节点内对同一个key的并发请求
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    //提前重建方式查询时合并同一节点内对同一个key的并发重建，与互斥锁方式查询的key空间分开
+    private final SingleFlight earlyRefreshFlight = new SingleFlight();
+
+    //直接读取主节点的连接，第一次使用时创建
+    private volatile StatefulConnection<String, byte[]> upstreamConnection;
+
 
     /**
      * 永久缓存数据
@@ -57,7 +143,8 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public void set(String key, Object value) {
-        redisTemplate.opsForValue().set(key, this.getValue(value));
+        this.doSet(key, this.encode(key, value), null, null);
+        bloomFilterRegistry.put(key);
     }
 
     /**
@@ -70,7 +157,8 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public void set(String key, Object value, Long timeout, TimeUnit unit) {
-        redisTemplate.opsForValue().set(key, this.getValue(value), timeout, unit);
+        this.doSet(key, this.encode(key, value), ttlPolicy.ttlMillis(key, timeout, unit), TimeUnit.MILLISECONDS);
+        bloomFilterRegistry.put(key);
     }
 
     /**
@@ -96,8 +184,9 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public void setWithLogicalExpire(String key, Object value, Long timeout, TimeUnit unit) {
-        RedisData redisData = new RedisData(value, LocalDateTime.now().plusSeconds(unit.toSeconds(timeout)));
-        redisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(redisData));
+        long expireAt = System.currentTimeMillis() + ttlPolicy.logicalTtlMillis(key, timeout, unit);
+        this.doSet(key, LogicalExpireEnvelope.wrap(expireAt, (byte) 0, this.encode(key, value)), null, null);
+        bloomFilterRegistry.put(key);
     }
 
     /**
@@ -108,7 +197,13 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public String get(String key) {
-        return redisTemplate.opsForValue().get(key);
+        byte[] result = this.doGet(key);
+        if (result == null) {
+            cacheMetrics.recordKey(key, CacheMetrics.MISS);
+            return null;
+        }
+        cacheMetrics.recordKey(key, isEmptyValue(result) ? CacheMetrics.NULL_HIT : CacheMetrics.HIT);
+        return isEmptyValue(result) ? EMPTY_DATA : this.decode(key, result, String.class);
     }
 
     /**
@@ -120,15 +215,13 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public <T> T getObject(String key, Class<T> targetClass) {
-        Object result = redisTemplate.opsForValue().get(key);
-        if (Objects.isNull(result)) {
-            return null;
-        }
-        try {
-            return JSONUtil.toBean(result.toString(), targetClass);
-        } catch (Exception e) {
+        byte[] result = this.doGet(key);
+        if (!hasValue(result)) {
+            cacheMetrics.recordKey(key, result == null ? CacheMetrics.MISS : CacheMetrics.NULL_HIT);
             return null;
         }
+        cacheMetrics.recordKey(key, CacheMetrics.HIT);
+        return this.decode(key, result, targetClass);
     }
 
     /**
@@ -139,7 +232,20 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public List<String> multiGet(Collection<String> keys) {
-        return redisTemplate.opsForValue().multiGet(keys);
+        List<String> keyList = new ArrayList<>(keys);
+        List<byte[]> values = this.doMultiGet(keyList);
+        List<String> results = new ArrayList<>(keyList.size());
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = values == null ? null : values.get(i);
+            if (value == null) {
+                cacheMetrics.recordKey(keyList.get(i), CacheMetrics.MISS);
+                results.add(null);
+            } else {
+                cacheMetrics.recordKey(keyList.get(i), isEmptyValue(value) ? CacheMetrics.NULL_HIT : CacheMetrics.HIT);
+                results.add(isEmptyValue(value) ? EMPTY_DATA : this.decode(keyList.get(i), value, String.class));
+            }
+        }
+        return results;
     }
 
     /**
@@ -150,7 +256,119 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public Set<String> keys(String pattern) {
-        return redisTemplate.keys(pattern);
+        Set<String> keys = new HashSet<>();
+        this.scan(pattern, DEFAULT_SCAN_COUNT, keys::addAll);
+        return keys;
+    }
+
+    /**
+     * 根据正则表达式分页遍历key，基于SCAN游标，每凑满一页回调一次；集群模式下依次遍历所有主节点
+     *
+     * @param pattern  正则表达式
+     * @param pageSize 每页key的数量，同时作为SCAN的COUNT参数
+     * @param consumer 每页key的回调
+     */
+    @Override
+    public void scan(String pattern, int pageSize, Consumer<List<String>> consumer) {
+        int size = pageSize > 0 ? pageSize : DEFAULT_SCAN_COUNT;
+        if (lettuceConnectionFactory.getNativeClient() instanceof RedisClusterClient) {
+            this.scanCluster(pattern, size, consumer);
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(size).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> page = new ArrayList<>(size);
+            while (cursor.hasNext()) {
+                page.add(cursor.next());
+                if (page.size() >= size) {
+                    consumer.accept(page);
+                    page = new ArrayList<>(size);
+                }
+            }
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+            }
+        }
+    }
+
+    /**
+     * 集群模式下遍历key，Spring的集群连接不支持跨节点SCAN，使用Lettuce集群连接的SCAN，
+     * 游标在一个主节点遍历结束后自动切换到下一个主节点；复用读取主节点的连接，不为每次遍历创建连接
+     *
+     * @param pattern  正则表达式
+     * @param size     每页key的数量，同时作为SCAN的COUNT参数
+     * @param consumer 每页key的回调
+     */
+    @SuppressWarnings("unchecked")
+    private void scanCluster(String pattern, int size, Consumer<List<String>> consumer) {
+        RedisAdvancedClusterCommands<String, byte[]> commands = ((StatefulRedisClusterConnection<String, byte[]>) this.getUpstreamConnection()).sync();
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(size);
+        List<String> page = new ArrayList<>(size);
+        KeyScanCursor<String> cursor = commands.scan(args);
+        while (true) {
+            for (String key : cursor.getKeys()) {
+                page.add(key);
+                if (page.size() >= size) {
+                    consumer.accept(page);
+                    page = new ArrayList<>(size);
+                }
+            }
+            if (cursor.isFinished()) {
+                break;
+            }
+            cursor = commands.scan(cursor, args);
+        }
+        if (!page.isEmpty()) {
+            consumer.accept(page);
+        }
+    }
+
+    /**
+     * 根据正则表达式批量删除key，基于SCAN游标遍历，使用UNLINK异步释放内存
+     *
+     * @param pattern   正则表达式
+     * @param batchSize 每批删除key的数量
+     * @return 删除的key数量
+     */
+    @Override
+    public long deleteByPattern(String pattern, int batchSize) {
+        LongAdder deleted = new LongAdder();
+        this.scan(pattern, batchSize, page -> {
+            Long count = this.doUnlink(page);
+            if (count != null) {
+                deleted.add(count);
+            }
+        });
+        return deleted.sum();
+    }
+
+    /**
+     * 为key前缀注册布隆过滤器，查询一定不存在的业务标识时不访问Redis和数据库
+     *
+     * @param keyPrefix          缓存的key前缀
+     * @param expectedInsertions 预计插入的数量
+     * @param fpp                误判率
+     * @param idLoader           加载所有存在的业务标识，用于初始化布隆过滤器
+     */
+    @Override
+    public <ID> void registerBloomFilter(String keyPrefix, long expectedInsertions, double fpp, Supplier<? extends Iterable<ID>> idLoader) {
+        bloomFilterRegistry.register(keyPrefix, expectedInsertions, fpp, sink -> {
+            Iterable<ID> ids = idLoader.get();
+            if (ids != null) {
+                ids.forEach(id -> sink.accept(this.getKey(keyPrefix, id)));
+            }
+        });
+    }
+
+    /**
+     * 将业务标识加入布隆过滤器，新增的业务数据没有写入缓存时需要调用
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param id        缓存的业务标识
+     */
+    @Override
+    public <ID> void addToBloomFilter(String keyPrefix, ID id) {
+        bloomFilterRegistry.put(this.getKey(keyPrefix, id));
     }
 
     /**
@@ -164,7 +382,17 @@ public class RedisDistributedCacheService implements DistributedCacheService {
         if (StrUtil.isEmpty(key)) {
             return false;
         }
-        return redisTemplate.delete(key);
+        return this.doDelete(key);
+    }
+
+    /**
+     * 失效热点key本地缓存
+     *
+     * @param keys 缓存的key列表
+     */
+    @Override
+    public void invalidateLocal(Collection<String> keys) {
+        hotKeyDetector.invalidateAll(keys);
     }
 
     /**
@@ -182,21 +410,31 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R, ID> R queryWithPassThrough(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.REJECTED);
+            return null;
+        }
         //从redis中查询缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        byte[] result = this.doGet(key);
         //缓存数据存在，直接返回
-        if (StrUtil.isNotBlank(result)) {
-            return this.getResult(result, type);
-        }
-        //缓存的数据是空字符串
-        if (result.equals(EMPTY_VALUE)) {
+        if (hasValue(result)) {
+            R cached = this.decode(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存的数据是空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.NULL_HIT);
             return null;
         }
         //缓存数据不存在，从数据库中查询数据
-        R r = dbFallback.apply(id);
+        cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.MISS);
+        R r = cacheMetrics.load(keyPrefix, CacheMetrics.PASS_THROUGH, () -> dbFallback.apply(id));
         //查询数据为空
         if (r == null) {
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+            this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
             return null;
         }
         //缓存数据
@@ -219,20 +457,25 @@ public class RedisDistributedCacheService implements DistributedCacheService {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix);
         //从redis中查询缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        byte[] result = this.doGet(key);
         //缓存数据存在，直接返回
-        if (StrUtil.isNotBlank(result)) {
-            return this.getResult(result, type);
-        }
-        //缓存的数据是空字符串
-        if (result.equals(EMPTY_VALUE)) {
+        if (hasValue(result)) {
+            R cached = this.decode(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存的数据是空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.NULL_HIT);
             return null;
         }
         //缓存数据不存在，从数据库中查询数据
-        R r = dbFallback.get();
+        cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.MISS);
+        R r = cacheMetrics.load(keyPrefix, CacheMetrics.PASS_THROUGH, dbFallback);
         //查询数据为空
         if (r == null) {
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+            this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
             return null;
         }
         //缓存数据
@@ -253,23 +496,33 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      */
     @Override
     public <R, ID> List<R> queryWithPassThroughList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
-        //获取存储到redis中的数据key
-        String key = this.getKey(keyPrefix);
+        //获取存储到redis中的数据key，包含业务标识，不同业务标识的集合分别缓存；历史版本只使用key前缀，升级后旧的集合缓存不再读取
+        String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.REJECTED);
+            return null;
+        }
         //从redis中查询缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        byte[] result = this.doGet(key);
         //缓存数据存在，直接返回
-        if (StrUtil.isNotBlank(result)) {
-            return this.getResultList(result, type);
-        }
-        //缓存的数据是空字符串
-        if (result.equals(EMPTY_VALUE)) {
+        if (hasValue(result)) {
+            List<R> cached = this.decodeList(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存的数据是空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.NULL_HIT);
             return null;
         }
         //缓存数据不存在，从数据库中查询数据
-        List<R> r = dbFallback.apply(id);
+        cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.MISS);
+        List<R> r = cacheMetrics.load(keyPrefix, CacheMetrics.PASS_THROUGH, () -> dbFallback.apply(id));
         //查询数据为空
         if (r == null || r.isEmpty()) {
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+            this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
             return null;
         }
         //缓存数据
@@ -292,20 +545,25 @@ public class RedisDistributedCacheService implements DistributedCacheService {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix);
         //从redis中查询缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        byte[] result = this.doGet(key);
         //缓存数据存在，直接返回
-        if (StrUtil.isNotBlank(result)) {
-            return this.getResultList(result, type);
-        }
-        //缓存的数据是空字符串
-        if (result.equals(EMPTY_VALUE)) {
+        if (hasValue(result)) {
+            List<R> cached = this.decodeList(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存的数据是空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.NULL_HIT);
             return null;
         }
         //缓存数据不存在，从数据库中查询数据
-        List<R> r = dbFallback.get();
+        cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.MISS);
+        List<R> r = cacheMetrics.load(keyPrefix, CacheMetrics.PASS_THROUGH, dbFallback);
         //查询数据为空
         if (r == null || r.isEmpty()) {
-            redisTemplate.opsForValue().set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+            this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
             return null;
         }
         //缓存数据
@@ -328,13 +586,14 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R, ID> R queryWithLogicalExpire(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix, id);
-        //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        //从redis中获取缓存数据，只解析头部
+        LogicalExpireEnvelope envelope = this.getEnvelope(key);
         //判断数据是否存在
-        if (StrUtil.isBlank(result)) {
+        if (envelope == null) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.MISS);
             try {
                 //构建缓存数据
-                buildCache(id, dbFallback, timeout, unit, key);
+                buildCache(keyPrefix, key, () -> dbFallback.apply(id), timeout, unit);
                 Thread.sleep(THREAD_SLEEP_MILLISECONDS);
                 //重试
                 return queryWithLogicalExpire(keyPrefix, id, type, dbFallback, timeout, unit);
@@ -343,85 +602,25 @@ public class RedisDistributedCacheService implements DistributedCacheService {
                 throw new RuntimeException(e);
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(result, RedisData.class);
-        if (EMPTY_VALUE.equals(redisData.getData())) {
+        if (envelope.isEmpty()) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.NULL_HIT);
             return null;
         }
-        R r = this.getResult(redisData.getData(), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
+        //命中，解码业务数据
+        R r = this.getEnvelopeResult(key, envelope, type);
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())) {
+        if (!envelope.isExpired(System.currentTimeMillis())) {
             //未过期，直接返回数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.HIT);
             return r;
         }
         //缓存获取，构建缓存数据
-        buildCache(id, dbFallback, timeout, unit, key);
+        cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.STALE_HIT);
+        buildCache(keyPrefix, key, () -> dbFallback.apply(id), timeout, unit);
         //返回逻辑过期数据
         return r;
     }
 
-    /**
-     * 构建缓存逻辑过期数据
-     *
-     * @param id         编号
-     * @param dbFallback 数据库回退
-     * @param timeout    缓存时长
-     * @param unit       缓存时长单位
-     * @param key        缓存的key
-     */
-    private <ID, R> void buildCache(ID id, Function<ID, R> dbFallback, Long timeout, TimeUnit unit, String key) {
-        //分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try {
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功，Double check
-                if (isLock) {
-                    R newR = null;
-                    //从redis中获取缓存数据
-                    String result = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(result)) {
-                        //查询数据库
-                        newR = dbFallback.apply(id);
-                    } else {
-                        //命中 需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(result, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())) {
-                            //查询数据库
-                            newR = dbFallback.apply(id);
-                        }
-                    }
-                    if (newR != null) {
-                        //重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    } else {
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.error("build cache | {}", e.getMessage());
-                throw new RuntimeException(e);
-            } finally {
-                distributedLock.unlock();
-            }
-        });
-
-    }
-
-    /**
-     * 获取锁缓存的key
-     *
-     * @param key 缓存的key
-     * @return 字符串
-     */
-    private String getLockKey(String key) {
-        return key.concat(LOCK_SUFFIX);
-    }
-
     /**
      * 不带参数查询数据，按照逻辑过期时间读取缓存数据，新开线程重建缓存，其他线程直接返回逻辑过期数据，不占用资源
      *
@@ -436,13 +635,14 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R> R queryWithLogicalExpireWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix);
-        //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        //从redis中获取缓存数据，只解析头部
+        LogicalExpireEnvelope envelope = this.getEnvelope(key);
         //判断数据是否存在
-        if (StrUtil.isBlank(result)) {
+        if (envelope == null) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.MISS);
             try {
                 //构建缓存数据
-                buildCacheWithoutArgs(dbFallback, timeout, unit, key);
+                buildCache(keyPrefix, key, dbFallback, timeout, unit);
                 Thread.sleep(THREAD_SLEEP_MILLISECONDS);
                 //重试
                 return queryWithLogicalExpireWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
@@ -451,74 +651,25 @@ public class RedisDistributedCacheService implements DistributedCacheService {
                 throw new RuntimeException(e);
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(result, RedisData.class);
-        if (EMPTY_VALUE.equals(redisData.getData())) {
+        if (envelope.isEmpty()) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.NULL_HIT);
             return null;
         }
-        R r = this.getResult(redisData.getData(), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
+        //命中，解码业务数据
+        R r = this.getEnvelopeResult(key, envelope, type);
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())) {
+        if (!envelope.isExpired(System.currentTimeMillis())) {
             //未过期，直接返回数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.HIT);
             return r;
         }
         //缓存获取，构建缓存数据
-        buildCacheWithoutArgs(dbFallback, timeout, unit, key);
+        cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.STALE_HIT);
+        buildCache(keyPrefix, key, dbFallback, timeout, unit);
         //返回逻辑过期数据
         return r;
     }
 
-    /**
-     * 在没有参数情况下构建缓存逻辑过期数据
-     *
-     * @param dbFallback 数据库回退
-     * @param timeout    缓存时长
-     * @param unit       缓存时长单位
-     * @param key        缓存的key
-     */
-    private <R> void buildCacheWithoutArgs(Supplier<R> dbFallback, Long timeout, TimeUnit unit, String key) {
-        //分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try {
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功，Double check
-                if (isLock) {
-                    R newR = null;
-                    //从redis中获取缓存数据
-                    String result = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(result)) {
-                        //查询数据库
-                        newR = dbFallback.get();
-                    } else {
-                        //命中 需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(result, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())) {
-                            //查询数据库
-                            newR = dbFallback.get();
-                        }
-                    }
-                    if (newR != null) {
-                        //重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    } else {
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.error("build cache without args| {}", e.getMessage());
-                throw new RuntimeException(e);
-            } finally {
-                distributedLock.unlock();
-            }
-        });
-
-    }
-
     /**
      * 带参数查询集合数据，按照逻辑过期时间读取缓存数据，新开线程重建缓存，其他线程直接返回逻辑过期数据，不占用资源
      *
@@ -534,13 +685,14 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R, ID> List<R> queryWithLogicalExpireList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix, id);
-        //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        //从redis中获取缓存数据，只解析头部
+        LogicalExpireEnvelope envelope = this.getEnvelope(key);
         //判断数据是否存在
-        if (StrUtil.isBlank(result)) {
+        if (envelope == null) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.MISS);
             try {
                 //构建缓存数据
-                buildCacheList(id, dbFallback, timeout, unit, key);
+                buildCache(keyPrefix, key, () -> dbFallback.apply(id), timeout, unit);
                 Thread.sleep(THREAD_SLEEP_MILLISECONDS);
                 //重试
                 return queryWithLogicalExpireList(keyPrefix, id, type, dbFallback, timeout, unit);
@@ -549,65 +701,25 @@ public class RedisDistributedCacheService implements DistributedCacheService {
                 throw new RuntimeException(e);
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(result, RedisData.class);
-        if (EMPTY_LIST_VALUE.equals(redisData.getData())) {
+        if (envelope.isEmpty()) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.NULL_HIT);
             return null;
         }
-        List<R> list = this.getResultList(JSONUtil.toJsonStr(redisData.getData()), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
+        //命中，解码业务数据
+        List<R> list = this.getEnvelopeResultList(key, envelope, type);
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())) {
+        if (!envelope.isExpired(System.currentTimeMillis())) {
             //未过期，直接返回数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.HIT);
             return list;
         }
         //缓存获取，构建缓存数据
-        buildCacheList(id, dbFallback, timeout, unit, key);
+        cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.STALE_HIT);
+        buildCache(keyPrefix, key, () -> dbFallback.apply(id), timeout, unit);
         //返回逻辑过期数据
         return list;
     }
 
-    private <ID, R> void buildCacheList(ID id, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit, String key) {
-        //分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
-            try {
-                boolean isLock = distributedLock.tryLock();
-                //获取锁成功，Double check
-                if (isLock) {
-                    List<R> newR = null;
-                    //从redis中获取缓存数据
-                    String result = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(result)) {
-                        //查询数据库
-                        newR = dbFallback.apply(id);
-                    } else {
-                        //命中 需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(result, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())) {
-                            //查询数据库
-                            newR = dbFallback.apply(id);
-                        }
-                    }
-                    if (newR != null) {
-                        //重建缓存
-                        this.setWithLogicalExpire(key, newR, timeout, unit);
-                    } else {
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                    }
-                }
-            } catch (InterruptedException e) {
-                logger.error("build cache list | {}", e.getMessage());
-                throw new RuntimeException(e);
-            } finally {
-                distributedLock.unlock();
-            }
-        });
-    }
-
     /**
      * 不带参数查询集合数据，按照逻辑过期时间读取缓存数据，新开线程重建缓存，其他线程直接返回逻辑过期数据，不占用资源
      *
@@ -622,13 +734,14 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R> List<R> queryWithLogicalExpireListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取存储到redis中的数据key
         String key = this.getKey(keyPrefix);
-        //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
+        //从redis中获取缓存数据，只解析头部
+        LogicalExpireEnvelope envelope = this.getEnvelope(key);
         //判断数据是否存在
-        if (StrUtil.isBlank(result)) {
+        if (envelope == null) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.MISS);
             try {
                 //构建缓存数据
-                buildCacheListWithoutArgs(dbFallback, timeout, unit, key);
+                buildCache(keyPrefix, key, dbFallback, timeout, unit);
                 Thread.sleep(THREAD_SLEEP_MILLISECONDS);
                 //重试
                 return queryWithLogicalExpireListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
@@ -637,58 +750,59 @@ public class RedisDistributedCacheService implements DistributedCacheService {
                 throw new RuntimeException(e);
             }
         }
-        //命中，需要先把json反序列化为对象
-        RedisData redisData = this.getResult(result, RedisData.class);
-        if (EMPTY_LIST_VALUE.equals(redisData.getData())) {
+        if (envelope.isEmpty()) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.NULL_HIT);
             return new ArrayList<>();
         }
-        List<R> list = this.getResultList(JSONUtil.toJsonStr(redisData.getData()), type);
-        LocalDateTime expireTime = redisData.getExpireTime();
+        //命中，解码业务数据
+        List<R> list = this.getEnvelopeResultList(key, envelope, type);
         //判断是否过期
-        if (expireTime.isAfter(LocalDateTime.now())) {
+        if (!envelope.isExpired(System.currentTimeMillis())) {
             //未过期，直接返回数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.HIT);
             return list;
         }
         //缓存获取，构建缓存数据
-        buildCacheListWithoutArgs(dbFallback, timeout, unit, key);
+        cacheMetrics.record(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, CacheMetrics.STALE_HIT);
+        buildCache(keyPrefix, key, dbFallback, timeout, unit);
         //返回逻辑过期数据
         return list;
     }
 
-    private <R> void buildCacheListWithoutArgs(Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit, String key) {
-        //分布式锁
-        String lockKey = this.getLockKey(key);
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        ThreadPoolUtils.execute(() -> {
+    /**
+     * 构建缓存逻辑过期数据，同一个key同一时刻只有一个重建任务，同一个key前缀的并发重建数量受限
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     */
+    private void buildCache(String keyPrefix, String key, Supplier<?> dbFallback, Long timeout, TimeUnit unit) {
+        rebuildScheduler.submit(keyPrefix, key, () -> {
+            //获取分布式锁
+            DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
             try {
+                long lockStart = System.nanoTime();
                 boolean isLock = distributedLock.tryLock();
-                //获取锁成功，Double check
+                cacheMetrics.lockWait(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, lockStart, isLock);
+                //获取锁成功，Double check，只读取头部判断是否已经被其他线程重建
                 if (isLock) {
-                    List<R> newR = null;
-                    //从redis中获取缓存数据
-                    String result = redisTemplate.opsForValue().get(key);
-                    if (StrUtil.isEmpty(result)) {
-                        //查询数据库
-                        newR = dbFallback.get();
-                    } else {
-                        //命中 需要先把json反序列化为对象
-                        RedisData redisData = this.getResult(result, RedisData.class);
-                        LocalDateTime expireTime = redisData.getExpireTime();
-                        if (expireTime.isBefore(LocalDateTime.now())) {
-                            //查询数据库
-                            newR = dbFallback.get();
-                        }
+                    LogicalExpireEnvelope envelope = this.getEnvelope(key);
+                    if (envelope != null && !envelope.isExpired(System.currentTimeMillis())) {
+                        return;
                     }
+                    //查询数据库
+                    Object newR = cacheMetrics.load(keyPrefix, CacheMetrics.LOGICAL_EXPIRE, dbFallback);
                     if (newR != null) {
                         //重建缓存
                         this.setWithLogicalExpire(key, newR, timeout, unit);
                     } else {
-                        this.setWithLogicalExpire(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
+                        this.setEmptyWithLogicalExpire(key);
                     }
                 }
             } catch (InterruptedException e) {
-                logger.error("build cache list | {}", e.getMessage());
+                logger.error("build cache | {}", e.getMessage());
                 throw new RuntimeException(e);
             } finally {
                 distributedLock.unlock();
@@ -697,7 +811,76 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     }
 
     /**
-     * 带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，其他线程访问不到数据重试
+     * 保存空数据时设置逻辑过期时间，使用空数据的过期时间
+     *
+     * @param key 缓存的key
+     */
+    private void setEmptyWithLogicalExpire(String key) {
+        long expireAt = System.currentTimeMillis() + ttlPolicy.nullTtlMillis(key);
+        this.doSet(key, LogicalExpireEnvelope.wrap(expireAt, LogicalExpireEnvelope.FLAG_EMPTY, EMPTY_VALUE), null, null);
+    }
+
+    /**
+     * 读取逻辑过期缓存数据，紧凑格式只解析头部，同时兼容历史RedisData格式
+     *
+     * @param key 缓存的key
+     * @return 逻辑过期缓存数据，不存在或无法解析时返回null
+     */
+    private LogicalExpireEnvelope getEnvelope(String key) {
+        byte[] result = this.doGet(key);
+        if (!hasValue(result)) {
+            return null;
+        }
+        if (LogicalExpireEnvelope.isEnvelope(result)) {
+            return LogicalExpireEnvelope.parse(result);
+        }
+        //历史RedisData格式
+        return LogicalExpireEnvelope.legacy(this.decode(key, result, RedisData.class));
+    }
+
+    /**
+     * 解码逻辑过期缓存中的业务数据
+     *
+     * @param key      缓存的key
+     * @param envelope 逻辑过期缓存数据
+     * @param type     缓存的实际对象类型
+     * @return r
+     */
+    private <R> R getEnvelopeResult(String key, LogicalExpireEnvelope envelope, Class<R> type) {
+        if (envelope.isLegacy()) {
+            return this.getResult(envelope.getLegacyData(), type);
+        }
+        return this.decode(key, envelope.getPayload(), type);
+    }
+
+    /**
+     * 解码逻辑过期缓存中的集合业务数据
+     *
+     * @param key      缓存的key
+     * @param envelope 逻辑过期缓存数据
+     * @param type     缓存的实际对象类型
+     * @return 列表<r>
+     */
+    private <R> List<R> getEnvelopeResultList(String key, LogicalExpireEnvelope envelope, Class<R> type) {
+        if (envelope.isLegacy()) {
+            return this.getResultList(JSONUtil.toJsonStr(envelope.getLegacyData()), type);
+        }
+        return this.decodeList(key, envelope.getPayload(), type);
+    }
+
+    /**
+     * 获取锁缓存的key
+     *
+     * @param key 缓存的key
+     * @return 字符串
+     */
+    private String getLockKey(String key) {
+        return key.concat(LOCK_SUFFIX);
+    }
+
+    /**
+     * 带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，
+     * 同一节点内的并发请求合并为一次加载，其他线程等待加载结果
      *
      * @param keyPrefix  缓存的key前缀
      * @param id         缓存的业务标识
@@ -711,54 +894,33 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R, ID> R queryWithMutex(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
         //获取缓存中的key
         String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.REJECTED);
+            return null;
+        }
         //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
-        if (StrUtil.isNotBlank(result)) {
+        byte[] result = this.doGet(key);
+        if (hasValue(result)) {
             //存在数据，直接返回
-            return this.getResult(result, type);
-        }
-        //缓存了空字符串
-        if (EMPTY_VALUE.equals(result)) {
+            R cached = this.decode(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存了空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.NULL_HIT);
             return null;
         }
-        String lockKey = this.getLockKey(key);
-        R r = null;
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock) {
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutex(keyPrefix, id, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功，Double check
-            String str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)) {
-                return this.getResult(str, type);
-            }
-            //成功获取到锁
-            r = dbFallback.apply(id);
-            //数据库本身不存在数据
-            if (r == null) {
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
-            }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
-
-        } catch (InterruptedException e) {
-            logger.error("query data with mutex |{}", e.getMessage());
-            throw new RuntimeException(e);
-        } finally {
-            distributedLock.unlock();
-        }
-        return r;
-    }
+        //同一节点内的并发请求只有一个线程获取分布式锁并查询数据库
+        cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.MISS);
+        return singleFlight.execute(key, () -> this.loadWithMutex(keyPrefix, key, () -> dbFallback.apply(id), bytes -> this.decode(key, bytes, type), timeout, unit));
+    }
 
     /**
-     * 不带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，其他线程访问不到数据重试
+     * 不带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，
+     * 同一节点内的并发请求合并为一次加载，其他线程等待加载结果
      *
      * @param keyPrefix  缓存的key前缀
      * @param type       缓存实际对象类型
@@ -772,53 +934,27 @@ public class RedisDistributedCacheService implements DistributedCacheService {
         //获取缓存中的key
         String key = this.getKey(keyPrefix);
         //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
-        if (StrUtil.isNotBlank(result)) {
+        byte[] result = this.doGet(key);
+        if (hasValue(result)) {
             //存在数据，直接返回
-            return this.getResult(result, type);
-        }
-        //缓存了空字符串
-        if (EMPTY_VALUE.equals(result)) {
-            return null;
-        }
-        String lockKey = this.getLockKey(key);
-        R r = null;
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
-        try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock) {
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutexWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功，Double check
-            String str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)) {
-                return this.getResult(str, type);
-            }
-            //成功获取到锁
-            r = dbFallback.get();
-            //数据库本身不存在数据
-            if (r == null) {
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            R cached = this.decode(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.HIT);
+                return cached;
             }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
-
-        } catch (InterruptedException e) {
-            logger.error("query data with mutex |{}", e.getMessage());
-            throw new RuntimeException(e);
-        } finally {
-            distributedLock.unlock();
+        } else if (isEmptyValue(result)) {
+            //缓存了空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.NULL_HIT);
+            return null;
         }
-        return r;
+        //同一节点内的并发请求只有一个线程获取分布式锁并查询数据库
+        cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.MISS);
+        return singleFlight.execute(key, () -> this.loadWithMutex(keyPrefix, key, dbFallback, bytes -> this.decode(key, bytes, type), timeout, unit));
     }
 
     /**
-     * 带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，其他线程访问不到数据重试
+     * 带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，
+     * 同一节点内的并发请求合并为一次加载，其他线程等待加载结果
      *
      * @param keyPrefix  缓存的key前缀
      * @param id         缓存的业务标识
@@ -832,54 +968,145 @@ public class RedisDistributedCacheService implements DistributedCacheService {
     public <R, ID> List<R> queryWithMutexList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
         //获取缓存中的key
         String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.REJECTED);
+            return null;
+        }
         //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
-        if (StrUtil.isNotBlank(result)) {
+        byte[] result = this.doGet(key);
+        if (hasValue(result)) {
             //存在数据，直接返回
-            return this.getResultList(result, type);
+            List<R> cached = this.decodeList(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存了空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.NULL_HIT);
+            return null;
         }
-        //缓存了空字符串
-        if (EMPTY_VALUE.equals(result)) {
+        //同一节点内的并发请求只有一个线程获取分布式锁并查询数据库
+        cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.MISS);
+        return singleFlight.execute(key, () -> this.loadWithMutex(keyPrefix, key, () -> dbFallback.apply(id), bytes -> this.decodeList(key, bytes, type), timeout, unit));
+    }
+
+    /**
+     * 不带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，
+     * 同一节点内的并发请求合并为一次加载，其他线程等待加载结果
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return r
+     */
+    @Override
+    public <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        //获取缓存中的key
+        String key = this.getKey(keyPrefix);
+        //从redis中获取缓存数据
+        byte[] result = this.doGet(key);
+        if (hasValue(result)) {
+            //存在数据，直接返回
+            List<R> cached = this.decodeList(key, result, type);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyValue(result)) {
+            //缓存了空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.NULL_HIT);
             return null;
         }
-        String lockKey = this.getLockKey(key);
-        List<R> r = null;
+        //同一节点内的并发请求只有一个线程获取分布式锁并查询数据库
+        cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.MISS);
+        return singleFlight.execute(key, () -> this.loadWithMutex(keyPrefix, key, dbFallback, bytes -> this.decodeList(key, bytes, type), timeout, unit));
+    }
+
+    /**
+     * 获取分布式锁后查询数据库并写入缓存，获取分布式锁失败说明其他节点正在加载，等待后读取缓存，直到读取到数据或获取到锁
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据
+     * @param decoder    缓存数据解码函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return t
+     */
+    private <T> T loadWithMutex(String keyPrefix, String key, Supplier<T> dbFallback, Function<byte[], T> decoder, Long timeout, TimeUnit unit) {
         //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
+        long lockStart = System.nanoTime();
         try {
-            boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
-            if (!isLock) {
+            //获取分布式锁失败，等待其他节点加载完成
+            while (!distributedLock.tryLock()) {
                 Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutexList(keyPrefix, id, type, dbFallback, timeout, unit);
-            }
-            //获取锁成功，Double check
-            String str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)) {
-                return this.getResultList(str, type);
+                byte[] result = this.doGet(key);
+                if (isEmptyValue(result)) {
+                    cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, false);
+                    return null;
+                }
+                T cached = hasValue(result) ? decoder.apply(result) : null;
+                if (cached != null) {
+                    cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, false);
+                    return cached;
+                }
             }
-            //成功获取到锁
-            r = dbFallback.apply(id);
-            //数据库本身不存在数据
-            if (r == null) {
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, true);
+            try {
+                //获取锁成功，Double check，从主节点读取，避免从节点复制延迟导致重复查询数据库
+                byte[] result = this.doGetFromUpstream(key);
+                if (isEmptyValue(result)) {
+                    return null;
+                }
+                T cached = hasValue(result) ? decoder.apply(result) : null;
+                if (cached != null) {
+                    return cached;
+                }
+                //成功获取到锁
+                T r = cacheMetrics.load(keyPrefix, CacheMetrics.MUTEX, dbFallback);
+                //数据库本身不存在数据
+                if (r == null) {
+                    //缓存空数据
+                    this.doSet(key, EMPTY_VALUE, ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
+                    return null;
+                }
+                //数据库存在数据
+                this.set(key, r, timeout, unit);
+                return r;
+            } finally {
+                distributedLock.unlock();
             }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
-
         } catch (InterruptedException e) {
-            logger.error("query data with mutex list |{}", e.getMessage());
+            logger.error("query data with mutex |{}", e.getMessage());
             throw new RuntimeException(e);
-        } finally {
-            distributedLock.unlock();
         }
-        return r;
     }
 
     /**
-     * 不带参数查询数据，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，其他线程访问不到数据重试
+     * 带参数查询数据，按照XFetch算法提前重建缓存，缓存中保存重建耗时，每次读取按照概率在过期前触发后台重建，
+     * 重建耗时越长、越接近过期时间，触发概率越大，避免同一批key同时过期
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return r
+     */
+    @Override
+    public <R, ID> R queryWithEarlyRefresh(String keyPrefix, ID id, Class<R> type, Function<ID, R> dbFallback, Long timeout, TimeUnit unit) {
+        String key = this.getKey(keyPrefix, id);
+        return this.earlyRefresh(keyPrefix, key, envelope -> this.decode(key, envelope.getPayload(), type), () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    /**
+     * 不带参数查询数据，按照XFetch算法提前重建缓存
      *
      * @param keyPrefix  缓存的key前缀
      * @param type       缓存实际对象类型
@@ -889,52 +1116,1024 @@ public class RedisDistributedCacheService implements DistributedCacheService {
      * @return r
      */
     @Override
-    public <R> List<R> queryWithMutexListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
-        //获取缓存中的key
+    public <R> R queryWithEarlyRefreshWithoutArgs(String keyPrefix, Class<R> type, Supplier<R> dbFallback, Long timeout, TimeUnit unit) {
         String key = this.getKey(keyPrefix);
-        //从redis中获取缓存数据
-        String result = redisTemplate.opsForValue().get(key);
-        if (StrUtil.isNotBlank(result)) {
-            //存在数据，直接返回
-            return this.getResultList(result, type);
-        }
-        //缓存了空字符串
-        if (EMPTY_VALUE.equals(result)) {
-            return null;
+        return this.earlyRefresh(keyPrefix, key, envelope -> this.decode(key, envelope.getPayload(), type), dbFallback, timeout, unit);
+    }
+
+    /**
+     * 带参数查询集合数据，按照XFetch算法提前重建缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    @Override
+    public <R, ID> List<R> queryWithEarlyRefreshList(String keyPrefix, ID id, Class<R> type, Function<ID, List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = this.getKey(keyPrefix, id);
+        return this.earlyRefresh(keyPrefix, key, envelope -> this.decodeList(key, envelope.getPayload(), type), () -> dbFallback.apply(id), timeout, unit);
+    }
+
+    /**
+     * 不带参数查询集合数据，按照XFetch算法提前重建缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param type       缓存实际对象类型
+     * @param dbFallback 无参数查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 列表<r>
+     */
+    @Override
+    public <R> List<R> queryWithEarlyRefreshListWithoutArgs(String keyPrefix, Class<R> type, Supplier<List<R>> dbFallback, Long timeout, TimeUnit unit) {
+        String key = this.getKey(keyPrefix);
+        return this.earlyRefresh(keyPrefix, key, envelope -> this.decodeList(key, envelope.getPayload(), type), dbFallback, timeout, unit);
+    }
+
+    /**
+     * 按照XFetch算法读取缓存，命中时按照概率提交后台重建，缓存不存在时同步重建；
+     * 同一节点内通过重建调度器和独立的SingleFlight合并重建，各节点之间通过分布式锁保证同一时刻只有一个节点查询数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param decoder    业务数据解码函数
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return t
+     */
+    private <T> T earlyRefresh(String keyPrefix, String key, Function<LogicalExpireEnvelope, T> decoder, Supplier<T> dbFallback, Long timeout, TimeUnit unit) {
+        LogicalExpireEnvelope envelope = this.getEarlyRefreshEnvelope(key);
+        if (envelope != null) {
+            T r = envelope.isEmpty() ? null : decoder.apply(envelope);
+            if (envelope.isEmpty() || r != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.EARLY_REFRESH, envelope.isEmpty() ? CacheMetrics.NULL_HIT : CacheMetrics.HIT);
+                //随机数取值范围(0, 1]，避免ln(0)
+                double random = 1D - ThreadLocalRandom.current().nextDouble();
+                if (envelope.shouldEarlyRefresh(System.currentTimeMillis(), properties.getEarlyRefresh().getBeta(), random)) {
+                    //提前重建缓存，同一个key同一时刻只有一个重建任务
+                    long expireAt = envelope.getExpireAt();
+                    rebuildScheduler.submit(keyPrefix, key, () -> this.refresh(keyPrefix, key, expireAt, dbFallback, timeout, unit));
+                }
+                return r;
+            }
         }
-        String lockKey = this.getLockKey(key);
-        List<R> r = null;
-        //获取分布式锁
-        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(lockKey);
+        //缓存不存在，同一节点内的并发请求只重建一次
+        cacheMetrics.record(keyPrefix, CacheMetrics.EARLY_REFRESH, CacheMetrics.MISS);
+        return earlyRefreshFlight.execute(key, () -> this.loadWithEarlyRefresh(keyPrefix, key, decoder, dbFallback, timeout, unit));
+    }
+
+    /**
+     * 后台提前重建缓存，获取分布式锁失败说明其他节点正在重建，直接放弃；
+     * 获取锁后缓存的逻辑过期时间已经变化，说明其他节点已经重建完成，不再查询数据库
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param expireAt   触发重建时读取到的逻辑过期时间
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     */
+    private void refresh(String keyPrefix, String key, long expireAt, Supplier<?> dbFallback, Long timeout, TimeUnit unit) {
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
         try {
+            long lockStart = System.nanoTime();
             boolean isLock = distributedLock.tryLock();
-            //获取分布式锁失败，重试
+            cacheMetrics.lockWait(keyPrefix, CacheMetrics.EARLY_REFRESH, lockStart, isLock);
             if (!isLock) {
-                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
-                return queryWithMutexListWithoutArgs(keyPrefix, type, dbFallback, timeout, unit);
+                return;
             }
             //获取锁成功，Double check
-            String str = redisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(str)) {
-                return this.getResultList(str, type);
-            }
-            //成功获取到锁
-            r = dbFallback.get();
-            //数据库本身不存在数据
-            if (r == null) {
-                //缓存空数据
-                this.set(key, EMPTY_VALUE, CACHE_NULL_TTL, TimeUnit.SECONDS);
-                return null;
+            LogicalExpireEnvelope envelope = this.getEarlyRefreshEnvelope(key);
+            if (envelope != null && envelope.getExpireAt() != expireAt) {
+                return;
             }
-            //数据库存在数据
-            this.set(key, r, timeout, unit);
-
+            this.recompute(keyPrefix, key, dbFallback, timeout, unit);
         } catch (InterruptedException e) {
-            logger.error("query data with mutex list |{}", e.getMessage());
+            logger.error("refresh cache early | {}", e.getMessage());
             throw new RuntimeException(e);
         } finally {
             distributedLock.unlock();
         }
+    }
+
+    /**
+     * 缓存不存在时获取分布式锁后重建缓存，获取锁失败时等待其他节点重建完成后读取缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param decoder    业务数据解码函数
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return t
+     */
+    private <T> T loadWithEarlyRefresh(String keyPrefix, String key, Function<LogicalExpireEnvelope, T> decoder, Supplier<T> dbFallback, Long timeout, TimeUnit unit) {
+        //获取分布式锁
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
+        long lockStart = System.nanoTime();
+        try {
+            //获取分布式锁失败，等待其他节点重建完成
+            while (!distributedLock.tryLock()) {
+                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
+                LogicalExpireEnvelope envelope = this.getEarlyRefreshEnvelope(key);
+                T cached = envelope == null || envelope.isEmpty() ? null : decoder.apply(envelope);
+                if (envelope != null && (envelope.isEmpty() || cached != null)) {
+                    cacheMetrics.lockWait(keyPrefix, CacheMetrics.EARLY_REFRESH, lockStart, false);
+                    return cached;
+                }
+            }
+            cacheMetrics.lockWait(keyPrefix, CacheMetrics.EARLY_REFRESH, lockStart, true);
+            try {
+                //获取锁成功，Double check
+                LogicalExpireEnvelope envelope = this.getEarlyRefreshEnvelope(key);
+                T cached = envelope == null || envelope.isEmpty() ? null : decoder.apply(envelope);
+                if (envelope != null && (envelope.isEmpty() || cached != null)) {
+                    return cached;
+                }
+                return this.recompute(keyPrefix, key, dbFallback, timeout, unit);
+            } finally {
+                distributedLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            logger.error("query data with early refresh | {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 读取提前重建方式写入的缓存数据，不是紧凑格式时视为缓存不存在
+     *
+     * @param key 缓存的key
+     * @return 逻辑过期缓存数据
+     */
+    private LogicalExpireEnvelope getEarlyRefreshEnvelope(String key) {
+        byte[] result = this.doGet(key);
+        return LogicalExpireEnvelope.isEnvelope(result) ? LogicalExpireEnvelope.parse(result) : null;
+    }
+
+    /**
+     * 查询数据库并记录重建耗时，与业务数据一起写入缓存，缓存的物理过期时间是逻辑过期时间的PHYSICAL_TTL_MULTIPLIER倍，
+     * 逻辑过期之后到物理过期之前仍然可以读取到旧数据并触发重建，提前重建的概率窗口不会被Redis过期截断；
+     * 未指定缓存时长时永久缓存，逻辑过期时间使用过期时间策略中的默认值
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据
+     * @param timeout    缓存时长，为null时永久缓存
+     * @param unit       缓存时长单位
+     * @return t
+     */
+    private <T> T recompute(String keyPrefix, String key, Supplier<T> dbFallback, Long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        T r = cacheMetrics.load(keyPrefix, CacheMetrics.EARLY_REFRESH, dbFallback);
+        int delta = (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long now = System.currentTimeMillis();
+        if (r == null) {
+            //缓存空数据
+            long nullTtl = ttlPolicy.nullTtlMillis(key);
+            this.doSet(key, LogicalExpireEnvelope.wrap(now + nullTtl, LogicalExpireEnvelope.FLAG_EMPTY, delta, EMPTY_VALUE), nullTtl * PHYSICAL_TTL_MULTIPLIER, TimeUnit.MILLISECONDS);
+            return null;
+        }
+        //未指定缓存时长时不设置物理过期时间，逻辑过期时间使用策略中的默认值
+        Long ttl = ttlPolicy.ttlMillis(key, timeout, unit);
+        long logicalTtl = ttl == null ? ttlPolicy.logicalTtlMillis(key, null, null) : ttl;
+        Long physicalTtl = ttl == null ? null : ttl * PHYSICAL_TTL_MULTIPLIER;
+        this.doSet(key, LogicalExpireEnvelope.wrap(now + logicalTtl, (byte) 0, delta, this.encode(key, r)), physicalTtl, ttl == null ? null : TimeUnit.MILLISECONDS);
+        bloomFilterRegistry.put(key);
         return r;
     }
+
+    /**
+     * 批量带参数查询对象和简单类型数据，防止缓存穿透，一次批量读取缓存，只对缺失的数据调用一次批量查询数据库，
+     * 查询结果和空数据批量写回缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param ids        缓存的业务标识集合
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 批量查询数据库的Function函数，返回业务标识与业务数据的映射
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 与业务标识顺序一致的业务数据列表，不存在的数据为null
+     */
+    @Override
+    public <R, ID> List<R> queryWithPassThroughBatch(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ID> idList = new ArrayList<>(ids);
+        List<R> results = new ArrayList<>(Collections.nCopies(idList.size(), null));
+        //批量读取缓存，收集缺失的业务标识
+        Map<ID, String> missing = this.multiGetResults(keyPrefix, CacheMetrics.PASS_THROUGH, idList, type, results);
+        if (missing.isEmpty()) {
+            return results;
+        }
+        //缓存数据不存在，一次批量查询数据库
+        Map<ID, R> loaded = this.loadBatch(keyPrefix, CacheMetrics.PASS_THROUGH, missing, dbFallback, timeout, unit);
+        this.fillResults(idList, loaded, results);
+        return results;
+    }
+
+    /**
+     * 批量带参数查询数据，按照互斥锁方式获取缓存数据，缺失的数据获取到锁后一次批量查询数据库，未获取到锁的数据逐个重试
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param ids        缓存的业务标识集合
+     * @param type       缓存的实际对象类型
+     * @param dbFallback 批量查询数据库的Function函数，返回业务标识与业务数据的映射
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 与业务标识顺序一致的业务数据列表，不存在的数据为null
+     */
+    @Override
+    public <R, ID> List<R> queryWithMutexBatch(String keyPrefix, Collection<ID> ids, Class<R> type, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ID> idList = new ArrayList<>(ids);
+        List<R> results = new ArrayList<>(Collections.nCopies(idList.size(), null));
+        //批量读取缓存，收集缺失的业务标识
+        Map<ID, String> missing = this.multiGetResults(keyPrefix, CacheMetrics.MUTEX, idList, type, results);
+        if (missing.isEmpty()) {
+            return results;
+        }
+        Map<ID, String> locked = new LinkedHashMap<>();
+        List<ID> unlocked = new ArrayList<>();
+        List<DistributedLockService> locks = new ArrayList<>();
+        Map<ID, R> loaded = new HashMap<>();
+        try {
+            //逐个获取分布式锁
+            for (Map.Entry<ID, String> entry : missing.entrySet()) {
+                DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(entry.getValue()));
+                long lockStart = System.nanoTime();
+                boolean isLock = distributedLock.tryLock();
+                cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, isLock);
+                if (isLock) {
+                    locks.add(distributedLock);
+                    locked.put(entry.getKey(), entry.getValue());
+                } else {
+                    unlocked.add(entry.getKey());
+                }
+            }
+            if (!locked.isEmpty()) {
+                //获取锁成功，Double check
+                List<ID> lockedIds = new ArrayList<>(locked.keySet());
+                List<R> lockedResults = new ArrayList<>(Collections.nCopies(lockedIds.size(), null));
+                Map<ID, String> stillMissing = this.multiGetResults(keyPrefix, null, lockedIds, type, lockedResults);
+                for (int i = 0; i < lockedIds.size(); i++) {
+                    if (!stillMissing.containsKey(lockedIds.get(i))) {
+                        loaded.put(lockedIds.get(i), lockedResults.get(i));
+                    }
+                }
+                if (!stillMissing.isEmpty()) {
+                    loaded.putAll(this.loadBatch(keyPrefix, CacheMetrics.MUTEX, stillMissing, dbFallback, timeout, unit));
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error("query data with mutex batch |{}", e.getMessage());
+            throw new RuntimeException(e);
+        } finally {
+            locks.forEach(DistributedLockService::unlock);
+        }
+        //未获取到锁的数据按照单个互斥锁方式重试
+        for (ID id : unlocked) {
+            loaded.put(id, this.queryWithMutex(keyPrefix, id, type, single -> {
+                Map<ID, R> map = dbFallback.apply(Collections.singletonList(single));
+                return map == null ? null : map.get(single);
+            }, timeout, unit));
+        }
+        this.fillResults(idList, loaded, results);
+        return results;
+    }
+
+    /**
+     * 通过管道批量缓存数据，按照key错开过期时间，值为null的数据不缓存
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param values    业务标识与业务数据的映射
+     * @param timeout   缓存时长
+     * @param unit      缓存时长单位
+     * @return 缓存的数据数量
+     */
+    @Override
+    public <R, ID> int multiSet(String keyPrefix, Map<ID, R> values, Long timeout, TimeUnit unit) {
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        List<CacheEntry> entries = new ArrayList<>(values.size());
+        for (Map.Entry<ID, R> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            String key = this.getKey(keyPrefix, entry.getKey());
+            //批量写入时错开过期时间
+            entries.add(new CacheEntry(key, this.encode(key, entry.getValue()), ttlPolicy.ttlMillis(key, timeout, unit, true), TimeUnit.MILLISECONDS));
+        }
+        this.doMultiSet(entries);
+        for (CacheEntry entry : entries) {
+            bloomFilterRegistry.put(entry.getKey());
+        }
+        return entries.size();
+    }
+
+    /**
+     * 以Hash方式缓存对象，每个属性对应一个字段，通过单key的Lua脚本HASH_SET_SCRIPT原子地删除旧数据、写入字段并设置过期时间
+     *
+     * @param key     缓存的key
+     * @param value   缓存的对象
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    @Override
+    public void setHash(String key, Object value, Long timeout, TimeUnit unit) {
+        this.doHashSet(key, this.encodeHash(key, value), ttlPolicy.ttlMillis(key, timeout, unit), TimeUnit.MILLISECONDS);
+        bloomFilterRegistry.put(key);
+    }
+
+    /**
+     * 读取Hash方式缓存的对象，只读取视图类型需要的字段
+     *
+     * @param key      缓存的key
+     * @param viewType 视图类型
+     * @return 视图对象，缓存不存在或缓存了空数据时返回null
+     */
+    @Override
+    public <V> V getHash(String key, Class<V> viewType) {
+        List<byte[]> values = this.doHashMultiGet(key, this.hashFields(viewType));
+        return hasHashValue(values) ? this.decodeHash(key, values, viewType) : null;
+    }
+
+    /**
+     * 更新Hash方式缓存的对象的部分字段，不重写整个对象，值为null的字段被删除；
+     * 缓存不存在或缓存了空数据时不写入，避免产生不完整且没有过期时间的数据
+     *
+     * @param key    缓存的key
+     * @param fields 字段名与字段值的映射
+     * @return 是否更新成功
+     */
+    @Override
+    public Boolean updateHashFields(String key, Map<String, ?> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return false;
+        }
+        if (fields.containsKey(HashFieldMapper.META_FIELD)) {
+            throw new IllegalArgumentException("hash cache field name is reserved: " + HashFieldMapper.META_FIELD);
+        }
+        Map<String, byte[]> updates = new LinkedHashMap<>();
+        List<String> removes = new ArrayList<>();
+        fields.forEach((field, value) -> {
+            if (value == null) {
+                removes.add(field);
+            } else {
+                updates.put(field, this.encode(key, value));
+            }
+        });
+        return this.doHashUpdate(key, updates, removes);
+    }
+
+    /**
+     * 带参数查询Hash方式缓存的对象，防止缓存穿透，只读取视图类型需要的字段，
+     * 缓存不存在时查询数据库，将完整的对象写入缓存后返回投影的视图
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param viewType   视图类型
+     * @param dbFallback 查询数据库的Function函数，返回完整的对象
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 视图对象
+     */
+    @Override
+    public <V, E, ID> V queryHashWithPassThrough(String keyPrefix, ID id, Class<V> viewType, Function<ID, E> dbFallback, Long timeout, TimeUnit unit) {
+        //获取存储到redis中的数据key
+        String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.REJECTED);
+            return null;
+        }
+        //从redis中查询视图需要的字段
+        List<byte[]> values = this.doHashMultiGet(key, this.hashFields(viewType));
+        //缓存数据存在，直接返回
+        if (hasHashValue(values)) {
+            V cached = this.decodeHash(key, values, viewType);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyHashValue(values)) {
+            //缓存的数据是空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.NULL_HIT);
+            return null;
+        }
+        //缓存数据不存在，从数据库中查询数据
+        cacheMetrics.record(keyPrefix, CacheMetrics.PASS_THROUGH, CacheMetrics.MISS);
+        E e = cacheMetrics.load(keyPrefix, CacheMetrics.PASS_THROUGH, () -> dbFallback.apply(id));
+        //查询数据为空
+        if (e == null) {
+            this.setEmptyHash(key);
+            return null;
+        }
+        //缓存数据
+        this.setHash(key, e, timeout, unit);
+        return HashFieldMapper.project(e, viewType);
+    }
+
+    /**
+     * 带参数查询Hash方式缓存的对象，按照互斥锁方式获取缓存数据，同一时刻只有一个线程访问数据库，
+     * 同一节点内的并发请求合并为一次加载，只读取视图类型需要的字段
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param id         缓存的业务标识
+     * @param viewType   视图类型
+     * @param dbFallback 查询数据库的Function函数，返回完整的对象
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 视图对象
+     */
+    @Override
+    public <V, E, ID> V queryHashWithMutex(String keyPrefix, ID id, Class<V> viewType, Function<ID, E> dbFallback, Long timeout, TimeUnit unit) {
+        //获取缓存中的key
+        String key = this.getKey(keyPrefix, id);
+        //布隆过滤器判断数据一定不存在，不访问Redis和数据库
+        if (!bloomFilterRegistry.mightContain(key)) {
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.REJECTED);
+            return null;
+        }
+        //从redis中获取视图需要的字段
+        List<byte[]> values = this.doHashMultiGet(key, this.hashFields(viewType));
+        if (hasHashValue(values)) {
+            //存在数据，直接返回
+            V cached = this.decodeHash(key, values, viewType);
+            if (cached != null) {
+                cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.HIT);
+                return cached;
+            }
+        } else if (isEmptyHashValue(values)) {
+            //缓存了空数据
+            cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.NULL_HIT);
+            return null;
+        }
+        //同一节点内使用相同视图的并发请求只有一个线程获取分布式锁并查询数据库
+        cacheMetrics.record(keyPrefix, CacheMetrics.MUTEX, CacheMetrics.MISS);
+        Object loaded = singleFlight.execute(key.concat("#").concat(viewType.getName()), () -> this.loadHashWithMutex(keyPrefix, key, () -> dbFallback.apply(id), viewType, timeout, unit));
+        return loaded == null ? null : HashFieldMapper.project(loaded, viewType);
+    }
+
+    /**
+     * 批量读取缓存数据，命中的数据按照顺序写入结果列表
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param strategy  查询方式，用于记录缓存指标，为null时不记录
+     * @param idList    业务标识列表
+     * @param type      缓存的实际对象类型
+     * @param results   结果列表
+     * @return 缓存中不存在的业务标识与缓存key的映射
+     */
+    private <R, ID> Map<ID, String> multiGetResults(String keyPrefix, String strategy, List<ID> idList, Class<R> type, List<R> results) {
+        List<String> keys = new ArrayList<>(idList.size());
+        //布隆过滤器判断可能存在的数据在idList中的下标
+        List<Integer> indexes = new ArrayList<>(idList.size());
+        for (int i = 0; i < idList.size(); i++) {
+            String key = this.getKey(keyPrefix, idList.get(i));
+            if (bloomFilterRegistry.mightContain(key)) {
+                keys.add(key);
+                indexes.add(i);
+            }
+        }
+        Map<ID, String> missing = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            this.recordBatch(keyPrefix, strategy, idList.size(), 0, 0, 0);
+            return missing;
+        }
+        List<byte[]> values = this.doMultiGet(keys);
+        int hits = 0;
+        int nullHits = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] result = values == null ? null : values.get(i);
+            R cached = hasValue(result) ? this.decode(keys.get(i), result, type) : null;
+            if (cached != null) {
+                results.set(indexes.get(i), cached);
+                hits++;
+            } else if (!isEmptyValue(result)) {
+                //缓存的是空数据时直接返回null，否则需要查询数据库
+                missing.put(idList.get(indexes.get(i)), keys.get(i));
+            } else {
+                nullHits++;
+            }
+        }
+        this.recordBatch(keyPrefix, strategy, idList.size() - keys.size(), hits, nullHits, missing.size());
+        return missing;
+    }
+
+    /**
+     * 记录批量查询的缓存指标
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param strategy  查询方式，为null时不记录
+     * @param rejected  布隆过滤器拒绝的数量
+     * @param hits      命中的数量
+     * @param nullHits  命中空数据的数量
+     * @param misses    未命中的数量
+     */
+    private void recordBatch(String keyPrefix, String strategy, int rejected, int hits, int nullHits, int misses) {
+        if (strategy == null) {
+            return;
+        }
+        cacheMetrics.record(keyPrefix, strategy, CacheMetrics.REJECTED, rejected);
+        cacheMetrics.record(keyPrefix, strategy, CacheMetrics.HIT, hits);
+        cacheMetrics.record(keyPrefix, strategy, CacheMetrics.NULL_HIT, nullHits);
+        cacheMetrics.record(keyPrefix, strategy, CacheMetrics.MISS, misses);
+    }
+
+    /**
+     * 批量查询数据库，并将查询结果和空数据批量写回缓存
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param strategy   查询方式
+     * @param missing    缓存中不存在的业务标识与缓存key的映射
+     * @param dbFallback 批量查询数据库的Function函数
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 业务标识与业务数据的映射
+     */
+    private <R, ID> Map<ID, R> loadBatch(String keyPrefix, String strategy, Map<ID, String> missing, Function<Collection<ID>, Map<ID, R>> dbFallback, Long timeout, TimeUnit unit) {
+        Map<ID, R> loaded = cacheMetrics.load(keyPrefix, strategy, () -> dbFallback.apply(new ArrayList<>(missing.keySet())));
+        if (loaded == null) {
+            loaded = new HashMap<>();
+        }
+        List<CacheEntry> entries = new ArrayList<>(missing.size());
+        for (Map.Entry<ID, String> entry : missing.entrySet()) {
+            R r = loaded.get(entry.getKey());
+            if (r == null) {
+                //缓存空数据
+                entries.add(new CacheEntry(entry.getValue(), EMPTY_VALUE, ttlPolicy.nullTtlMillis(entry.getValue()), TimeUnit.MILLISECONDS));
+            } else {
+                //批量写入时错开过期时间
+                entries.add(new CacheEntry(entry.getValue(), this.encode(entry.getValue(), r), ttlPolicy.ttlMillis(entry.getValue(), timeout, unit, true), TimeUnit.MILLISECONDS));
+            }
+        }
+        this.doMultiSet(entries);
+        for (Map.Entry<ID, String> entry : missing.entrySet()) {
+            if (loaded.get(entry.getKey()) != null) {
+                bloomFilterRegistry.put(entry.getValue());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 按照业务标识的顺序填充结果列表中缺失的数据
+     *
+     * @param idList  业务标识列表
+     * @param loaded  业务标识与业务数据的映射
+     * @param results 结果列表
+     */
+    private <R, ID> void fillResults(List<ID> idList, Map<ID, R> loaded, List<R> results) {
+        for (int i = 0; i < idList.size(); i++) {
+            if (results.get(i) == null && loaded.containsKey(idList.get(i))) {
+                results.set(i, loaded.get(idList.get(i)));
+            }
+        }
+    }
+
+    /**
+     * 获取分布式锁后查询数据库并以Hash方式写入缓存，获取分布式锁失败说明其他节点正在加载，等待后读取缓存，直到读取到数据或获取到锁
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param key        缓存的key
+     * @param dbFallback 查询数据库数据，返回完整的对象
+     * @param viewType   视图类型
+     * @param timeout    缓存时长
+     * @param unit       缓存时长单位
+     * @return 从缓存读取时返回视图对象，从数据库查询时返回完整的对象
+     */
+    private Object loadHashWithMutex(String keyPrefix, String key, Supplier<?> dbFallback, Class<?> viewType, Long timeout, TimeUnit unit) {
+        List<String> fields = this.hashFields(viewType);
+        //获取分布式锁
+        DistributedLockService distributedLock = distributedLockFactory.getDistributedLock(this.getLockKey(key));
+        long lockStart = System.nanoTime();
+        try {
+            //获取分布式锁失败，等待其他节点加载完成
+            while (!distributedLock.tryLock()) {
+                Thread.sleep(THREAD_SLEEP_MILLISECONDS);
+                List<byte[]> values = this.doHashMultiGet(key, fields);
+                if (isEmptyHashValue(values)) {
+                    cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, false);
+                    return null;
+                }
+                Object cached = hasHashValue(values) ? this.decodeHash(key, values, viewType) : null;
+                if (cached != null) {
+                    cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, false);
+                    return cached;
+                }
+            }
+            cacheMetrics.lockWait(keyPrefix, CacheMetrics.MUTEX, lockStart, true);
+            try {
+                //获取锁成功，Double check
+                List<byte[]> values = this.doHashMultiGet(key, fields);
+                if (isEmptyHashValue(values)) {
+                    return null;
+                }
+                Object cached = hasHashValue(values) ? this.decodeHash(key, values, viewType) : null;
+                if (cached != null) {
+                    return cached;
+                }
+                //成功获取到锁
+                Object e = cacheMetrics.load(keyPrefix, CacheMetrics.MUTEX, dbFallback);
+                //数据库本身不存在数据
+                if (e == null) {
+                    //缓存空数据
+                    this.setEmptyHash(key);
+                    return null;
+                }
+                //数据库存在数据
+                this.setHash(key, e, timeout, unit);
+                return e;
+            } finally {
+                distributedLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            logger.error("query hash data with mutex |{}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 以Hash方式缓存空数据，只写入标记字段
+     *
+     * @param key 缓存的key
+     */
+    private void setEmptyHash(String key) {
+        this.doHashSet(key, Map.of(HashFieldMapper.META_FIELD, HashFieldMapper.META_EMPTY), ttlPolicy.nullTtlMillis(key), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 读取视图时需要的Hash字段，第一个字段是标记字段
+     *
+     * @param viewType 视图类型
+     * @return 字段列表
+     */
+    private List<String> hashFields(Class<?> viewType) {
+        List<String> names = HashFieldMapper.fieldNames(viewType);
+        List<String> fields = new ArrayList<>(names.size() + 1);
+        fields.add(HashFieldMapper.META_FIELD);
+        fields.addAll(names);
+        return fields;
+    }
+
+    /**
+     * 使用key对应的编解码器逐个编码对象的属性，并写入标记字段
+     *
+     * @param key   缓存的key
+     * @param value 缓存的对象
+     * @return 字段名与编码后的字段值的映射
+     */
+    private Map<String, byte[]> encodeHash(String key, Object value) {
+        Map<String, Object> fields = HashFieldMapper.toFields(value);
+        Map<String, byte[]> encoded = new LinkedHashMap<>(fields.size() * 2 + 2);
+        encoded.put(HashFieldMapper.META_FIELD, HashFieldMapper.META_PRESENT);
+        fields.forEach((field, fieldValue) -> encoded.put(field, this.encode(key, fieldValue)));
+        return encoded;
+    }
+
+    /**
+     * 使用key对应的编解码器逐个解码字段值并创建视图对象，任意字段无法解码时返回null，由调用方按照缓存不存在处理
+     *
+     * @param key      缓存的key
+     * @param values   与hashFields顺序一致的字段值
+     * @param viewType 视图类型
+     * @return 视图对象
+     */
+    private <V> V decodeHash(String key, List<byte[]> values, Class<V> viewType) {
+        Class<?>[] types = HashFieldMapper.fieldTypes(viewType);
+        Object[] fieldValues = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            byte[] bytes = values.get(i + 1);
+            if (bytes == null) {
+                continue;
+            }
+            fieldValues[i] = this.decode(key, bytes, types[i]);
+            if (fieldValues[i] == null) {
+                return null;
+            }
+        }
+        return HashFieldMapper.newView(viewType, fieldValues);
+    }
+
+    /**
+     * Hash方式缓存的数据是否存在且不是空数据
+     *
+     * @param values 与hashFields顺序一致的字段值
+     * @return boolean
+     */
+    private static boolean hasHashValue(List<byte[]> values) {
+        return values != null && !values.isEmpty() && Arrays.equals(values.get(0), HashFieldMapper.META_PRESENT);
+    }
+
+    /**
+     * Hash方式缓存的是否是空数据
+     *
+     * @param values 与hashFields顺序一致的字段值
+     * @return boolean
+     */
+    private static boolean isEmptyHashValue(List<byte[]> values) {
+        return values != null && !values.isEmpty() && Arrays.equals(values.get(0), HashFieldMapper.META_EMPTY);
+    }
+
+    /**
+     * 使用key对应的编解码器编码缓存value
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value
+     * @return 字节数组
+     */
+    protected byte[] encode(String key, Object value) {
+        return codecRegistry.encode(key, value);
+    }
+
+    /**
+     * 使用key对应的编解码器解码缓存value，无法解码（例如切换编解码器前写入的数据）时返回null，由调用方按照缓存不存在处理
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  目标类型
+     * @return 目标类型的对象
+     */
+    protected <R> R decode(String key, byte[] bytes, Class<R> type) {
+        try {
+            return codecRegistry.decode(key, bytes, type);
+        } catch (Exception e) {
+            logger.warn("decode cache value | {} | {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 使用key对应的编解码器解码缓存value为List集合，无法解码时返回null
+     *
+     * @param key   缓存的key
+     * @param bytes 字节数组
+     * @param type  集合元素类型
+     * @return 列表<r>
+     */
+    protected <R> List<R> decodeList(String key, byte[] bytes, Class<R> type) {
+        try {
+            return codecRegistry.decodeList(key, bytes, type);
+        } catch (Exception e) {
+            logger.warn("decode cache list value | {} | {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存数据是否存在且不是空数据
+     *
+     * @param value 缓存的value
+     * @return boolean
+     */
+    protected static boolean hasValue(byte[] value) {
+        return value != null && value.length > 0;
+    }
+
+    /**
+     * 缓存的是否是空数据
+     *
+     * @param value 缓存的value
+     * @return boolean
+     */
+    protected static boolean isEmptyValue(byte[] value) {
+        return value != null && value.length == 0;
+    }
+
+    /**
+     * 从主节点读取缓存数据，不经过本地缓存；集群和哨兵模式下读命令按照读取策略可能路由到从节点，
+     * 获取锁之后的Double check需要读取到其他节点刚刚写入的数据，单机模式下与普通读取相同
+     *
+     * @param key 缓存的key
+     * @return 缓存的value，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    protected byte[] doGetFromUpstream(String key) {
+        long start = System.nanoTime();
+        byte[] value;
+        if (lettuceConnectionFactory.isClusterAware()) {
+            value = ((StatefulRedisClusterConnection<String, byte[]>) this.getUpstreamConnection()).sync().get(key);
+        } else if (lettuceConnectionFactory.isRedisSentinelAware()) {
+            value = ((StatefulRedisConnection<String, byte[]>) this.getUpstreamConnection()).sync().get(key);
+        } else {
+            value = redisTemplate.opsForValue().get(key);
+        }
+        cacheMetrics.redis(key, CacheMetrics.OP_GET, start);
+        return value;
+    }
+
+    /**
+     * 获取直接连接主节点的Lettuce连接，第一次使用时创建，之后复用；集群模式下同时用于跨节点SCAN
+     *
+     * @return 集群模式下为集群连接，哨兵模式下为通过哨兵发现的主节点连接
+     */
+    private StatefulConnection<String, byte[]> getUpstreamConnection() {
+        StatefulConnection<String, byte[]> connection = upstreamConnection;
+        if (connection != null) {
+            return connection;
+        }
+        synchronized (this) {
+            if (upstreamConnection == null) {
+                AbstractRedisClient client = lettuceConnectionFactory.getNativeClient();
+                RedisCodec<String, byte[]> codec = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+                if (client instanceof RedisClusterClient clusterClient) {
+                    StatefulRedisClusterConnection<String, byte[]> clusterConnection = clusterClient.connect(codec);
+                    clusterConnection.setReadFrom(ReadFrom.UPSTREAM);
+                    upstreamConnection = clusterConnection;
+                } else if (client instanceof RedisClient redisClient) {
+                    upstreamConnection = redisClient.connect(codec);
+                } else {
+                    throw new IllegalStateException("lettuce client is not initialized");
+                }
+            }
+            return upstreamConnection;
+        }
+    }
+
+    @PreDestroy
+    public void closeUpstreamConnection() {
+        if (upstreamConnection != null) {
+            upstreamConnection.close();
+        }
+    }
+
+    /**
+     * 从Redis中读取缓存数据，所有读缓存的操作都经过此方法，子类可在此基础上扩展多级缓存，
+     * 读取时统计key的访问次数，热点key优先从本地缓存读取
+     *
+     * @param key 缓存的key
+     * @return 缓存的value，不存在时返回null
+     */
+    protected byte[] doGet(String key) {
+        hotKeyDetector.record(key);
+        byte[] hot = hotKeyDetector.getIfPromoted(key);
+        if (hot != null) {
+            return hot;
+        }
+        long stamp = hotKeyDetector.stamp();
+        long start = System.nanoTime();
+        byte[] value = redisTemplate.opsForValue().get(key);
+        cacheMetrics.redis(key, CacheMetrics.OP_GET, start);
+        hotKeyDetector.backfill(key, value, stamp);
+        return value;
+    }
+
+    /**
+     * 向Redis中写入缓存数据，所有写缓存的操作都经过此方法
+     *
+     * @param key     缓存的key
+     * @param value   已经编码好的缓存value
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    protected void doSet(String key, byte[] value, Long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        if (timeout == null || unit == null) {
+            redisTemplate.opsForValue().set(key, value);
+        } else {
+            redisTemplate.opsForValue().set(key, value, timeout, unit);
+        }
+        cacheMetrics.redis(key, CacheMetrics.OP_SET, start);
+        hotKeyDetector.invalidate(key);
+    }
+
+    /**
+     * 从Redis中删除缓存数据，所有删除缓存的操作都经过此方法
+     *
+     * @param key 缓存的key
+     * @return 是否删除成功
+     */
+    protected Boolean doDelete(String key) {
+        long start = System.nanoTime();
+        Boolean deleted = redisTemplate.delete(key);
+        cacheMetrics.redis(key, CacheMetrics.OP_DELETE, start);
+        hotKeyDetector.invalidate(key);
+        return deleted;
+    }
+
+    /**
+     * 从Redis中批量读取缓存数据
+     *
+     * @param keys 缓存的key列表
+     * @return 与key顺序一致的value列表，不存在的value为null
+     */
+    protected List<byte[]> doMultiGet(List<String> keys) {
+        for (String key : keys) {
+            hotKeyDetector.record(key);
+        }
+        long start = System.nanoTime();
+        List<byte[]> values = redisTemplate.opsForValue().multiGet(keys);
+        cacheMetrics.redis(keys.isEmpty() ? null : keys.get(0), CacheMetrics.OP_MULTI_GET, start);
+        return values;
+    }
+
+    /**
+     * 通过管道向Redis中批量写入缓存数据，每个条目使用各自的缓存时长
+     *
+     * @param entries 缓存条目列表
+     */
+    protected void doMultiSet(List<CacheEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        long start = System.nanoTime();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (CacheEntry entry : entries) {
+                Expiration expiration = entry.getTimeout() == null || entry.getUnit() == null
+                        ? Expiration.persistent() : Expiration.from(entry.getTimeout(), entry.getUnit());
+                connection.stringCommands().set(serializer.serialize(entry.getKey()), entry.getValue(), expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+        cacheMetrics.redis(entries.get(0).getKey(), CacheMetrics.OP_MULTI_SET, start);
+        hotKeyDetector.invalidateAll(entries.stream().map(CacheEntry::getKey).toList());
+    }
+
+    /**
+     * 使用UNLINK批量删除key，由Redis后台线程异步释放内存
+     *
+     * @param keys 缓存的key列表
+     * @return 删除的key数量
+     */
+    protected Long doUnlink(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0L;
+        }
+        long start = System.nanoTime();
+        Long count = redisTemplate.unlink(keys);
+        cacheMetrics.redis(keys.get(0), CacheMetrics.OP_UNLINK, start);
+        hotKeyDetector.invalidateAll(keys);
+        return count;
+    }
+
+    /**
+     * 从Redis中批量读取Hash字段，所有读Hash缓存的操作都经过此方法
+     *
+     * @param key    缓存的key
+     * @param fields 字段列表
+     * @return 与字段顺序一致的字段值列表，不存在的字段为null
+     */
+    protected List<byte[]> doHashMultiGet(String key, List<String> fields) {
+        long start = System.nanoTime();
+        List<byte[]> values = redisTemplate.<String, byte[]>opsForHash().multiGet(key, fields);
+        cacheMetrics.redis(key, CacheMetrics.OP_HASH_GET, start);
+        return values;
+    }
+
+    /**
+     * 通过Lua脚本原子地删除旧数据、写入Hash字段并设置过期时间，所有写Hash缓存的操作都经过此方法；
+     * 只操作一个key，集群模式下同样可用
+     *
+     * @param key     缓存的key
+     * @param fields  字段名与编码后的字段值的映射
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    protected void doHashSet(String key, Map<String, byte[]> fields, Long timeout, TimeUnit unit) {
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        List<Object> args = new ArrayList<>(fields.size() * 2 + 1);
+        long ttl = timeout != null && unit != null ? unit.toMillis(timeout) : 0;
+        args.add(serializer.serialize(String.valueOf(ttl)));
+        fields.forEach((field, value) -> {
+            args.add(serializer.serialize(field));
+            args.add(value);
+        });
+        long start = System.nanoTime();
+        redisTemplate.execute(HASH_SET_SCRIPT, Collections.singletonList(key), args.toArray());
+        cacheMetrics.redis(key, CacheMetrics.OP_HASH_SET, start);
+    }
+
+    /**
+     * 通过Lua脚本原子地更新Hash字段，缓存不存在或缓存了空数据时不写入
+     *
+     * @param key     缓存的key
+     * @param updates 需要写入的字段名与编码后的字段值
+     * @param removes 需要删除的字段名
+     * @return 是否更新成功
+     */
+    protected Boolean doHashUpdate(String key, Map<String, byte[]> updates, List<String> removes) {
+        RedisSerializer<String> serializer = RedisSerializer.string();
+        List<Object> args = new ArrayList<>(updates.size() * 2 + removes.size() + 1);
+        args.add(serializer.serialize(String.valueOf(updates.size())));
+        updates.forEach((field, value) -> {
+            args.add(serializer.serialize(field));
+            args.add(value);
+        });
+        removes.forEach(field -> args.add(serializer.serialize(field)));
+        long start = System.nanoTime();
+        Long updated = redisTemplate.execute(HASH_UPDATE_SCRIPT, Collections.singletonList(key), args.toArray());
+        cacheMetrics.redis(key, CacheMetrics.OP_HASH_UPDATE, start);
+        return updated != null && updated == 1L;
+    }
 }
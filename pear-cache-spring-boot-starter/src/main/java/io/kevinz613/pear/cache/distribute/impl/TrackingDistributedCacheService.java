@@ -0,0 +1,368 @@
+package io.kevinz613.pear.cache.distribute.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.data.CacheEntry;
+import io.kevinz613.pear.cache.local.factory.LocalCaffeineCacheFactory;
+import io.kevinz613.pear.cache.metrics.CacheMetrics;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于Redis服务端辅助的客户端缓存（RESP3 CLIENT TRACKING）的分布式缓存服务，读取的数据保存在有界的本地缓存中，
+ * Redis在key被修改、删除或过期时通过推送消息通知失效本地缓存，重复读取未修改的key不再访问网络。
+ * 默认模式下Redis只跟踪通过跟踪连接读取过的key；广播模式下按照key前缀推送失效消息，不在服务端记录读取过的key。
+ * 只支持单机和哨兵部署，需要Redis 6及以上版本
+ *
+ * @author kevinz613
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.cache.type", havingValue = "tracking")
+public class TrackingDistributedCacheService extends RedisDistributedCacheService implements RedisConnectionStateListener {
+
+    private final Logger logger = LoggerFactory.getLogger(TrackingDistributedCacheService.class);
+
+    //失效推送消息类型
+    private static final String INVALIDATE_MESSAGE = "invalidate";
+
+    //失效版本号，每次本地缓存失效时递增，防止并发读取时把旧数据回填到本地缓存
+    private final AtomicLong invalidateVersion = new AtomicLong();
+
+    @Autowired
+    private LettuceConnectionFactory lettuceConnectionFactory;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    private AbstractRedisClient client;
+
+    //开启了客户端跟踪的连接，跟踪的key都通过此连接读取，失效消息也推送到此连接
+    private StatefulRedisConnection<String, byte[]> connection;
+
+    private RedisCommands<String, byte[]> commands;
+
+    //本地缓存，基于Caffeine实现
+    private Cache<String, byte[]> localCache;
+
+    //跟踪是否生效，连接断开后服务端不再推送失效消息，重新开启跟踪前不读写本地缓存
+    private volatile boolean tracking;
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.Tracking config = properties.getTracking();
+        localCache = LocalCaffeineCacheFactory.getLocalCache(config.getInitialCapacity(), config.getMaximumSize(), config.getLocalTtl());
+        client = lettuceConnectionFactory.getNativeClient();
+        if (!(client instanceof RedisClient redisClient)) {
+            throw new IllegalStateException("client side caching requires a standalone or sentinel lettuce client");
+        }
+        connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        connection.addListener(this::onPushMessage);
+        commands = connection.sync();
+        commands.clientTracking(this.trackingArgs());
+        tracking = true;
+        client.addListener(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        tracking = false;
+        if (client != null) {
+            client.removeListener(this);
+        }
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 优先从本地缓存读取，本地缓存不存在时通过跟踪连接读取Redis并回填本地缓存
+     *
+     * @param key 缓存的key
+     * @return 缓存的value
+     */
+    @Override
+    protected byte[] doGet(String key) {
+        if (!tracking || !isTrackingKey(key)) {
+            return super.doGet(key);
+        }
+        byte[] value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long version = invalidateVersion.get();
+        long start = System.nanoTime();
+        value = commands.get(key);
+        cacheMetrics.redis(key, CacheMetrics.OP_GET, start);
+        //读取期间没有发生失效才回填本地缓存，回填后再次检查，失效消息可能在检查和回填之间到达
+        if (value != null && tracking && version == invalidateVersion.get()) {
+            localCache.put(key, value);
+            if (version != invalidateVersion.get()) {
+                localCache.invalidate(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 写入Redis后立即失效本地缓存，不等待服务端推送失效消息，保证当前节点读到自己写入的数据
+     *
+     * @param key     缓存的key
+     * @param value   已经编码好的缓存value
+     * @param timeout 缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     */
+    @Override
+    protected void doSet(String key, byte[] value, Long timeout, TimeUnit unit) {
+        super.doSet(key, value, timeout, unit);
+        invalidateLocal(key);
+    }
+
+    /**
+     * 删除Redis数据后立即失效本地缓存
+     *
+     * @param key 缓存的key
+     * @return 是否删除成功
+     */
+    @Override
+    protected Boolean doDelete(String key) {
+        Boolean deleted = super.doDelete(key);
+        invalidateLocal(key);
+        return deleted;
+    }
+
+    /**
+     * 批量读取时优先从本地缓存读取，只有本地缓存不存在的key才通过跟踪连接读取Redis
+     *
+     * @param keys 缓存的key列表
+     * @return 与key顺序一致的value列表
+     */
+    @Override
+    protected List<byte[]> doMultiGet(List<String> keys) {
+        if (!tracking || keys.isEmpty()) {
+            return super.doMultiGet(keys);
+        }
+        List<byte[]> values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<String> missingKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = isTrackingKey(keys.get(i)) ? localCache.getIfPresent(keys.get(i)) : null;
+            if (value != null) {
+                values.set(i, value);
+            } else {
+                missingIndexes.add(i);
+                missingKeys.add(keys.get(i));
+            }
+        }
+        if (missingKeys.isEmpty()) {
+            return values;
+        }
+        long version = invalidateVersion.get();
+        long start = System.nanoTime();
+        List<KeyValue<String, byte[]>> remote = commands.mget(missingKeys.toArray(new String[0]));
+        cacheMetrics.redis(missingKeys.get(0), CacheMetrics.OP_MULTI_GET, start);
+        boolean fill = tracking && version == invalidateVersion.get();
+        for (int i = 0; i < missingKeys.size(); i++) {
+            KeyValue<String, byte[]> keyValue = remote.get(i);
+            byte[] value = keyValue.hasValue() ? keyValue.getValue() : null;
+            values.set(missingIndexes.get(i), value);
+            if (fill && value != null && isTrackingKey(missingKeys.get(i))) {
+                localCache.put(missingKeys.get(i), value);
+            }
+        }
+        if (fill && version != invalidateVersion.get()) {
+            localCache.invalidateAll(missingKeys);
+        }
+        return values;
+    }
+
+    /**
+     * 批量写入Redis后立即失效本地缓存
+     *
+     * @param entries 缓存条目列表
+     */
+    @Override
+    protected void doMultiSet(List<CacheEntry> entries) {
+        super.doMultiSet(entries);
+        if (entries == null) {
+            return;
+        }
+        for (CacheEntry entry : entries) {
+            invalidateLocal(entry.getKey());
+        }
+    }
+
+    /**
+     * 批量删除Redis数据后立即失效本地缓存
+     *
+     * @param keys 缓存的key列表
+     * @return 删除的key数量
+     */
+    @Override
+    protected Long doUnlink(List<String> keys) {
+        Long deleted = super.doUnlink(keys);
+        if (keys == null) {
+            return deleted;
+        }
+        for (String key : keys) {
+            invalidateLocal(key);
+        }
+        return deleted;
+    }
+
+    /**
+     * key被其他客户端写入或删除后立即失效本地缓存，不等待服务端推送失效消息
+     *
+     * @param keys 缓存的key列表
+     */
+    @Override
+    public void invalidateLocal(Collection<String> keys) {
+        super.invalidateLocal(keys);
+        for (String key : keys) {
+            invalidateLocal(key);
+        }
+    }
+
+    /**
+     * 跟踪连接断开后服务端不再推送失效消息，停止使用并清空本地缓存
+     *
+     * @param redisChannelHandler 断开的连接
+     */
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> redisChannelHandler) {
+        if (redisChannelHandler != connection) {
+            return;
+        }
+        tracking = false;
+        invalidateAll();
+        logger.warn("client side caching disconnected, local cache cleared");
+    }
+
+    /**
+     * 跟踪连接重新建立后服务端不会保留之前的跟踪状态，重新开启跟踪
+     *
+     * @param redisChannelHandler 建立的连接
+     * @param socketAddress       远程地址
+     */
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> redisChannelHandler, SocketAddress socketAddress) {
+        if (redisChannelHandler != connection || commands == null) {
+            return;
+        }
+        //在I/O线程中回调，不能同步等待命令结果
+        connection.async().clientTracking(this.trackingArgs()).whenComplete((result, e) -> {
+            if (e != null) {
+                logger.error("client side caching re-enable tracking | {}", e.getMessage());
+                return;
+            }
+            invalidateAll();
+            tracking = true;
+        });
+    }
+
+    /**
+     * 处理服务端推送的失效消息，key列表为空时表示服务端执行了FLUSHALL或FLUSHDB
+     *
+     * @param message 推送消息
+     */
+    @SuppressWarnings("unchecked")
+    private void onPushMessage(PushMessage message) {
+        if (!INVALIDATE_MESSAGE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        if (content.size() < 2 || content.get(1) == null) {
+            invalidateAll();
+            return;
+        }
+        for (Object key : (List<Object>) content.get(1)) {
+            invalidateLocal((String) key);
+        }
+    }
+
+    /**
+     * 客户端跟踪参数，广播模式下按照key前缀跟踪
+     *
+     * @return 跟踪参数
+     */
+    private TrackingArgs trackingArgs() {
+        DistributedCacheProperties.Tracking config = properties.getTracking();
+        TrackingArgs args = TrackingArgs.Builder.enabled();
+        if (config.isBroadcast()) {
+            args.bcast();
+            if (!config.getPrefixes().isEmpty()) {
+                args.prefixes(config.getPrefixes().toArray(new String[0]));
+            }
+        }
+        return args;
+    }
+
+    /**
+     * 失效本地缓存
+     *
+     * @param key 缓存的key
+     */
+    private void invalidateLocal(String key) {
+        invalidateVersion.incrementAndGet();
+        localCache.invalidate(key);
+    }
+
+    /**
+     * 失效全部本地缓存
+     */
+    private void invalidateAll() {
+        invalidateVersion.incrementAndGet();
+        localCache.invalidateAll();
+    }
+
+    /**
+     * 判断key是否开启客户端缓存
+     *
+     * @param key 缓存的key
+     * @return boolean
+     */
+    private boolean isTrackingKey(String key) {
+        if (StrUtil.isEmpty(key)) {
+            return false;
+        }
+        List<String> prefixes = properties.getTracking().getPrefixes();
+        if (prefixes == null || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
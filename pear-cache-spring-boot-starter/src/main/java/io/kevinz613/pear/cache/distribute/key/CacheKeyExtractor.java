@@ -0,0 +1,25 @@
+package io.kevinz613.pear.cache.distribute.key;
+
+/**
+ * 业务标识的缓存key提取器，声明后该类型的业务标识不再计算哈希，直接将提取的内容拼接到key前缀之后，
+ * 实现类注册为Spring Bean或调用CacheKeyGenerator.register后生效
+ *
+ * @author kevinz613
+ */
+public interface CacheKeyExtractor<T> {
+
+    /**
+     * 业务标识类型，只匹配该类型本身，不匹配子类
+     *
+     * @return 类型
+     */
+    Class<T> type();
+
+    /**
+     * 将业务标识中参与缓存key的内容追加到key中，调用时key中已经包含key前缀
+     *
+     * @param id  业务标识
+     * @param key 正在拼接的缓存key
+     */
+    void extract(T id, StringBuilder key);
+}
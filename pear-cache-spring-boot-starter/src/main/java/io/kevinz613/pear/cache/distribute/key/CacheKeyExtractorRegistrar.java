@@ -0,0 +1,25 @@
+package io.kevinz613.pear.cache.distribute.key;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 将注册为Spring Bean的缓存key提取器注册到CacheKeyGenerator
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheKeyExtractorRegistrar {
+
+    @Autowired(required = false)
+    private List<CacheKeyExtractor<?>> extractors = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        extractors.forEach(CacheKeyGenerator::register);
+    }
+}
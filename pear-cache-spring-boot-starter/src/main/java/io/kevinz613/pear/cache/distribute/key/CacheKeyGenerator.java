@@ -0,0 +1,241 @@
+package io.kevinz613.pear.cache.distribute.key;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.kevinz613.pear.cache.distribute.conversion.TypeConversion;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存key生成，简单类型的业务标识直接拼接到key前缀之后；声明了提取器的类型按照提取器拼接；
+ * 其他类型按照字段名排序后直接对字段值计算murmur3 128位哈希，不生成中间Json字符串，结果与字段声明顺序无关，
+ * List和数组按照元素顺序计算哈希，Set和Map与遍历顺序无关，
+ * 每个类的字段列表只通过反射解析一次，key在线程内复用的StringBuilder中拼接
+ *
+ * @author kevinz613
+ */
+public final class CacheKeyGenerator {
+
+    //嵌套对象的最大深度，超出时认为存在循环引用
+    private static final int MAX_DEPTH = 16;
+    //线程内复用的StringBuilder的最大容量，超出后不再复用，避免长期占用内存
+    private static final int MAX_BUILDER_CAPACITY = 1024;
+    //无法通过反射读取字段的类（例如JDK内部类）使用toString参与哈希
+    private static final Field[] TO_STRING_PLAN = new Field[0];
+    //十六进制字符
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    //值类型标记，避免不同类型的值得到相同的哈希输入
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_NUMBER = 2;
+    private static final byte TAG_BOOLEAN = 3;
+    private static final byte TAG_CHAR = 4;
+    private static final byte TAG_ENUM = 5;
+    private static final byte TAG_COLLECTION = 6;
+    private static final byte TAG_MAP = 7;
+    private static final byte TAG_ARRAY = 8;
+    private static final byte TAG_OBJECT = 9;
+    private static final byte TAG_SET = 10;
+
+    //业务标识类型与提取器的映射
+    private static final Map<Class<?>, CacheKeyExtractor<?>> EXTRACTORS = new ConcurrentHashMap<>();
+
+    //类与按照字段名排序的字段列表的映射
+    private static final ClassValue<Field[]> FIELD_PLANS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return fieldPlan(type);
+        }
+    };
+
+    //线程内复用的StringBuilder
+    private static final ThreadLocal<StringBuilder> BUILDERS = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private CacheKeyGenerator() {
+    }
+
+    /**
+     * 注册业务标识的缓存key提取器，同一类型重复注册时后注册的生效
+     *
+     * @param extractor 提取器
+     */
+    public static <T> void register(CacheKeyExtractor<T> extractor) {
+        EXTRACTORS.put(extractor.type(), extractor);
+    }
+
+    /**
+     * 生成缓存key
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param id        业务标识
+     * @return 缓存key
+     */
+    @SuppressWarnings("unchecked")
+    public static String generate(String keyPrefix, Object id) {
+        if (id == null) {
+            return keyPrefix;
+        }
+        if (TypeConversion.isSimpleType(id)) {
+            return keyPrefix.concat(id.toString());
+        }
+        StringBuilder builder = BUILDERS.get();
+        builder.setLength(0);
+        builder.append(keyPrefix);
+        CacheKeyExtractor<Object> extractor = (CacheKeyExtractor<Object>) EXTRACTORS.get(id.getClass());
+        if (extractor != null) {
+            extractor.extract(id, builder);
+        } else {
+            appendHash(builder, id);
+        }
+        String key = builder.toString();
+        if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+            BUILDERS.remove();
+        }
+        return key;
+    }
+
+    /**
+     * 计算业务标识的128位哈希，以32位十六进制字符串追加到key中
+     *
+     * @param builder 正在拼接的缓存key
+     * @param id      业务标识
+     */
+    private static void appendHash(StringBuilder builder, Object id) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putValue(hasher, id, 0);
+        byte[] hash = hasher.hash().asBytes();
+        for (byte b : hash) {
+            builder.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+
+    /**
+     * 将值写入哈希，对象按照字段名顺序逐个写入字段名和字段值
+     *
+     * @param hasher 哈希计算
+     * @param value  值
+     * @param depth  嵌套深度
+     */
+    private static void putValue(Hasher hasher, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("cache key id nested too deep, possible circular reference: " + value.getClass().getName());
+        }
+        if (value == null) {
+            hasher.putByte(TAG_NULL);
+        } else if (value instanceof CharSequence || value instanceof UUID || value instanceof TemporalAccessor) {
+            putString(hasher.putByte(TAG_STRING), value.toString());
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            hasher.putByte(TAG_NUMBER).putLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            //BigDecimal、Double等按照字符串形式写入，保证精度
+            putString(hasher.putByte(TAG_NUMBER), value.toString());
+        } else if (value instanceof Boolean bool) {
+            hasher.putByte(TAG_BOOLEAN).putBoolean(bool);
+        } else if (value instanceof Character character) {
+            hasher.putByte(TAG_CHAR).putChar(character);
+        } else if (value instanceof Enum<?> enumValue) {
+            putString(hasher.putByte(TAG_ENUM), enumValue.name());
+        } else if (value instanceof Date date) {
+            hasher.putByte(TAG_NUMBER).putLong(date.getTime());
+        } else if (value instanceof List<?> list) {
+            hasher.putByte(TAG_COLLECTION);
+            for (Object item : list) {
+                putValue(hasher, item, depth + 1);
+            }
+            hasher.putInt(list.size());
+        } else if (value instanceof Iterable<?> iterable) {
+            //Set等非List集合的遍历顺序与容量和插入历史有关，每个元素单独计算哈希后相加
+            long sum = 0;
+            int size = 0;
+            for (Object item : iterable) {
+                Hasher itemHasher = Hashing.murmur3_128().newHasher();
+                putValue(itemHasher, item, depth + 1);
+                sum += itemHasher.hash().asLong();
+                size++;
+            }
+            hasher.putByte(TAG_SET).putLong(sum).putInt(size);
+        } else if (value instanceof Map<?, ?> map) {
+            //Map的遍历顺序不确定，每个条目单独计算哈希后相加
+            long sum = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Hasher entryHasher = Hashing.murmur3_128().newHasher();
+                putValue(entryHasher, entry.getKey(), depth + 1);
+                putValue(entryHasher, entry.getValue(), depth + 1);
+                sum += entryHasher.hash().asLong();
+            }
+            hasher.putByte(TAG_MAP).putLong(sum).putInt(map.size());
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            hasher.putByte(TAG_ARRAY);
+            for (int i = 0; i < length; i++) {
+                putValue(hasher, Array.get(value, i), depth + 1);
+            }
+            hasher.putInt(length);
+        } else {
+            Field[] plan = FIELD_PLANS.get(value.getClass());
+            if (plan == TO_STRING_PLAN) {
+                putString(hasher.putByte(TAG_STRING), value.toString());
+                return;
+            }
+            hasher.putByte(TAG_OBJECT);
+            for (Field field : plan) {
+                putString(hasher, field.getName());
+                try {
+                    putValue(hasher, field.get(value), depth + 1);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("read cache key field: " + field, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入字符串，先写入UTF-8字节数再写入内容，保证相邻的字符串边界不同时哈希输入不同
+     *
+     * @param hasher 哈希计算
+     * @param value  字符串
+     */
+    private static void putString(Hasher hasher, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        hasher.putInt(bytes.length).putBytes(bytes);
+    }
+
+    /**
+     * 解析类及其父类的实例字段，排除静态字段和transient字段，按照字段名排序
+     *
+     * @param type 类
+     * @return 字段列表，无法通过反射读取时返回TO_STRING_PLAN
+     */
+    private static Field[] fieldPlan(Class<?> type) {
+        if (type.getModule().isNamed() && type.getName().startsWith("java.")) {
+            return TO_STRING_PLAN;
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                if (!field.trySetAccessible()) {
+                    return TO_STRING_PLAN;
+                }
+                fields.add(field);
+            }
+        }
+        fields.sort(Comparator.comparing(Field::getName).thenComparing(field -> field.getDeclaringClass().getName()));
+        return fields.toArray(new Field[0]);
+    }
+}
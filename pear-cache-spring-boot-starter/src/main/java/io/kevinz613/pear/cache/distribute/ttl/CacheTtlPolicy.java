@@ -0,0 +1,154 @@
+package io.kevinz613.pear.cache.distribute.ttl;
+
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存过期时间策略，所有写缓存的过期时间都经过此策略计算：在调用方传入的过期时间上增加随机抖动，
+ * 批量写入时按照key错开过期时间，防止同一批key同时过期造成缓存雪崩，最后按照最小值和最大值截断；
+ * 空数据和未指定缓存时长的逻辑过期数据使用单独的过期时间，可按照key前缀单独配置
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheTtlPolicy {
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    //默认策略
+    private Policy defaultPolicy;
+
+    //按照前缀长度倒序排列的前缀策略，优先匹配最长的前缀
+    private final List<Policy> prefixPolicies = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.Ttl ttl = properties.getTtl();
+        defaultPolicy = new Policy("", ttl.getJitter(), ttl.getMin(), ttl.getMax(), ttl.getNullTtl(), ttl.getStagger(),
+                ttl.getLogicalTtl());
+        for (Map.Entry<String, DistributedCacheProperties.TtlPolicy> entry : ttl.getPrefixes().entrySet()) {
+            DistributedCacheProperties.TtlPolicy item = entry.getValue();
+            prefixPolicies.add(new Policy(entry.getKey(),
+                    item.getJitter() == null ? ttl.getJitter() : item.getJitter(),
+                    item.getMin() == null ? ttl.getMin() : item.getMin(),
+                    item.getMax() == null ? ttl.getMax() : item.getMax(),
+                    item.getNullTtl() == null ? ttl.getNullTtl() : item.getNullTtl(),
+                    item.getStagger() == null ? ttl.getStagger() : item.getStagger(),
+                    item.getLogicalTtl() == null ? ttl.getLogicalTtl() : item.getLogicalTtl()));
+        }
+        prefixPolicies.sort(Comparator.comparingInt((Policy policy) -> policy.prefix().length()).reversed());
+    }
+
+    /**
+     * 计算缓存数据的过期时间
+     *
+     * @param key     缓存的key
+     * @param timeout 调用方传入的缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     * @return 过期时间，单位毫秒，永久缓存时返回null
+     */
+    public Long ttlMillis(String key, Long timeout, TimeUnit unit) {
+        return this.ttlMillis(key, timeout, unit, false);
+    }
+
+    /**
+     * 计算缓存数据的过期时间
+     *
+     * @param key     缓存的key
+     * @param timeout 调用方传入的缓存时长，为null时永久缓存
+     * @param unit    缓存时长单位
+     * @param bulk    是否是批量写入，批量写入时按照key错开过期时间
+     * @return 过期时间，单位毫秒，永久缓存时返回null
+     */
+    public Long ttlMillis(String key, Long timeout, TimeUnit unit, boolean bulk) {
+        if (timeout == null || unit == null) {
+            return null;
+        }
+        Policy policy = this.resolve(key);
+        long ttl = this.jitter(unit.toMillis(timeout), policy.jitter());
+        if (bulk && policy.stagger() > 0) {
+            ttl += Math.floorMod(key.hashCode(), TimeUnit.SECONDS.toMillis(policy.stagger()));
+        }
+        //抖动和错开之后再限制范围，保证最终的过期时间不超出最小值和最大值
+        if (policy.min() > 0) {
+            ttl = Math.max(ttl, TimeUnit.SECONDS.toMillis(policy.min()));
+        }
+        if (policy.max() > 0) {
+            ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(policy.max()));
+        }
+        return Math.max(1L, ttl);
+    }
+
+    /**
+     * 计算逻辑过期数据的逻辑过期时间，调用方未传入缓存时长时使用策略中的逻辑过期时间，同样经过抖动和范围限制
+     *
+     * @param key     缓存的key
+     * @param timeout 调用方传入的缓存时长，为null时使用策略中的逻辑过期时间
+     * @param unit    缓存时长单位
+     * @return 逻辑过期时间，单位毫秒
+     */
+    public long logicalTtlMillis(String key, Long timeout, TimeUnit unit) {
+        if (timeout == null || unit == null) {
+            return this.ttlMillis(key, this.resolve(key).logicalTtl(), TimeUnit.SECONDS);
+        }
+        return this.ttlMillis(key, timeout, unit);
+    }
+
+    /**
+     * 计算空数据的过期时间，只增加随机抖动，不受最小值和最大值限制
+     *
+     * @param key 缓存的key
+     * @return 过期时间，单位毫秒
+     */
+    public long nullTtlMillis(String key) {
+        Policy policy = this.resolve(key);
+        return Math.max(1L, this.jitter(TimeUnit.SECONDS.toMillis(policy.nullTtl()), policy.jitter()));
+    }
+
+    /**
+     * 根据key选择过期时间策略
+     *
+     * @param key 缓存的key
+     * @return 过期时间策略
+     */
+    private Policy resolve(String key) {
+        for (Policy policy : prefixPolicies) {
+            if (key.startsWith(policy.prefix())) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    /**
+     * 在过期时间上增加[0, ttl * jitter]之间的随机时长
+     *
+     * @param ttl    过期时间，单位毫秒
+     * @param jitter 随机抖动比例
+     * @return 过期时间，单位毫秒
+     */
+    private long jitter(long ttl, double jitter) {
+        long bound = (long) (ttl * jitter);
+        if (bound <= 0) {
+            return ttl;
+        }
+        return ttl + ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * 过期时间策略，时长单位秒
+     */
+    private record Policy(String prefix, double jitter, long min, long max, long nullTtl, long stagger,
+                          long logicalTtl) {
+    }
+}
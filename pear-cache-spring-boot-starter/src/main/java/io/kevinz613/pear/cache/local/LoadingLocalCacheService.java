@@ -0,0 +1,51 @@
+package io.kevinz613.pear.cache.local;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 自动加载的本地缓存服务，缓存不存在时调用加载函数，同一个key的并发加载只执行一次；
+ * 写入超过刷新时间的数据在读取时由后台线程使用加载该数据的函数重新加载，重新加载完成前继续返回旧数据
+ *
+ * @author kevinz613
+ */
+public interface LoadingLocalCacheService<K, V> extends LocalCacheService<K, V> {
+
+    /**
+     * 获取缓存数据，不存在时调用加载函数并缓存结果，加载结果为null时不缓存
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * 批量获取缓存数据，不存在的key合并为一次调用批量加载函数
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    Map<K, V> getAll(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader);
+
+    /**
+     * 异步获取缓存数据，不存在时在加载线程池中调用加载函数
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * 异步批量获取缓存数据，不存在的key在加载线程池中合并为一次调用批量加载函数
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader);
+}
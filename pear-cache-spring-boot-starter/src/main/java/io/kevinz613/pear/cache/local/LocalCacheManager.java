@@ -0,0 +1,180 @@
+package io.kevinz613.pear.cache.local;
+
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodecRegistry;
+import io.kevinz613.pear.cache.local.impl.CaffeineLocalCacheRegion;
+import io.kevinz613.pear.cache.local.impl.GuavaLocalCacheRegion;
+import io.kevinz613.pear.cache.local.impl.OffHeapLocalCacheService;
+import io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotManager;
+import io.kevinz613.pear.cache.metrics.CacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地缓存区域管理，启动时按照local.cache.regions创建缓存区域，每个区域有独立的容量、过期时间、淘汰和统计，
+ * 避免不同业务的数据共用一个本地缓存时互相淘汰；堆外缓存区域需要value类型解码，在第一次调用getOffHeapCache时创建
+ *
+ * @author kevinz613
+ */
+@Component
+public class LocalCacheManager {
+
+    //堆外缓存类型
+    public static final String OFF_HEAP = "offheap";
+
+    @Autowired
+    private LocalCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private CacheValueCodecRegistry codecRegistry;
+
+    @Autowired
+    private LocalCacheSnapshotManager snapshotManager;
+
+    //区域名称与缓存区域的映射
+    private final Map<String, LocalCacheRegion<Object, Object>> regions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        properties.getRegions().forEach((name, region) -> {
+            if (!OFF_HEAP.equalsIgnoreCase(this.typeOf(region))) {
+                this.getCache(name, region);
+            }
+        });
+    }
+
+    /**
+     * 获取已创建的缓存区域
+     *
+     * @param name 区域名称
+     * @return 缓存区域
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCacheRegion<K, V> getCache(String name) {
+        LocalCacheRegion<Object, Object> region = regions.get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("local cache region not found: " + name);
+        }
+        return (LocalCacheRegion<K, V>) region;
+    }
+
+    /**
+     * 获取缓存区域，不存在时按照指定配置创建，已存在时忽略指定配置
+     *
+     * @param name   区域名称
+     * @param region 区域配置
+     * @return 缓存区域
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCacheRegion<K, V> getCache(String name, LocalCacheProperties.Region region) {
+        return (LocalCacheRegion<K, V>) regions.computeIfAbsent(name, key -> {
+            LocalCacheRegion<Object, Object> created = this.createRegion(key, region);
+            cacheMetrics.bindLocalCacheRegion(created);
+            return created;
+        });
+    }
+
+    /**
+     * 获取已配置的堆外缓存区域，不存在时按照配置创建
+     *
+     * @param name      区域名称
+     * @param valueType value类型
+     * @return 缓存区域
+     */
+    public <K, V> LocalCacheRegion<K, V> getOffHeapCache(String name, Class<V> valueType) {
+        LocalCacheProperties.Region region = properties.getRegions().get(name);
+        if (region == null) {
+            throw new IllegalArgumentException("local cache region not configured: " + name);
+        }
+        return this.getOffHeapCache(name, region, valueType);
+    }
+
+    /**
+     * 获取堆外缓存区域，不存在时按照指定配置创建，已存在时忽略指定配置；配置了快照间隔时创建后从快照恢复并定期写入快照
+     *
+     * @param name      区域名称
+     * @param region    区域配置，最大权重为堆外内存的总字节数
+     * @param valueType value类型
+     * @return 缓存区域
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCacheRegion<K, V> getOffHeapCache(String name, LocalCacheProperties.Region region, Class<V> valueType) {
+        return (LocalCacheRegion<K, V>) regions.computeIfAbsent(name, key -> {
+            OffHeapLocalCacheService<Object, Object> created =
+                    new OffHeapLocalCacheService<>(key, region, codecRegistry.getCodec(region.getCodec()), (Class<Object>) valueType);
+            cacheMetrics.bindLocalCacheRegion(created);
+            if (region.getSnapshotInterval() > 0) {
+                snapshotManager.register(key, created, region.getSnapshotInterval());
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 获取所有缓存区域名称
+     *
+     * @return 区域名称
+     */
+    public Set<String> getCacheNames() {
+        return Set.copyOf(regions.keySet());
+    }
+
+    /**
+     * 获取所有缓存区域的统计
+     *
+     * @return 统计
+     */
+    public List<LocalCacheStats> stats() {
+        return regions.values().stream().map(LocalCacheRegion::stats).toList();
+    }
+
+    /**
+     * 运行时调整缓存区域容量
+     *
+     * @param name    区域名称
+     * @param maximum 最大条目数量或最大权重
+     */
+    public void resize(String name, long maximum) {
+        this.getCache(name).resize(maximum);
+    }
+
+    /**
+     * 按照区域配置创建堆内的缓存区域，未配置类型时使用local.cache.type
+     *
+     * @param name   区域名称
+     * @param region 区域配置
+     * @return 缓存区域
+     */
+    private LocalCacheRegion<Object, Object> createRegion(String name, LocalCacheProperties.Region region) {
+        String type = this.typeOf(region);
+        if ("guava".equalsIgnoreCase(type)) {
+            return new GuavaLocalCacheRegion<>(name, region);
+        }
+        if ("caffeine".equalsIgnoreCase(type)) {
+            return new CaffeineLocalCacheRegion<>(name, region);
+        }
+        if (OFF_HEAP.equalsIgnoreCase(type)) {
+            throw new IllegalArgumentException("off-heap local cache region requires a value type, use getOffHeapCache: " + name);
+        }
+        throw new IllegalArgumentException("unsupported local cache type: " + type);
+    }
+
+    /**
+     * 获取区域的本地缓存类型，未配置时使用local.cache.type
+     *
+     * @param region 区域配置
+     * @return 本地缓存类型
+     */
+    private String typeOf(LocalCacheProperties.Region region) {
+        return region.getType() == null ? properties.getType() : region.getType();
+    }
+}
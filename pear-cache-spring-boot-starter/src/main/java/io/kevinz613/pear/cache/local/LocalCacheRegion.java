@@ -0,0 +1,35 @@
+package io.kevinz613.pear.cache.local;
+
+/**
+ * 本地缓存区域，由LocalCacheManager按照名称创建，每个区域有独立的容量、过期时间和统计
+ *
+ * @author kevinz613
+ */
+public interface LocalCacheRegion<K, V> extends LocalCacheService<K, V> {
+
+    /**
+     * 区域名称
+     *
+     * @return 名称
+     */
+    String name();
+
+    /**
+     * 获取区域统计
+     *
+     * @return 统计
+     */
+    LocalCacheStats stats();
+
+    /**
+     * 运行时调整区域容量，按照权重淘汰的区域调整的是最大权重
+     *
+     * @param maximum 最大条目数量或最大权重
+     */
+    void resize(long maximum);
+
+    /**
+     * 清空区域
+     */
+    void clear();
+}
@@ -0,0 +1,20 @@
+package io.kevinz613.pear.cache.local;
+
+/**
+ * 本地缓存区域统计
+ *
+ * @param name          区域名称
+ * @param type          本地缓存类型
+ * @param size          估算的条目数量
+ * @param maximum       最大条目数量或最大权重
+ * @param weighted      是否按照权重淘汰
+ * @param weightedSize  当前总权重，不按照权重淘汰或无法统计时为-1
+ * @param hitCount      命中次数
+ * @param missCount     未命中次数
+ * @param hitRate       命中率
+ * @param evictionCount 淘汰次数
+ * @author kevinz613
+ */
+public record LocalCacheStats(String name, String type, long size, long maximum, boolean weighted, long weightedSize,
+                              long hitCount, long missCount, double hitRate, long evictionCount) {
+}
@@ -0,0 +1,60 @@
+package io.kevinz613.pear.cache.local.factory;
+
+import com.alibaba.fastjson2.JSONB;
+
+/**
+ * 本地缓存条目权重估算，权重为key和value序列化后的字节数加上固定的条目开销，
+ * 字节数组和字符串直接按照长度估算，其他对象按照JSONB序列化后的长度估算
+ *
+ * @author kevinz613
+ */
+public final class LocalCacheWeigher {
+
+    //每个条目的固定开销，包括哈希表节点、引用和对象头
+    private static final int ENTRY_OVERHEAD = 64;
+    //数值、布尔等简单类型的估算大小
+    private static final int SIMPLE_WEIGHT = 16;
+    //无法序列化的对象的估算大小
+    private static final int DEFAULT_WEIGHT = 1024;
+
+    private LocalCacheWeigher() {
+    }
+
+    /**
+     * 估算条目权重
+     *
+     * @param key   缓存的key
+     * @param value 缓存的值
+     * @return 权重，单位字节
+     */
+    public static int weigh(Object key, Object value) {
+        long weight = ENTRY_OVERHEAD + sizeOf(key) + sizeOf(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 估算对象序列化后的字节数
+     *
+     * @param value 对象
+     * @return 字节数
+     */
+    private static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof CharSequence chars) {
+            return chars.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>) {
+            return SIMPLE_WEIGHT;
+        }
+        try {
+            return JSONB.toBytes(value).length;
+        } catch (Exception e) {
+            return DEFAULT_WEIGHT;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package io.kevinz613.pear.cache.local.factory;
 
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,4 +57,71 @@ public class LocalCaffeineCacheFactory {
                 .expireAfterWrite(duration, TimeUnit.SECONDS)
                 .build();
     }
+
+    /**
+     * 获取本地缓存-自定义容量、最大条数和过期时间
+     *
+     * @param initialCapacity 初始容量
+     * @param maximumSize     最大缓存条数
+     * @param duration        过期时间
+     * @return 缓存<k 、 v>
+     */
+    public static <K, V> Cache<K, V> getLocalCache(int initialCapacity, long maximumSize, long duration) {
+        return Caffeine.newBuilder()
+                .initialCapacity(initialCapacity)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(duration, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 获取自动加载的本地缓存-自定义容量、最大条数、过期时间和刷新时间
+     *
+     * @param initialCapacity 初始容量
+     * @param maximumSize     最大缓存条数
+     * @param duration        过期时间
+     * @param refresh         刷新时间，小于等于0时不刷新
+     * @param executor        执行加载的线程池，为null时使用ForkJoinPool.commonPool()
+     * @param loader          缓存加载器
+     * @return 缓存<k 、 v>
+     */
+    public static <K, V> AsyncLoadingCache<K, V> getAsyncLoadingCache(int initialCapacity, long maximumSize, long duration, long refresh,
+                                                                      Executor executor, AsyncCacheLoader<K, V> loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .initialCapacity(initialCapacity)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(duration, TimeUnit.SECONDS);
+        if (refresh > 0) {
+            builder.refreshAfterWrite(refresh, TimeUnit.SECONDS);
+        }
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.buildAsync(loader);
+    }
+
+    /**
+     * 获取缓存区域使用的本地缓存，配置了最大权重时按照条目序列化后的估算大小淘汰，否则按照条数淘汰
+     *
+     * @param region 缓存区域配置
+     * @return 缓存<k 、 v>
+     */
+    public static <K, V> Cache<K, V> getRegionCache(LocalCacheProperties.Region region) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().initialCapacity(region.getInitialCapacity());
+        if (region.getMaximumWeight() > 0) {
+            builder.maximumWeight(region.getMaximumWeight()).weigher(LocalCacheWeigher::weigh);
+        } else {
+            builder.maximumSize(region.getMaximumSize());
+        }
+        if (region.getExpireAfterWrite() > 0) {
+            builder.expireAfterWrite(region.getExpireAfterWrite(), TimeUnit.SECONDS);
+        }
+        if (region.getExpireAfterAccess() > 0) {
+            builder.expireAfterAccess(region.getExpireAfterAccess(), TimeUnit.SECONDS);
+        }
+        if (region.isRecordStats()) {
+            builder.recordStats();
+        }
+        return builder.build();
+    }
 }
@@ -2,7 +2,11 @@ package io.kevinz613.pear.cache.local.factory;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -41,4 +45,53 @@ public class LocalGuavaCacheFactory {
     public static <K, V> Cache<K, V> getLocalCache(int initialCapacity, long duration) {
         return CacheBuilder.newBuilder().initialCapacity(initialCapacity).concurrencyLevel(5).expireAfterWrite(duration, TimeUnit.SECONDS).build();
     }
+
+    /**
+     * 获取自动加载的本地缓存-自定义容量、最大条数、过期时间和刷新时间，刷新在指定线程池中异步执行
+     *
+     * @param initialCapacity 初始容量
+     * @param maximumSize     最大缓存条数
+     * @param duration        过期时间
+     * @param refresh         刷新时间，小于等于0时不刷新
+     * @param executor        执行刷新的线程池
+     * @param loader          缓存加载器
+     * @return 缓存<k 、 v>
+     */
+    public static <K, V> LoadingCache<K, V> getLoadingCache(int initialCapacity, long maximumSize, long duration, long refresh,
+                                                            Executor executor, CacheLoader<K, V> loader) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .initialCapacity(initialCapacity)
+                .maximumSize(maximumSize)
+                .concurrencyLevel(5)
+                .expireAfterWrite(duration, TimeUnit.SECONDS);
+        if (refresh > 0) {
+            builder.refreshAfterWrite(refresh, TimeUnit.SECONDS);
+        }
+        return builder.build(CacheLoader.asyncReloading(loader, executor));
+    }
+
+    /**
+     * 获取缓存区域使用的本地缓存，配置了最大权重时按照条目序列化后的估算大小淘汰，否则按照条数淘汰
+     *
+     * @param region 缓存区域配置
+     * @return 缓存<k 、 v>
+     */
+    public static <K, V> Cache<K, V> getRegionCache(LocalCacheProperties.Region region) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().initialCapacity(region.getInitialCapacity()).concurrencyLevel(5);
+        if (region.getMaximumWeight() > 0) {
+            builder.maximumWeight(region.getMaximumWeight()).weigher(LocalCacheWeigher::weigh);
+        } else {
+            builder.maximumSize(region.getMaximumSize());
+        }
+        if (region.getExpireAfterWrite() > 0) {
+            builder.expireAfterWrite(region.getExpireAfterWrite(), TimeUnit.SECONDS);
+        }
+        if (region.getExpireAfterAccess() > 0) {
+            builder.expireAfterAccess(region.getExpireAfterAccess(), TimeUnit.SECONDS);
+        }
+        if (region.isRecordStats()) {
+            builder.recordStats();
+        }
+        return builder.build();
+    }
 }
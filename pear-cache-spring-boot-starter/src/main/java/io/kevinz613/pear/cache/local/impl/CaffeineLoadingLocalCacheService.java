@@ -0,0 +1,174 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import io.kevinz613.pear.cache.local.LoadingLocalCacheService;
+import io.kevinz613.pear.cache.local.factory.LocalCaffeineCacheFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * 基于Caffeine AsyncLoadingCache实现的自动加载本地缓存，缓存的是加载中或已加载的CompletableFuture，
+ * 同一个key的并发加载只执行一次；开启刷新时由后台线程使用加载该数据的函数重新加载，重新加载完成前继续返回旧数据
+ *
+ * @author kevinz613
+ */
+public class CaffeineLoadingLocalCacheService<K, V> implements LoadingLocalCacheService<K, V> {
+
+    //获取本地缓存，基于Caffeine实现
+    private final AsyncLoadingCache<K, LoadedValue<K, V>> cache;
+
+    /**
+     * 构建自动加载的本地缓存
+     *
+     * @param initialCapacity 初始容量
+     * @param maximumSize     最大缓存条数
+     * @param duration        过期时间，单位秒
+     * @param refresh         刷新时间，单位秒，小于等于0时不刷新
+     * @param executor        执行加载函数的线程池，为null时使用ForkJoinPool.commonPool()
+     */
+    public CaffeineLoadingLocalCacheService(int initialCapacity, long maximumSize, long duration, long refresh, Executor executor) {
+        this.cache = LocalCaffeineCacheFactory.getAsyncLoadingCache(initialCapacity, maximumSize, duration, refresh, executor, new Loader<>());
+    }
+
+    /**
+     * 向本地缓存中添加数据，直接写入的数据不会被刷新
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value值
+     */
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, CompletableFuture.completedFuture(new LoadedValue<>(value, null)));
+    }
+
+    /**
+     * 如果key存在，则可从缓存中获取数据，加载中的数据视为不存在
+     *
+     * @param key 缓存的key
+     * @return 缓存的值
+     */
+    @Override
+    public V getIfPresent(K key) {
+        LoadedValue<K, V> loaded = cache.synchronous().getIfPresent(key);
+        return loaded == null ? null : loaded.value();
+    }
+
+    /**
+     * 根据缓存的key移除缓存中的数据
+     *
+     * @param key 缓存的key
+     */
+    @Override
+    public void remove(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    /**
+     * 获取缓存数据，不存在时调用加载函数并缓存结果，加载结果为null时不缓存
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return join(this.getAsync(key, loader));
+    }
+
+    /**
+     * 批量获取缓存数据，不存在的key合并为一次调用批量加载函数
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader) {
+        return join(this.getAllAsync(keys, bulkLoader));
+    }
+
+    /**
+     * 异步获取缓存数据，不存在时在加载线程池中调用加载函数
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    @Override
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader) {
+        return cache.get(key, (k, executor) -> CompletableFuture.supplyAsync(() -> LoadedValue.<K, V>of(loader.apply(k), loader), executor))
+                .thenApply(loaded -> loaded == null ? null : loaded.value());
+    }
+
+    /**
+     * 异步批量获取缓存数据，不存在的key在加载线程池中合并为一次调用批量加载函数
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader) {
+        Function<K, V> single = LoadedValue.single(bulkLoader);
+        return cache.getAll(keys, (missing, executor) -> CompletableFuture.supplyAsync(() -> {
+            Map<K, V> values = bulkLoader.apply(List.<K>copyOf(missing));
+            Map<K, LoadedValue<K, V>> loaded = new HashMap<>();
+            if (values != null) {
+                values.forEach((key, value) -> {
+                    if (value != null) {
+                        loaded.put(key, new LoadedValue<>(value, single));
+                    }
+                });
+            }
+            return loaded;
+        }, executor)).thenApply(loaded -> {
+            Map<K, V> values = new HashMap<>(loaded.size() * 2);
+            loaded.forEach((key, value) -> values.put(key, value.value()));
+            return values;
+        });
+    }
+
+    /**
+     * 同步等待加载结果，加载函数抛出的运行时异常原样抛出
+     *
+     * @param future 加载结果
+     * @return 缓存的值
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存加载器，只负责后台刷新，使用加载该数据的函数重新加载；加载必须通过带加载函数的方法
+     */
+    private static final class Loader<K, V> implements AsyncCacheLoader<K, LoadedValue<K, V>> {
+
+        @Override
+        public CompletableFuture<? extends LoadedValue<K, V>> asyncLoad(K key, Executor executor) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("loading local cache requires a loader: " + key));
+        }
+
+        @Override
+        public CompletableFuture<? extends LoadedValue<K, V>> asyncReload(K key, LoadedValue<K, V> oldValue, Executor executor) {
+            if (oldValue.loader() == null) {
+                return CompletableFuture.completedFuture(oldValue);
+            }
+            return CompletableFuture.supplyAsync(() -> oldValue.reload(key), executor);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import io.kevinz613.pear.cache.local.LocalCacheRegion;
+import io.kevinz613.pear.cache.local.LocalCacheStats;
+import io.kevinz613.pear.cache.local.factory.LocalCaffeineCacheFactory;
+
+/**
+ * 基于Caffeine实现的本地缓存区域，调整容量时直接修改淘汰策略的上限，超出的数据异步淘汰
+ *
+ * @author kevinz613
+ */
+public class CaffeineLocalCacheRegion<K, V> implements LocalCacheRegion<K, V> {
+
+    //区域名称
+    private final String name;
+
+    //获取本地缓存，基于Caffeine实现
+    private final Cache<K, V> cache;
+
+    /**
+     * 按照区域配置构建本地缓存区域
+     *
+     * @param name   区域名称
+     * @param region 区域配置
+     */
+    public CaffeineLocalCacheRegion(String name, LocalCacheProperties.Region region) {
+        this.name = name;
+        this.cache = LocalCaffeineCacheFactory.getRegionCache(region);
+    }
+
+    /**
+     * 向本地缓存中添加数据
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value值
+     */
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    /**
+     * 如果key存在，则可从缓存中获取数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的值
+     */
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 根据缓存的key移除缓存中的数据
+     *
+     * @param key 缓存的key
+     */
+    @Override
+    public void remove(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 获取区域统计，未开启统计时命中次数和淘汰次数为0
+     *
+     * @return 统计
+     */
+    @Override
+    public LocalCacheStats stats() {
+        CacheStats stats = cache.stats();
+        Policy.Eviction<K, V> eviction = cache.policy().eviction().orElse(null);
+        long maximum = eviction == null ? -1 : eviction.getMaximum();
+        boolean weighted = eviction != null && eviction.isWeighted();
+        long weightedSize = weighted ? eviction.weightedSize().orElse(-1) : -1;
+        return new LocalCacheStats(name, "caffeine", cache.estimatedSize(), maximum, weighted, weightedSize,
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    /**
+     * 调整区域容量，按照权重淘汰的区域调整的是最大权重
+     *
+     * @param maximum 最大条目数量或最大权重
+     */
+    @Override
+    public void resize(long maximum) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("local cache region maximum must be positive: " + maximum);
+        }
+        cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximum));
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
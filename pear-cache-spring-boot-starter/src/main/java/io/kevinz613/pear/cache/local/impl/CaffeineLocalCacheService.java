@@ -16,7 +16,20 @@ import org.springframework.stereotype.Component;
 public class CaffeineLocalCacheService<K, V> implements LocalCacheService<K, V> {
 
     //获取本地缓存，基于Caffeine实现
-    private final Cache<K, V> cache = LocalCaffeineCacheFactory.getLocalCache();
+    private final Cache<K, V> cache;
+
+    public CaffeineLocalCacheService() {
+        this(LocalCaffeineCacheFactory.getLocalCache());
+    }
+
+    /**
+     * 使用指定的Caffeine缓存构建本地缓存服务
+     *
+     * @param cache Caffeine缓存
+     */
+    public CaffeineLocalCacheService(Cache<K, V> cache) {
+        this.cache = cache;
+    }
 
     /**
      * 向本地缓存中添加数据
@@ -0,0 +1,230 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.kevinz613.pear.cache.local.LoadingLocalCacheService;
+import io.kevinz613.pear.cache.local.factory.LocalGuavaCacheFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * 基于Guava LoadingCache实现的自动加载本地缓存，同一个key的并发加载只执行一次；
+ * 开启刷新时在线程池中使用加载该数据的函数异步重新加载，重新加载完成前继续返回旧数据，重新加载结果为null时保留旧数据直到过期
+ *
+ * @author kevinz613
+ */
+public class GuavaLoadingLocalCacheService<K, V> implements LoadingLocalCacheService<K, V> {
+
+    //当前线程批量获取时使用的批量加载函数，Guava在调用getAll的线程中执行loadAll
+    private final ThreadLocal<Function<? super Collection<K>, ? extends Map<K, V>>> bulkLoaders = new ThreadLocal<>();
+
+    //执行异步获取和刷新的线程池
+    private final Executor executor;
+
+    //获取本地缓存，基于guava实现
+    private final LoadingCache<K, LoadedValue<K, V>> cache;
+
+    /**
+     * 构建自动加载的本地缓存
+     *
+     * @param initialCapacity 初始容量
+     * @param maximumSize     最大缓存条数
+     * @param duration        过期时间，单位秒
+     * @param refresh         刷新时间，单位秒，小于等于0时不刷新
+     * @param executor        执行异步获取和刷新的线程池，为null时使用ForkJoinPool.commonPool()
+     */
+    public GuavaLoadingLocalCacheService(int initialCapacity, long maximumSize, long duration, long refresh, Executor executor) {
+        this.executor = executor == null ? ForkJoinPool.commonPool() : executor;
+        this.cache = LocalGuavaCacheFactory.getLoadingCache(initialCapacity, maximumSize, duration, refresh, this.executor, new Loader());
+    }
+
+    /**
+     * 向本地缓存中添加数据，直接写入的数据不会被刷新
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value值
+     */
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, new LoadedValue<>(value, null));
+    }
+
+    /**
+     * 如果key存在，则可从缓存中获取数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的值
+     */
+    @Override
+    public V getIfPresent(K key) {
+        LoadedValue<K, V> loaded = cache.getIfPresent(key);
+        return loaded == null ? null : loaded.value();
+    }
+
+    /**
+     * 根据缓存的key移除缓存中的数据
+     *
+     * @param key 缓存的key
+     */
+    @Override
+    public void remove(K key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 获取缓存数据，不存在时调用加载函数并缓存结果，加载结果为null时不缓存
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        try {
+            return cache.get(key, () -> {
+                LoadedValue<K, V> loaded = LoadedValue.of(loader.apply(key), loader);
+                if (loaded == null) {
+                    throw new NotFoundException();
+                }
+                return loaded;
+            }).value();
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof NotFoundException) {
+                return null;
+            }
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * 批量获取缓存数据，不存在的key合并为一次调用批量加载函数
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    @Override
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader) {
+        bulkLoaders.set(bulkLoader);
+        Map<K, LoadedValue<K, V>> loaded;
+        try {
+            loaded = cache.getAll(keys);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            //批量加载函数没有返回全部的key，返回的数据已经写入缓存
+            loaded = cache.getAllPresent(keys);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            throw unwrap(e);
+        } finally {
+            bulkLoaders.remove();
+        }
+        Map<K, V> values = new HashMap<>(loaded.size() * 2);
+        loaded.forEach((key, value) -> values.put(key, value.value()));
+        return values;
+    }
+
+    /**
+     * 异步获取缓存数据，在线程池中同步获取
+     *
+     * @param key    缓存的key
+     * @param loader 加载函数
+     * @return 缓存的值
+     */
+    @Override
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader) {
+        V value = this.getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        return CompletableFuture.supplyAsync(() -> this.get(key, loader), executor);
+    }
+
+    /**
+     * 异步批量获取缓存数据，在线程池中同步批量获取
+     *
+     * @param keys       缓存的key列表
+     * @param bulkLoader 批量加载函数，不存在的数据可以不返回
+     * @return 缓存的key与值的映射，不包含不存在的数据
+     */
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys, Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader) {
+        return CompletableFuture.supplyAsync(() -> this.getAll(keys, bulkLoader), executor);
+    }
+
+    /**
+     * 解开Guava包装的加载异常，运行时异常原样抛出
+     *
+     * @param e 加载异常
+     * @return 运行时异常
+     */
+    private static RuntimeException unwrap(Throwable e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * 加载结果为null时中断加载，Guava不允许缓存null
+     */
+    private static final class NotFoundException extends RuntimeException {
+
+        private NotFoundException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 缓存加载器，单个加载必须通过带加载函数的方法；批量加载使用当前线程的批量加载函数；
+     * 刷新时使用加载该数据的函数重新加载
+     */
+    private final class Loader extends CacheLoader<K, LoadedValue<K, V>> {
+
+        @Override
+        public LoadedValue<K, V> load(K key) {
+            throw new UnsupportedOperationException("loading local cache requires a loader: " + key);
+        }
+
+        @Override
+        public Map<K, LoadedValue<K, V>> loadAll(Iterable<? extends K> keys) {
+            Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader = bulkLoaders.get();
+            if (bulkLoader == null) {
+                throw new UnsupportedOperationException("loading local cache requires a bulk loader");
+            }
+            List<K> missing = new ArrayList<>();
+            keys.forEach(missing::add);
+            Map<K, V> values = bulkLoader.apply(missing);
+            Function<K, V> single = LoadedValue.single(bulkLoader);
+            Map<K, LoadedValue<K, V>> loaded = new HashMap<>();
+            if (values != null) {
+                values.forEach((key, value) -> {
+                    if (value != null) {
+                        loaded.put(key, new LoadedValue<>(value, single));
+                    }
+                });
+            }
+            return loaded;
+        }
+
+        @Override
+        public ListenableFuture<LoadedValue<K, V>> reload(K key, LoadedValue<K, V> oldValue) {
+            LoadedValue<K, V> reloaded = oldValue.reload(key);
+            return Futures.immediateFuture(reloaded == null ? oldValue : reloaded);
+        }
+    }
+}
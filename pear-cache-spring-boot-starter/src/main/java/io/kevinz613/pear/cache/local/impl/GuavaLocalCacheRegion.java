@@ -0,0 +1,164 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import io.kevinz613.pear.cache.local.LocalCacheRegion;
+import io.kevinz613.pear.cache.local.LocalCacheStats;
+import io.kevinz613.pear.cache.local.factory.LocalGuavaCacheFactory;
+import org.springframework.beans.BeanUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于Guava实现的本地缓存区域；Guava不支持修改容量，调整容量时按照新的容量重建缓存并复制现有数据，
+ * 复制期间写入和删除等待替换完成后在新的缓存上执行。
+ * <p>
+ * Guava不提供条目的写入时间，复制的数据从复制时重新计算写入后过期时间；为了避免频繁调整容量使数据一直不过期，
+ * 距离上一次复制不足一个写入后过期时间时不复制数据，因此条目的最长存活时间不超过两倍的写入后过期时间
+ *
+ * @author kevinz613
+ */
+public class GuavaLocalCacheRegion<K, V> implements LocalCacheRegion<K, V> {
+
+    //区域名称
+    private final String name;
+
+    //区域配置，调整容量后替换为新的配置
+    private volatile LocalCacheProperties.Region region;
+
+    //获取本地缓存，基于guava实现
+    private volatile Cache<K, V> cache;
+
+    //已经被替换的缓存的累计统计
+    private volatile CacheStats retiredStats = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    //写入和删除持有读锁，调整容量持有写锁
+    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+
+    //上一次调整容量时复制数据的时间戳
+    private long copiedAt;
+
+    /**
+     * 按照区域配置构建本地缓存区域
+     *
+     * @param name   区域名称
+     * @param region 区域配置
+     */
+    public GuavaLocalCacheRegion(String name, LocalCacheProperties.Region region) {
+        this.name = name;
+        this.region = region;
+        this.cache = LocalGuavaCacheFactory.getRegionCache(region);
+    }
+
+    /**
+     * 向本地缓存中添加数据
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value值
+     */
+    @Override
+    public void put(K key, V value) {
+        resizeLock.readLock().lock();
+        try {
+            cache.put(key, value);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 如果key存在，则可从缓存中获取数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的值
+     */
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 根据缓存的key移除缓存中的数据
+     *
+     * @param key 缓存的key
+     */
+    @Override
+    public void remove(K key) {
+        resizeLock.readLock().lock();
+        try {
+            cache.invalidate(key);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 获取区域统计，包含调整容量前的累计次数；Guava不提供当前总权重，按照权重淘汰时记为-1
+     *
+     * @return 统计
+     */
+    @Override
+    public LocalCacheStats stats() {
+        LocalCacheProperties.Region current = region;
+        CacheStats stats = retiredStats.plus(cache.stats());
+        boolean weighted = current.getMaximumWeight() > 0;
+        long maximum = weighted ? current.getMaximumWeight() : current.getMaximumSize();
+        return new LocalCacheStats(name, "guava", cache.size(), maximum, weighted, -1,
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    /**
+     * 调整区域容量，按照新的容量重建缓存并复制现有数据，超出新容量的数据在复制时淘汰；
+     * 距离上一次复制不足一个写入后过期时间时不复制数据
+     *
+     * @param maximum 最大条目数量或最大权重
+     */
+    @Override
+    public synchronized void resize(long maximum) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("local cache region maximum must be positive: " + maximum);
+        }
+        LocalCacheProperties.Region resized = new LocalCacheProperties.Region();
+        BeanUtils.copyProperties(region, resized);
+        if (resized.getMaximumWeight() > 0) {
+            resized.setMaximumWeight(maximum);
+        } else {
+            resized.setMaximumSize(maximum);
+        }
+        resizeLock.writeLock().lock();
+        try {
+            Cache<K, V> retired = cache;
+            Cache<K, V> rebuilt = LocalGuavaCacheFactory.getRegionCache(resized);
+            long now = System.currentTimeMillis();
+            long expireAfterWrite = TimeUnit.SECONDS.toMillis(resized.getExpireAfterWrite());
+            if (expireAfterWrite <= 0 || now - copiedAt >= expireAfterWrite) {
+                rebuilt.putAll(retired.asMap());
+                copiedAt = now;
+            }
+            region = resized;
+            cache = rebuilt;
+            retiredStats = retiredStats.plus(retired.stats());
+            retired.invalidateAll();
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        resizeLock.readLock().lock();
+        try {
+            cache.invalidateAll();
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+}
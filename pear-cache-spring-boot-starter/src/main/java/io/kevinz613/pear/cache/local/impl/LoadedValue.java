@@ -0,0 +1,51 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 自动加载的本地缓存中保存的数据，同时记录加载该数据的函数，后台刷新时使用同一个函数重新加载；
+ * 直接写入的数据没有加载函数，不会被刷新
+ *
+ * @param value  缓存的值
+ * @param loader 加载函数，直接写入的数据为null
+ * @author kevinz613
+ */
+record LoadedValue<K, V>(V value, Function<? super K, ? extends V> loader) {
+
+    /**
+     * 包装加载结果，加载结果为null时返回null
+     *
+     * @param value  缓存的值
+     * @param loader 加载函数
+     * @return 缓存的数据
+     */
+    static <K, V> LoadedValue<K, V> of(V value, Function<? super K, ? extends V> loader) {
+        return value == null ? null : new LoadedValue<>(value, loader);
+    }
+
+    /**
+     * 将批量加载函数转换为单个key的加载函数，用于后台刷新批量加载的数据
+     *
+     * @param bulkLoader 批量加载函数
+     * @return 单个key的加载函数
+     */
+    static <K, V> Function<K, V> single(Function<? super Collection<K>, ? extends Map<K, V>> bulkLoader) {
+        return key -> {
+            Map<K, V> loaded = bulkLoader.apply(Collections.singletonList(key));
+            return loaded == null ? null : loaded.get(key);
+        };
+    }
+
+    /**
+     * 重新加载数据，没有加载函数时返回原数据
+     *
+     * @param key 缓存的key
+     * @return 重新加载的数据，加载结果为null时返回null
+     */
+    LoadedValue<K, V> reload(K key) {
+        return loader == null ? this : of(loader.apply(key), loader);
+    }
+}
@@ -0,0 +1,797 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodec;
+import io.kevinz613.pear.cache.local.LocalCacheRegion;
+import io.kevinz613.pear.cache.local.LocalCacheStats;
+import io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotSupport;
+import io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter;
+import org.springframework.beans.BeanUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于堆外内存实现的本地缓存区域，key和编码后的value都保存在直接内存中，堆内只保留固定数量的分段对象，
+ * 堆内存占用与缓存数据量无关，适合缓存GB级别的热点数据而不增加GC停顿。
+ * <p>
+ * 缓存按照key的哈希分段，每个分段有独立的锁、一块环形写入的直接内存和一个开放寻址的堆外索引；
+ * 写入时追加到环形内存的尾部，空间或索引不足时从头部开始淘汰，最近被读取过的数据有一次机会被重新追加到尾部(CLOCK)，
+ * 读取时在分段锁内复制value后在锁外解码；支持定期将条目写入内存映射的快照文件，重启后从快照恢复
+ *
+ * @author kevinz613
+ */
+public class OffHeapLocalCacheService<K, V> implements LocalCacheRegion<K, V>, LocalCacheSnapshotSupport {
+
+    //单个分段的最大字节数，分段内的偏移量使用int
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    //估算的平均条目大小，用于计算索引槽位数量
+    private static final int AVERAGE_ENTRY_BYTES = 64;
+    //最小索引槽位数量
+    private static final int MIN_INDEX_SLOTS = 64;
+
+    //条目格式：总长度(int，负数表示环形内存尾部的填充) 哈希(int) 过期时间(long) key长度(int) value长度(int) 标记(byte) key value
+    private static final int LENGTH_OFFSET = 0;
+    private static final int HASH_OFFSET = 4;
+    private static final int EXPIRE_OFFSET = 8;
+    private static final int KEY_LENGTH_OFFSET = 16;
+    private static final int VALUE_LENGTH_OFFSET = 20;
+    private static final int FLAGS_OFFSET = 24;
+    private static final int HEADER_BYTES = 25;
+    //条目按照8字节对齐，保证环形内存尾部的剩余空间可以写入填充长度
+    private static final int ALIGNMENT = 8;
+
+    //条目标记：有效、最近被读取过
+    private static final byte LIVE = 1;
+    private static final byte REFERENCED = 2;
+
+    //区域名称
+    private final String name;
+
+    //value编解码器
+    private final CacheValueCodec codec;
+
+    //value类型
+    private final Class<V> valueType;
+
+    //区域配置，调整容量后替换为新的配置
+    private volatile LocalCacheProperties.Region region;
+
+    //分段，调整容量后替换为新的分段
+    private volatile Segment[] segments;
+
+    //命中和未命中次数
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    //已经被替换的分段的累计淘汰次数
+    private volatile long retiredEvictionCount;
+
+    /**
+     * 按照区域配置构建堆外本地缓存区域，最大权重即堆外内存的总字节数
+     *
+     * @param name      区域名称
+     * @param region    区域配置
+     * @param codec     value编解码器
+     * @param valueType value类型
+     */
+    public OffHeapLocalCacheService(String name, LocalCacheProperties.Region region, CacheValueCodec codec, Class<V> valueType) {
+        if (region.getMaximumWeight() <= 0) {
+            throw new IllegalArgumentException("off-heap local cache region requires maximum-weight: " + name);
+        }
+        this.name = name;
+        this.region = region;
+        this.codec = codec;
+        this.valueType = valueType;
+        this.segments = newSegments(region);
+    }
+
+    /**
+     * 向本地缓存中添加数据，编码后超过单个条目上限的数据不缓存，并移除旧数据
+     *
+     * @param key   缓存的key
+     * @param value 缓存的value值
+     */
+    @Override
+    public void put(K key, V value) {
+        byte[] keyBytes = this.encodeKey(key);
+        int hash = hash(keyBytes);
+        if (value == null) {
+            this.remove(hash, keyBytes);
+            return;
+        }
+        byte[] valueBytes = codec.encode(value);
+        long ttl = region.getExpireAfterWrite();
+        long expireAt = ttl > 0 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttl) : 0;
+        Segment segment = this.lockSegment(hash);
+        try {
+            segment.put(hash, keyBytes, ByteBuffer.wrap(valueBytes), 0, valueBytes.length, expireAt, true);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 如果key存在，则可从缓存中获取数据
+     *
+     * @param key 缓存的key
+     * @return 缓存的值
+     */
+    @Override
+    public V getIfPresent(K key) {
+        byte[] keyBytes = this.encodeKey(key);
+        int hash = hash(keyBytes);
+        byte[] valueBytes;
+        Segment segment = this.lockSegment(hash);
+        try {
+            valueBytes = segment.get(hash, keyBytes, System.currentTimeMillis());
+        } finally {
+            segment.lock.unlock();
+        }
+        if (valueBytes == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return codec.decode(valueBytes, valueType);
+    }
+
+    /**
+     * 根据缓存的key移除缓存中的数据
+     *
+     * @param key 缓存的key
+     */
+    @Override
+    public void remove(K key) {
+        byte[] keyBytes = this.encodeKey(key);
+        this.remove(hash(keyBytes), keyBytes);
+    }
+
+    private void remove(int hash, byte[] keyBytes) {
+        Segment segment = this.lockSegment(hash);
+        try {
+            segment.remove(hash, keyBytes);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 获取区域统计，权重为堆外内存中有效条目占用的字节数
+     *
+     * @return 统计
+     */
+    @Override
+    public LocalCacheStats stats() {
+        long size = 0;
+        long liveBytes = 0;
+        long evictionCount = retiredEvictionCount;
+        for (Segment segment : segments) {
+            size += segment.count;
+            liveBytes += segment.liveBytes;
+            evictionCount += segment.evictionCount;
+        }
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        double hitRate = hits + misses == 0 ? 1.0 : (double) hits / (hits + misses);
+        return new LocalCacheStats(name, "offheap", size, region.getMaximumWeight(), true, liveBytes, hits, misses, hitRate, evictionCount);
+    }
+
+    /**
+     * 调整区域的堆外内存字节数，按照新的容量重新分配分段并复制未过期的数据，超出新容量的数据在复制时淘汰；
+     * 复制和替换期间持有所有旧分段的锁，读写和删除等待替换完成后在新的分段上执行，旧分段的直接内存在被GC回收后释放
+     *
+     * @param maximum 最大权重，单位字节
+     */
+    @Override
+    public synchronized void resize(long maximum) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("local cache region maximum must be positive: " + maximum);
+        }
+        LocalCacheProperties.Region resized = new LocalCacheProperties.Region();
+        BeanUtils.copyProperties(region, resized);
+        resized.setMaximumWeight(maximum);
+        Segment[] retired = segments;
+        Segment[] rebuilt = newSegments(resized);
+        int shift = segmentShift(rebuilt.length);
+        long now = System.currentTimeMillis();
+        long evictionCount = 0;
+        for (Segment segment : retired) {
+            segment.lock.lock();
+        }
+        try {
+            for (Segment segment : retired) {
+                segment.copyTo(rebuilt, shift, now);
+                segment.retired = true;
+                evictionCount += segment.evictionCount;
+            }
+            region = resized;
+            segments = rebuilt;
+            retiredEvictionCount += evictionCount;
+        } finally {
+            for (Segment segment : retired) {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 清空所有分段，与调整容量互斥
+     */
+    @Override
+    public synchronized void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public String codecName() {
+        return codec.name();
+    }
+
+    /**
+     * 逐个分段将未过期的条目写入快照，写入一个分段时只锁定该分段
+     *
+     * @param writer 快照写入器
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void writeSnapshot(LocalCacheSnapshotWriter writer) throws IOException {
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            segment.writeSnapshot(writer, now);
+        }
+    }
+
+    /**
+     * 从快照恢复条目，value直接从快照复制到直接内存，已经存在的key不覆盖
+     *
+     * @param key         key的字节数组
+     * @param source      快照内容
+     * @param valueOffset value在快照内容中的偏移量
+     * @param valueLength value字节数
+     * @param expireAt    过期时间戳，0表示不过期
+     * @return 是否恢复
+     */
+    @Override
+    public boolean restore(byte[] key, ByteBuffer source, int valueOffset, int valueLength, long expireAt) {
+        int hash = hash(key);
+        Segment segment = this.lockSegment(hash);
+        try {
+            return segment.put(hash, key, source, valueOffset, valueLength, expireAt, false);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 编码缓存的key，字符串按照UTF-8编码，其他类型使用value编解码器编码
+     *
+     * @param key 缓存的key
+     * @return 字节数组
+     */
+    private byte[] encodeKey(K key) {
+        if (key instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        if (key instanceof byte[] bytes) {
+            return bytes;
+        }
+        return codec.encode(key);
+    }
+
+    /**
+     * 根据哈希值选择分段，使用哈希的高位，低位用于分段内的索引
+     *
+     * @param hash 哈希值
+     * @return 分段
+     */
+    private Segment segmentFor(int hash) {
+        Segment[] current = segments;
+        return current[(int) ((hash & 0xFFFFFFFFL) >>> segmentShift(current.length))];
+    }
+
+    /**
+     * 选择分段并加锁，分段在等待锁期间被调整容量替换时，重新在新的分段上加锁
+     *
+     * @param hash 哈希值
+     * @return 已加锁的分段
+     */
+    private Segment lockSegment(int hash) {
+        while (true) {
+            Segment segment = this.segmentFor(hash);
+            segment.lock.lock();
+            if (!segment.retired) {
+                return segment;
+            }
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 计算key的哈希值，打散后高位和低位都足够均匀
+     *
+     * @param key key的字节数组
+     * @return 哈希值
+     */
+    static int hash(byte[] key) {
+        int hash = Arrays.hashCode(key) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 计算选择分段时哈希值右移的位数
+     *
+     * @param segmentCount 分段数量，2的幂
+     * @return 右移位数
+     */
+    private static int segmentShift(int segmentCount) {
+        return 32 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    /**
+     * 按照区域配置分配分段，分段数量取配置的分段数和按照单个分段上限计算的分段数中较大的值，并向上取2的幂
+     *
+     * @param region 区域配置
+     * @return 分段
+     */
+    private static Segment[] newSegments(LocalCacheProperties.Region region) {
+        long capacity = region.getMaximumWeight();
+        long count = Math.max(Math.max(region.getSegments(), 1), (capacity + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        int segmentCount = nextPowerOfTwo((int) Math.min(count, 1 << 16));
+        int segmentBytes = (int) Math.max(align(capacity / segmentCount), ALIGNMENT * 16L);
+        int maxEntryBytes = (int) Math.min(region.getMaxEntrySize(), segmentBytes / 4);
+        Segment[] segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentBytes, maxEntryBytes);
+        }
+        return segments;
+    }
+
+    /**
+     * 向上取2的幂
+     *
+     * @param value 数值
+     * @return 不小于数值的2的幂
+     */
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * 按照8字节对齐
+     *
+     * @param size 字节数
+     * @return 对齐后的字节数
+     */
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    /**
+     * 缓存分段，条目按照写入顺序追加到环形的直接内存中，head到tail之间是已使用的空间，包括已经删除的条目和尾部填充；
+     * 索引的每个槽位是一个long，高32位是哈希值，低32位是条目偏移量加1，0表示空槽位，删除时向前移动后续槽位，不使用墓碑
+     */
+    private static final class Segment {
+
+        //分段锁
+        private final ReentrantLock lock = new ReentrantLock();
+
+        //保存条目的直接内存
+        private final ByteBuffer slab;
+
+        //开放寻址索引，保存在直接内存中
+        private final ByteBuffer index;
+
+        //直接内存字节数
+        private final int capacity;
+
+        //单个条目的最大字节数
+        private final int maxEntryBytes;
+
+        //索引槽位掩码
+        private final int indexMask;
+
+        //最大条目数量，超过后从头部淘汰，保持索引的装载因子不超过0.75
+        private final int maxEntries;
+
+        //最早写入的条目偏移量、下一个条目的写入偏移量和已使用的字节数
+        private int head;
+        private int tail;
+        private int used;
+
+        //有效条目数量、有效条目字节数和淘汰次数，在锁外读取用于统计
+        private volatile int count;
+        private volatile long liveBytes;
+        private volatile long evictionCount;
+
+        //是否已经被调整容量替换，持有锁时读写
+        private boolean retired;
+
+        private Segment(int capacity, int maxEntryBytes) {
+            this.capacity = capacity;
+            this.maxEntryBytes = maxEntryBytes;
+            this.slab = ByteBuffer.allocateDirect(capacity);
+            int slots = Math.max(nextPowerOfTwo(capacity / AVERAGE_ENTRY_BYTES), MIN_INDEX_SLOTS);
+            this.index = ByteBuffer.allocateDirect(slots * 8);
+            this.indexMask = slots - 1;
+            this.maxEntries = slots / 4 * 3;
+        }
+
+        /**
+         * 写入条目，替换相同key的旧条目，调用方持有分段锁
+         *
+         * @param hash        哈希值
+         * @param key         key的字节数组
+         * @param value       value来源
+         * @param valueOffset value在来源中的偏移量
+         * @param valueLength value字节数
+         * @param expireAt    过期时间戳，0表示不过期
+         * @param replace     是否替换已存在的条目
+         * @return 是否写入
+         */
+        private boolean put(int hash, byte[] key, ByteBuffer value, int valueOffset, int valueLength, long expireAt, boolean replace) {
+            int size = (int) align((long) HEADER_BYTES + key.length + valueLength);
+            int slot = this.find(hash, key);
+            if (slot >= 0) {
+                if (!replace) {
+                    return false;
+                }
+                this.delete(slot);
+            }
+            if (size > maxEntryBytes) {
+                return false;
+            }
+            int pos = this.allocate(size);
+            slab.putInt(pos + LENGTH_OFFSET, size);
+            slab.putInt(pos + HASH_OFFSET, hash);
+            slab.putLong(pos + EXPIRE_OFFSET, expireAt);
+            slab.putInt(pos + KEY_LENGTH_OFFSET, key.length);
+            slab.putInt(pos + VALUE_LENGTH_OFFSET, valueLength);
+            slab.put(pos + FLAGS_OFFSET, LIVE);
+            slab.put(pos + HEADER_BYTES, key);
+            slab.put(pos + HEADER_BYTES + key.length, value, valueOffset, valueLength);
+            this.insertIndex(hash, pos);
+            count++;
+            liveBytes += size;
+            return true;
+        }
+
+        /**
+         * 读取条目的value并标记为最近被读取过，已过期的条目删除后视为不存在，调用方持有分段锁
+         *
+         * @param hash 哈希值
+         * @param key  key的字节数组
+         * @param now  当前时间戳
+         * @return value的字节数组
+         */
+        private byte[] get(int hash, byte[] key, long now) {
+            int slot = this.find(hash, key);
+            if (slot < 0) {
+                return null;
+            }
+            int pos = this.offsetAt(slot);
+            if (expired(slab.getLong(pos + EXPIRE_OFFSET), now)) {
+                this.delete(slot);
+                return null;
+            }
+            slab.put(pos + FLAGS_OFFSET, (byte) (LIVE | REFERENCED));
+            byte[] value = new byte[slab.getInt(pos + VALUE_LENGTH_OFFSET)];
+            slab.get(pos + HEADER_BYTES + slab.getInt(pos + KEY_LENGTH_OFFSET), value);
+            return value;
+        }
+
+        /**
+         * 删除条目，调用方持有分段锁
+         *
+         * @param hash 哈希值
+         * @param key  key的字节数组
+         */
+        private void remove(int hash, byte[] key) {
+            int slot = this.find(hash, key);
+            if (slot >= 0) {
+                this.delete(slot);
+            }
+        }
+
+        /**
+         * 清空分段
+         */
+        private void clear() {
+            lock.lock();
+            try {
+                for (int slot = 0; slot <= indexMask; slot++) {
+                    index.putLong(slot << 3, 0);
+                }
+                head = 0;
+                tail = 0;
+                used = 0;
+                count = 0;
+                liveBytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 按照写入顺序将未过期的条目写入快照
+         *
+         * @param writer 快照写入器
+         * @param now    当前时间戳
+         * @throws IOException 写入失败
+         */
+        private void writeSnapshot(LocalCacheSnapshotWriter writer, long now) throws IOException {
+            lock.lock();
+            try {
+                int pos = head;
+                int remaining = used;
+                while (remaining > 0) {
+                    int size = slab.getInt(pos + LENGTH_OFFSET);
+                    if (size < 0) {
+                        size = -size;
+                    } else if ((slab.get(pos + FLAGS_OFFSET) & LIVE) != 0) {
+                        long expireAt = slab.getLong(pos + EXPIRE_OFFSET);
+                        if (!expired(expireAt, now)) {
+                            writer.write(slab, pos + HEADER_BYTES, slab.getInt(pos + KEY_LENGTH_OFFSET), slab.getInt(pos + VALUE_LENGTH_OFFSET), expireAt);
+                        }
+                    }
+                    remaining -= size;
+                    pos += size;
+                    if (pos == capacity) {
+                        pos = 0;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 按照写入顺序将未过期的条目复制到新的分段中，调用方持有当前分段的锁，新的分段尚未发布，不需要加锁
+         *
+         * @param targets 新的分段
+         * @param shift   选择新分段时哈希值右移的位数
+         * @param now     当前时间戳
+         */
+        private void copyTo(Segment[] targets, int shift, long now) {
+            int pos = head;
+            int remaining = used;
+            while (remaining > 0) {
+                int size = slab.getInt(pos + LENGTH_OFFSET);
+                if (size < 0) {
+                    size = -size;
+                } else if ((slab.get(pos + FLAGS_OFFSET) & LIVE) != 0 && !expired(slab.getLong(pos + EXPIRE_OFFSET), now)) {
+                    int hash = slab.getInt(pos + HASH_OFFSET);
+                    targets[(int) ((hash & 0xFFFFFFFFL) >>> shift)].append(hash, slab, pos, size);
+                }
+                remaining -= size;
+                pos += size;
+                if (pos == capacity) {
+                    pos = 0;
+                }
+            }
+        }
+
+        /**
+         * 追加从其他分段复制的完整条目，超过单个条目上限的条目丢弃
+         *
+         * @param hash   哈希值
+         * @param source 来源直接内存
+         * @param offset 条目在来源中的偏移量
+         * @param size   条目字节数
+         */
+        private void append(int hash, ByteBuffer source, int offset, int size) {
+            if (size > maxEntryBytes) {
+                return;
+            }
+            int pos = this.allocate(size);
+            slab.put(pos, source, offset, size);
+            slab.put(pos + FLAGS_OFFSET, LIVE);
+            this.insertIndex(hash, pos);
+            count++;
+            liveBytes += size;
+        }
+
+        /**
+         * 在尾部分配连续空间，空间或索引不足时从头部淘汰；尾部剩余空间不足时写入填充并从0开始
+         *
+         * @param size 条目字节数
+         * @return 条目偏移量
+         */
+        private int allocate(int size) {
+            while (count >= maxEntries) {
+                this.evictHead();
+            }
+            int padding;
+            while (true) {
+                padding = tail + size > capacity ? capacity - tail : 0;
+                if (capacity - used >= padding + size) {
+                    break;
+                }
+                this.evictHead();
+            }
+            if (padding > 0) {
+                slab.putInt(tail + LENGTH_OFFSET, -padding);
+                used += padding;
+                tail = 0;
+            }
+            int pos = tail;
+            this.advanceTail(size);
+            return pos;
+        }
+
+        /**
+         * 淘汰头部的条目；最近被读取过且未过期的条目清除读取标记后重新追加到尾部，
+         * 头部条目释放的空间保证尾部可以写入，写入位置不会在条目之后，按照地址递增的顺序复制即可覆盖重叠的部分
+         */
+        private void evictHead() {
+            int size = slab.getInt(head + LENGTH_OFFSET);
+            if (size < 0) {
+                this.advanceHead(-size);
+                return;
+            }
+            byte flags = slab.get(head + FLAGS_OFFSET);
+            if ((flags & LIVE) != 0) {
+                int hash = slab.getInt(head + HASH_OFFSET);
+                int slot = this.findOffset(hash, head);
+                boolean expired = expired(slab.getLong(head + EXPIRE_OFFSET), System.currentTimeMillis());
+                if ((flags & REFERENCED) != 0 && !expired) {
+                    if (tail > head && tail + size > capacity) {
+                        slab.putInt(tail + LENGTH_OFFSET, tail - capacity);
+                        used += capacity - tail;
+                        tail = 0;
+                    }
+                    int pos = tail;
+                    for (int i = 0; i < size; i += ALIGNMENT) {
+                        slab.putLong(pos + i, slab.getLong(head + i));
+                    }
+                    slab.put(pos + FLAGS_OFFSET, LIVE);
+                    index.putLong(slot << 3, slotValue(hash, pos));
+                    this.advanceTail(size);
+                    this.advanceHead(size);
+                    return;
+                }
+                this.deleteSlot(slot);
+                count--;
+                liveBytes -= size;
+                if (!expired) {
+                    evictionCount++;
+                }
+            }
+            this.advanceHead(size);
+        }
+
+        private void advanceTail(int size) {
+            tail += size;
+            used += size;
+            if (tail == capacity) {
+                tail = 0;
+            }
+        }
+
+        private void advanceHead(int size) {
+            head += size;
+            used -= size;
+            if (head == capacity) {
+                head = 0;
+            }
+            if (used == 0) {
+                head = 0;
+                tail = 0;
+            }
+        }
+
+        /**
+         * 删除索引槽位指向的条目，条目占用的空间在淘汰到头部时回收
+         *
+         * @param slot 索引槽位
+         */
+        private void delete(int slot) {
+            int pos = this.offsetAt(slot);
+            slab.put(pos + FLAGS_OFFSET, (byte) 0);
+            this.deleteSlot(slot);
+            count--;
+            liveBytes -= slab.getInt(pos + LENGTH_OFFSET);
+        }
+
+        /**
+         * 根据key查找索引槽位
+         *
+         * @param hash 哈希值
+         * @param key  key的字节数组
+         * @return 索引槽位，不存在时返回-1
+         */
+        private int find(int hash, byte[] key) {
+            for (int slot = hash & indexMask; ; slot = (slot + 1) & indexMask) {
+                long value = index.getLong(slot << 3);
+                if (value == 0) {
+                    return -1;
+                }
+                if ((int) (value >>> 32) == hash && this.keyEquals((int) value - 1, key)) {
+                    return slot;
+                }
+            }
+        }
+
+        /**
+         * 根据条目偏移量查找索引槽位
+         *
+         * @param hash 哈希值
+         * @param pos  条目偏移量
+         * @return 索引槽位
+         */
+        private int findOffset(int hash, int pos) {
+            long expected = slotValue(hash, pos);
+            for (int slot = hash & indexMask; ; slot = (slot + 1) & indexMask) {
+                long value = index.getLong(slot << 3);
+                if (value == expected) {
+                    return slot;
+                }
+                if (value == 0) {
+                    throw new IllegalStateException("off-heap local cache index corrupted at offset " + pos);
+                }
+            }
+        }
+
+        private boolean keyEquals(int pos, byte[] key) {
+            int length = slab.getInt(pos + KEY_LENGTH_OFFSET);
+            return length == key.length && slab.slice(pos + HEADER_BYTES, length).mismatch(ByteBuffer.wrap(key)) < 0;
+        }
+
+        private int offsetAt(int slot) {
+            return (int) index.getLong(slot << 3) - 1;
+        }
+
+        private void insertIndex(int hash, int pos) {
+            int slot = hash & indexMask;
+            while (index.getLong(slot << 3) != 0) {
+                slot = (slot + 1) & indexMask;
+            }
+            index.putLong(slot << 3, slotValue(hash, pos));
+        }
+
+        /**
+         * 删除索引槽位，将后续探测链上的槽位向前移动，保持线性探测的查找正确
+         *
+         * @param slot 索引槽位
+         */
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & indexMask;
+                long value = index.getLong(next << 3);
+                if (value == 0) {
+                    break;
+                }
+                int home = (int) (value >>> 32) & indexMask;
+                boolean between = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (between) {
+                    continue;
+                }
+                index.putLong(hole << 3, value);
+                hole = next;
+            }
+            index.putLong(hole << 3, 0);
+        }
+
+        private static long slotValue(int hash, int pos) {
+            return ((long) hash << 32) | (pos + 1L);
+        }
+
+        private static boolean expired(long expireAt, long now) {
+            return expireAt > 0 && expireAt <= now;
+        }
+    }
+}
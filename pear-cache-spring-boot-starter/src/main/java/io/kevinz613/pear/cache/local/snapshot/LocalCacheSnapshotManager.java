@@ -0,0 +1,158 @@
+package io.kevinz613.pear.cache.local.snapshot;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存快照管理，注册的缓存区域先在后台从快照文件恢复，再按照间隔定期写入快照，应用关闭时等待进行中的恢复和写入结束后再写入一次，
+ * 尚未完成恢复的区域不写入快照，避免用不完整的数据覆盖上一次的快照；
+ * 恢复时只映射快照文件，由操作系统按需加载页面，恢复期间缓存区域正常读写，已经写入的key不被快照覆盖
+ *
+ * @author kevinz613
+ */
+@Component
+public class LocalCacheSnapshotManager {
+
+    private final Logger logger = LoggerFactory.getLogger(LocalCacheSnapshotManager.class);
+
+    //快照文件后缀
+    private static final String SUFFIX = ".snapshot";
+    //应用关闭时等待进行中的恢复和写入结束的秒数
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private LocalCacheProperties properties;
+
+    //区域名称与支持快照的缓存区域的映射
+    private final Map<String, LocalCacheSnapshotSupport> regions = new ConcurrentHashMap<>();
+
+    //已经完成恢复的区域名称，包括快照不存在或恢复失败的区域
+    private final Set<String> restored = ConcurrentHashMap.newKeySet();
+
+    //恢复和写入快照的线程
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("pear-cache-snapshot-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("local cache snapshot | restore or snapshot still running after {}s, skip snapshot on shutdown", SHUTDOWN_TIMEOUT_SECONDS);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        regions.keySet().forEach(this::snapshotIfRestored);
+    }
+
+    /**
+     * 注册缓存区域，在后台从快照恢复后定期写入快照
+     *
+     * @param name     区域名称
+     * @param region   支持快照的缓存区域
+     * @param interval 快照间隔，单位秒
+     */
+    public void register(String name, LocalCacheSnapshotSupport region, long interval) {
+        if (regions.putIfAbsent(name, region) != null) {
+            throw new IllegalStateException("local cache snapshot already registered: " + name);
+        }
+        scheduler.execute(() -> this.restore(name, region));
+        scheduler.scheduleWithFixedDelay(() -> this.snapshotIfRestored(name), interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 缓存区域完成恢复后写入快照，未完成恢复时保留上一次的快照
+     *
+     * @param name 区域名称
+     */
+    private void snapshotIfRestored(String name) {
+        if (restored.contains(name)) {
+            this.snapshot(name);
+        } else {
+            logger.info("local cache snapshot | {} | restore not finished, keep previous snapshot", name);
+        }
+    }
+
+    /**
+     * 立即将缓存区域写入快照，写入失败时保留上一次的快照
+     *
+     * @param name 区域名称
+     * @return 写入的条目数量，区域未注册或写入失败时返回-1
+     */
+    public synchronized long snapshot(String name) {
+        LocalCacheSnapshotSupport region = regions.get(name);
+        if (region == null) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        try (LocalCacheSnapshotWriter writer = new LocalCacheSnapshotWriter(this.fileOf(name), region.codecName())) {
+            region.writeSnapshot(writer);
+            writer.commit();
+            logger.info("local cache snapshot | {} | {} entries | {}ms", name, writer.count(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return writer.count();
+        } catch (IOException | RuntimeException e) {
+            logger.error("local cache snapshot | {} | {}", name, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 从快照恢复缓存区域，跳过已过期的条目，快照不存在或损坏时不恢复
+     *
+     * @param name   区域名称
+     * @param region 支持快照的缓存区域
+     */
+    private void restore(String name, LocalCacheSnapshotSupport region) {
+        Path file = this.fileOf(name);
+        if (!Files.exists(file)) {
+            restored.add(name);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            long count = LocalCacheSnapshotReader.read(file, region.codecName(), System.currentTimeMillis(), region::restore);
+            logger.info("local cache snapshot restored | {} | {} entries | {}ms", name, count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            restored.add(name);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("local cache snapshot restore failed | {} | {}", name, e.getMessage());
+            //应用关闭时中断的恢复不完整，不能覆盖快照；快照损坏等其他失败可以写入新的快照
+            if (!Thread.currentThread().isInterrupted()) {
+                restored.add(name);
+            }
+        }
+    }
+
+    /**
+     * 获取缓存区域的快照文件
+     *
+     * @param name 区域名称
+     * @return 快照文件
+     */
+    private Path fileOf(String name) {
+        return Paths.get(properties.getSnapshotDir(), name + SUFFIX);
+    }
+}
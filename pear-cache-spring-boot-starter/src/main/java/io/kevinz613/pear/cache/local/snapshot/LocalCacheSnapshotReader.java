@@ -0,0 +1,177 @@
+package io.kevinz613.pear.cache.local.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter.BLOCK_HEADER_BYTES;
+import static io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter.ENTRY_HEADER_BYTES;
+import static io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter.HEADER_BYTES;
+import static io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter.MAGIC;
+import static io.kevinz613.pear.cache.local.snapshot.LocalCacheSnapshotWriter.VERSION;
+
+/**
+ * 本地缓存快照读取器，按照窗口内存映射快照文件，由操作系统按需加载页面；先校验文件头，
+ * 再逐块校验CRC32校验和后顺序读取该块的条目并跳过已过期的条目，只访问一次文件内容。
+ * 某一块校验失败时停止读取，之前的块已经恢复的条目保留
+ *
+ * @author kevinz613
+ */
+public final class LocalCacheSnapshotReader {
+
+    //每次映射的窗口大小
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private LocalCacheSnapshotReader() {
+    }
+
+    /**
+     * 快照条目消费者
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * 消费一个未过期的条目
+         *
+         * @param key         key的字节数组
+         * @param source      快照内容
+         * @param valueOffset value在快照内容中的偏移量
+         * @param valueLength value字节数
+         * @param expireAt    过期时间戳，0表示不过期
+         * @return 是否恢复
+         */
+        boolean accept(byte[] key, ByteBuffer source, int valueOffset, int valueLength, long expireAt);
+    }
+
+    /**
+     * 读取快照文件
+     *
+     * @param file     快照文件
+     * @param codec    value编解码器名称，与快照中记录的名称不一致时不读取
+     * @param now      当前时间戳，过期时间不晚于当前时间的条目跳过
+     * @param consumer 条目消费者
+     * @return 恢复的条目数量
+     * @throws IOException 文件损坏、某一块的校验和不一致或编解码器不一致
+     */
+    public static long read(Path file, String codec, long now, EntryConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("local cache snapshot truncated: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("not a local cache snapshot: " + file);
+            }
+            header.getLong();
+            header.getLong();
+            long dataLength = header.getLong();
+            long blockCount = header.getLong();
+            byte[] codecBytes = new byte[header.getInt()];
+            header.get(codecBytes);
+            if (HEADER_BYTES + dataLength != fileSize) {
+                throw new IOException("local cache snapshot truncated: " + file);
+            }
+            if (!Arrays.equals(codecBytes, LocalCacheSnapshotWriter.codecBytes(codec))) {
+                throw new IOException("local cache snapshot codec mismatch: " + new String(codecBytes, StandardCharsets.UTF_8) + " != " + codec);
+            }
+            return readBlocks(channel, fileSize, blockCount, now, consumer);
+        }
+    }
+
+    /**
+     * 顺序读取块，块跨越窗口边界时从块的起始位置重新映射窗口，校验块的校验和后再读取块中的条目
+     *
+     * @param channel    快照文件通道
+     * @param fileSize   文件大小
+     * @param blockCount 文件头中记录的块数量
+     * @param now        当前时间戳
+     * @param consumer   条目消费者
+     * @return 恢复的条目数量
+     * @throws IOException 映射文件失败、块或条目损坏
+     */
+    private static long readBlocks(FileChannel channel, long fileSize, long blockCount, long now, EntryConsumer consumer) throws IOException {
+        MappedByteBuffer window = null;
+        long windowStart = 0;
+        long position = HEADER_BYTES;
+        long blocks = 0;
+        long restored = 0;
+        CRC32 crc = new CRC32();
+        while (position < fileSize) {
+            if (window == null || position + BLOCK_HEADER_BYTES > windowStart + window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, fileSize - position));
+            }
+            int offset = (int) (position - windowStart);
+            int blockLength = window.getInt(offset);
+            int checksum = window.getInt(offset + 4);
+            long size = (long) BLOCK_HEADER_BYTES + blockLength;
+            if (blockLength < 0 || position + size > fileSize) {
+                throw new IOException("local cache snapshot block corrupted at " + position);
+            }
+            if (offset + size > window.capacity()) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_BYTES, size), fileSize - position));
+                offset = 0;
+            }
+            int dataOffset = offset + BLOCK_HEADER_BYTES;
+            crc.reset();
+            crc.update(window.slice(dataOffset, blockLength));
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("local cache snapshot checksum mismatch at " + position);
+            }
+            restored += readEntries(window, dataOffset, blockLength, position, now, consumer);
+            position += size;
+            blocks++;
+        }
+        if (blocks != blockCount) {
+            throw new IOException("local cache snapshot block count mismatch: " + blocks + " != " + blockCount);
+        }
+        return restored;
+    }
+
+    /**
+     * 读取一个已经校验过的块中的条目
+     *
+     * @param window        包含整个块的窗口
+     * @param offset        块数据在窗口中的偏移量
+     * @param length        块数据字节数
+     * @param blockPosition 块在文件中的位置，用于错误信息
+     * @param now           当前时间戳
+     * @param consumer      条目消费者
+     * @return 恢复的条目数量
+     * @throws IOException 条目损坏
+     */
+    private static long readEntries(MappedByteBuffer window, int offset, int length, long blockPosition, long now, EntryConsumer consumer) throws IOException {
+        int end = offset + length;
+        long restored = 0;
+        while (offset < end) {
+            if (offset + ENTRY_HEADER_BYTES > end) {
+                throw new IOException("local cache snapshot entry corrupted in block at " + blockPosition);
+            }
+            int keyLength = window.getInt(offset);
+            int valueLength = window.getInt(offset + 4);
+            long expireAt = window.getLong(offset + 8);
+            long size = (long) ENTRY_HEADER_BYTES + keyLength + valueLength;
+            if (keyLength < 0 || valueLength < 0 || offset + size > end) {
+                throw new IOException("local cache snapshot entry corrupted in block at " + blockPosition);
+            }
+            if (expireAt == 0 || expireAt > now) {
+                byte[] key = new byte[keyLength];
+                window.get(offset + ENTRY_HEADER_BYTES, key);
+                if (consumer.accept(key, window, offset + ENTRY_HEADER_BYTES + keyLength, valueLength, expireAt)) {
+                    restored++;
+                }
+            }
+            offset += (int) size;
+        }
+        return restored;
+    }
+}
@@ -0,0 +1,39 @@
+package io.kevinz613.pear.cache.local.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 支持快照的本地缓存区域，快照中保存key、编码后的value和过期时间，重启后从快照恢复，避免所有节点同时冷启动
+ *
+ * @author kevinz613
+ */
+public interface LocalCacheSnapshotSupport {
+
+    /**
+     * value编解码器名称，与快照中记录的名称不一致时不恢复
+     *
+     * @return 编解码器名称
+     */
+    String codecName();
+
+    /**
+     * 将未过期的条目写入快照
+     *
+     * @param writer 快照写入器
+     * @throws IOException 写入失败
+     */
+    void writeSnapshot(LocalCacheSnapshotWriter writer) throws IOException;
+
+    /**
+     * 从快照恢复条目，已经存在的key不覆盖，避免覆盖启动后写入的新数据
+     *
+     * @param key         key的字节数组
+     * @param source      快照内容
+     * @param valueOffset value在快照内容中的偏移量
+     * @param valueLength value字节数
+     * @param expireAt    过期时间戳，0表示不过期
+     * @return 是否恢复
+     */
+    boolean restore(byte[] key, ByteBuffer source, int valueOffset, int valueLength, long expireAt);
+}
@@ -0,0 +1,229 @@
+package io.kevinz613.pear.cache.local.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * 本地缓存快照写入器，按照固定大小的窗口内存映射临时文件并顺序写入条目，条目按照大约1MB分块，每块单独计算CRC32校验和，
+ * 读取时逐块校验后再恢复该块的条目；提交时写入文件头，再原子替换快照文件，写入过程中进程退出不会破坏上一次的快照。
+ * <p>
+ * 文件格式：文件头64字节，包括魔数、版本、创建时间、条目数量、数据字节数、块数量、编解码器名称；
+ * 之后是连续的块，每块包括块头(数据字节数int、CRC32校验和int)和连续的条目，
+ * 每个条目包括key长度(int)、value长度(int)、过期时间(long)、key、value
+ *
+ * @author kevinz613
+ */
+public class LocalCacheSnapshotWriter implements Closeable {
+
+    //文件头
+    static final int MAGIC = 0x50434153;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 64;
+    //编解码器名称最多保存的字节数
+    private static final int MAX_CODEC_BYTES = 20;
+    //条目头，包括key长度、value长度和过期时间
+    static final int ENTRY_HEADER_BYTES = 16;
+    //块头，包括数据字节数和校验和
+    static final int BLOCK_HEADER_BYTES = 8;
+    //块数据达到该字节数后结束当前块，超过该大小的条目单独成块
+    private static final int BLOCK_BYTES = 1 << 20;
+
+    //每次映射的窗口大小
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    //快照文件
+    private final Path file;
+
+    //写入中的临时文件
+    private final Path temp;
+
+    //value编解码器名称
+    private final String codec;
+
+    //临时文件通道
+    private final FileChannel channel;
+
+    //当前块的校验和
+    private final CRC32 crc = new CRC32();
+
+    //当前块的块头在文件中的位置，没有未结束的块时为-1，以及当前块的数据字节数
+    private long blockStart = -1;
+    private int blockLength;
+
+    //已结束的块数量
+    private long blockCount;
+
+    //当前映射的窗口及其在文件中的起始位置
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    //下一个条目在文件中的位置
+    private long position = HEADER_BYTES;
+
+    //已写入的条目数量
+    private long count;
+
+    //是否已经提交
+    private boolean committed;
+
+    /**
+     * 创建快照写入器，写入同目录下的临时文件
+     *
+     * @param file  快照文件
+     * @param codec value编解码器名称
+     * @throws IOException 创建临时文件失败
+     */
+    public LocalCacheSnapshotWriter(Path file, String codec) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.codec = codec;
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * 写入一个条目，key和value在来源中连续存放
+     *
+     * @param source      来源
+     * @param keyOffset   key在来源中的偏移量，value紧跟在key之后
+     * @param keyLength   key字节数
+     * @param valueLength value字节数
+     * @param expireAt    过期时间戳，0表示不过期
+     * @throws IOException 映射文件失败
+     */
+    public void write(ByteBuffer source, int keyOffset, int keyLength, int valueLength, long expireAt) throws IOException {
+        int size = ENTRY_HEADER_BYTES + keyLength + valueLength;
+        if (blockStart < 0) {
+            blockStart = position;
+            position += BLOCK_HEADER_BYTES;
+        }
+        MappedByteBuffer target = this.reserve(size);
+        int start = (int) (position - windowStart);
+        target.putInt(start, keyLength);
+        target.putInt(start + 4, valueLength);
+        target.putLong(start + 8, expireAt);
+        target.put(start + ENTRY_HEADER_BYTES, source, keyOffset, keyLength + valueLength);
+        crc.update(target.slice(start, size));
+        position += size;
+        count++;
+        blockLength += size;
+        if (blockLength >= BLOCK_BYTES) {
+            this.finishBlock();
+        }
+    }
+
+    /**
+     * 已写入的条目数量
+     *
+     * @return 条目数量
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * 写入文件头并刷盘，截断多映射的部分后原子替换快照文件
+     *
+     * @throws IOException 写入失败
+     */
+    public void commit() throws IOException {
+        this.finishBlock();
+        if (window != null) {
+            window.force();
+            window = null;
+        }
+        byte[] codecBytes = codecBytes(codec);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(System.currentTimeMillis())
+                .putLong(count)
+                .putLong(position - HEADER_BYTES)
+                .putLong(blockCount)
+                .putInt(codecBytes.length)
+                .put(codecBytes);
+        header.force();
+        channel.truncate(position);
+        channel.force(true);
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * 关闭写入器，未提交时删除临时文件
+     *
+     * @throws IOException 删除失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        window = null;
+        channel.close();
+        Files.deleteIfExists(temp);
+    }
+
+    /**
+     * 文件头中保存的编解码器名称，超过上限时截断
+     *
+     * @param codec 编解码器名称
+     * @return 字节数组
+     */
+    static byte[] codecBytes(String codec) {
+        byte[] bytes = codec.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_CODEC_BYTES ? bytes : Arrays.copyOf(bytes, MAX_CODEC_BYTES);
+    }
+
+    /**
+     * 结束当前块，写入块头；块头可能在已经替换的窗口中，通过文件通道按照位置写入
+     *
+     * @throws IOException 写入失败
+     */
+    private void finishBlock() throws IOException {
+        if (blockStart < 0) {
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES).putInt(blockLength).putInt((int) crc.getValue()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, blockStart + header.position());
+        }
+        blockStart = -1;
+        blockLength = 0;
+        blockCount++;
+        crc.reset();
+    }
+
+    /**
+     * 保证当前窗口有足够的剩余空间，不足时刷盘并从当前位置映射新的窗口
+     *
+     * @param size 需要的字节数
+     * @return 当前窗口
+     * @throws IOException 映射文件失败
+     */
+    private MappedByteBuffer reserve(int size) throws IOException {
+        if (window == null || position + size > windowStart + window.capacity()) {
+            if (window != null) {
+                window.force();
+            }
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(WINDOW_BYTES, size));
+        }
+        return window;
+    }
+}
@@ -1,5 +1,6 @@
 package io.kevinz613.pear.cache.lock;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,6 +25,22 @@ public interface DistributedLockService {
 
     boolean tryLock() throws InterruptedException;
 
+    /**
+     * 异步尝试获取锁，不阻塞调用线程，锁的持有者由调用方指定，不依赖当前线程
+     *
+     * @param ownerId 锁的持有者标识，释放锁时使用同一个标识
+     * @return 是否获取锁成功
+     */
+    CompletableFuture<Boolean> tryLockAsync(long ownerId);
+
+    /**
+     * 异步释放由指定持有者持有的锁
+     *
+     * @param ownerId 锁的持有者标识
+     * @return 释放结果
+     */
+    CompletableFuture<Void> unlockAsync(long ownerId);
+
     /**
      * 锁
      *
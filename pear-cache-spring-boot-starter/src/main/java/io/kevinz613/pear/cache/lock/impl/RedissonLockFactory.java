@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,6 +54,16 @@ public class RedissonLockFactory implements DistributedLockFactory {
                 return lock.tryLock();
             }
 
+            @Override
+            public CompletableFuture<Boolean> tryLockAsync(long ownerId) {
+                return lock.tryLockAsync(ownerId).toCompletableFuture();
+            }
+
+            @Override
+            public CompletableFuture<Void> unlockAsync(long ownerId) {
+                return lock.unlockAsync(ownerId).toCompletableFuture();
+            }
+
             @Override
             public void lock(long leaseTime, TimeUnit unit) {
                 lock.lock(leaseTime, unit);
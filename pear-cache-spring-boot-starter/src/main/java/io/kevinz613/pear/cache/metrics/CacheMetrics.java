@@ -0,0 +1,331 @@
+package io.kevinz613.pear.cache.metrics;
+
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.bloom.CacheBloomFilter;
+import io.kevinz613.pear.cache.distribute.compress.CacheValueCompression;
+import io.kevinz613.pear.cache.distribute.hotkey.HotKeyDetector;
+import io.kevinz613.pear.cache.local.LocalCacheRegion;
+import io.kevinz613.pear.cache.thread.CacheRebuildScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 缓存指标，按照key前缀和查询方式统计缓存命中、未命中、空数据命中、逻辑过期命中次数，
+ * 以及Redis读写、数据库查询和分布式锁等待耗时；key前缀标签的取值个数受限，超出的前缀统一记为other
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheMetrics {
+
+    //查询方式
+    public static final String PASS_THROUGH = "pass_through";
+    public static final String LOGICAL_EXPIRE = "logical_expire";
+    public static final String MUTEX = "mutex";
+    public static final String EARLY_REFRESH = "early_refresh";
+    public static final String GET = "get";
+
+    //查询结果
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String NULL_HIT = "null_hit";
+    public static final String STALE_HIT = "stale_hit";
+    public static final String REJECTED = "rejected";
+
+    //Redis操作
+    public static final String OP_GET = "get";
+    public static final String OP_SET = "set";
+    public static final String OP_DELETE = "delete";
+    public static final String OP_MULTI_GET = "multi_get";
+    public static final String OP_MULTI_SET = "multi_set";
+    public static final String OP_UNLINK = "unlink";
+    public static final String OP_HASH_GET = "hash_get";
+    public static final String OP_HASH_SET = "hash_set";
+    public static final String OP_HASH_UPDATE = "hash_update";
+
+    //超出取值个数上限或无法归类的key前缀标签
+    private static final String OTHER = "other";
+    //key前缀分隔符
+    private static final char SEPARATOR = ':';
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private CacheRebuildScheduler rebuildScheduler;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private CacheValueCompression compression;
+
+    //指标注册中心，容器中没有时使用全局注册中心
+    private MeterRegistry registry;
+
+    //是否开启缓存指标
+    private boolean enabled;
+
+    //直接读写缓存时用于归类key的前缀，按照长度倒序排列
+    private List<String> prefixes;
+
+    //已经作为标签的key前缀
+    private final Map<String, String> prefixTags = new ConcurrentHashMap<>();
+
+    //已经注册的指标，避免每次记录时重复构建
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.Metrics metrics = properties.getMetrics();
+        enabled = metrics.isEnabled();
+        registry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        prefixes = metrics.getPrefixes().stream().sorted(Comparator.comparingInt(String::length).reversed()).toList();
+        if (enabled) {
+            this.bindRebuildScheduler();
+            this.bindHotKeyDetector();
+            this.bindCompression();
+        }
+    }
+
+    /**
+     * 记录一次缓存查询结果
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param strategy  查询方式
+     * @param result    查询结果
+     */
+    public void record(String keyPrefix, String strategy, String result) {
+        this.record(keyPrefix, strategy, result, 1);
+    }
+
+    /**
+     * 记录多次缓存查询结果，用于批量查询
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @param strategy  查询方式
+     * @param result    查询结果
+     * @param count     次数
+     */
+    public void record(String keyPrefix, String strategy, String result, long count) {
+        if (!enabled || count <= 0) {
+            return;
+        }
+        String prefix = this.prefixTag(keyPrefix);
+        counters.computeIfAbsent(prefix + '|' + strategy + '|' + result, name -> Counter.builder("pear.cache.requests")
+                .description("cache requests by result")
+                .tag("prefix", prefix)
+                .tag("strategy", strategy)
+                .tag("result", result)
+                .register(registry)).increment(count);
+    }
+
+    /**
+     * 根据缓存的key记录一次直接读取缓存的结果
+     *
+     * @param key    缓存的key
+     * @param result 查询结果
+     */
+    public void recordKey(String key, String result) {
+        if (enabled) {
+            this.record(this.keyPrefixOf(key), GET, result);
+        }
+    }
+
+    /**
+     * 查询数据库并记录耗时
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param strategy   查询方式
+     * @param dbFallback 查询数据库数据
+     * @return 数据库查询结果
+     */
+    public <T> T load(String keyPrefix, String strategy, Supplier<T> dbFallback) {
+        if (!enabled) {
+            return dbFallback.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return dbFallback.get();
+        } finally {
+            this.timer("pear.cache.load", "database load latency", true, "prefix", this.prefixTag(keyPrefix), "strategy", strategy)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录获取分布式锁的等待耗时
+     *
+     * @param keyPrefix  缓存的key前缀
+     * @param strategy   查询方式
+     * @param startNanos 开始获取锁的时间
+     * @param acquired   是否获取到锁
+     */
+    public void lockWait(String keyPrefix, String strategy, long startNanos, boolean acquired) {
+        if (!enabled) {
+            return;
+        }
+        this.timer("pear.cache.lock.wait", "distributed lock wait", true, "prefix", this.prefixTag(keyPrefix), "strategy", strategy, "acquired", String.valueOf(acquired))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次Redis读写耗时
+     *
+     * @param key        缓存的key，批量操作时为第一个key
+     * @param operation  Redis操作
+     * @param startNanos 开始时间
+     */
+    public void redis(String key, String operation, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        this.timer("pear.cache.redis", "redis round trip", false, "prefix", this.prefixTag(this.keyPrefixOf(key)), "operation", operation)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 注册布隆过滤器的指标
+     *
+     * @param filter 布隆过滤器
+     */
+    public void bindBloomFilter(CacheBloomFilter filter) {
+        if (!enabled) {
+            return;
+        }
+        String prefix = this.prefixTag(filter.getKeyPrefix());
+        Gauge.builder("pear.cache.bloom.fill.ratio", filter, CacheBloomFilter::getFillRatio).tag("prefix", prefix).register(registry);
+        Gauge.builder("pear.cache.bloom.fpp", filter, CacheBloomFilter::getEstimatedFpp).tag("prefix", prefix).register(registry);
+        FunctionCounter.builder("pear.cache.bloom.checks", filter, CacheBloomFilter::getRejectedCount).tag("prefix", prefix).tag("result", REJECTED).register(registry);
+        FunctionCounter.builder("pear.cache.bloom.checks", filter, CacheBloomFilter::getPassedCount).tag("prefix", prefix).tag("result", "passed").register(registry);
+    }
+
+    /**
+     * 注册本地缓存区域的指标
+     *
+     * @param region 本地缓存区域
+     */
+    public void bindLocalCacheRegion(LocalCacheRegion<?, ?> region) {
+        if (!enabled) {
+            return;
+        }
+        String name = region.name();
+        Gauge.builder("pear.cache.local.size", region, item -> item.stats().size()).tag("region", name).register(registry);
+        Gauge.builder("pear.cache.local.maximum", region, item -> item.stats().maximum()).tag("region", name).register(registry);
+        Gauge.builder("pear.cache.local.weighted.size", region, item -> item.stats().weightedSize()).tag("region", name).register(registry);
+        FunctionCounter.builder("pear.cache.local.gets", region, item -> item.stats().hitCount()).tag("region", name).tag("result", HIT).register(registry);
+        FunctionCounter.builder("pear.cache.local.gets", region, item -> item.stats().missCount()).tag("region", name).tag("result", MISS).register(registry);
+        FunctionCounter.builder("pear.cache.local.evictions", region, item -> item.stats().evictionCount()).tag("region", name).register(registry);
+    }
+
+    /**
+     * 根据缓存的key获取key前缀，优先匹配配置的前缀，否则取第一个冒号及之前的部分
+     *
+     * @param key 缓存的key
+     * @return key前缀
+     */
+    public String keyPrefixOf(String key) {
+        if (key == null) {
+            return OTHER;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        int index = key.indexOf(SEPARATOR);
+        return index < 0 ? OTHER : key.substring(0, index + 1);
+    }
+
+    /**
+     * 获取key前缀标签，取值个数达到上限后新的key前缀统一记为other
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @return 标签值
+     */
+    private String prefixTag(String keyPrefix) {
+        if (keyPrefix == null || keyPrefix.isEmpty()) {
+            return OTHER;
+        }
+        String tag = prefixTags.get(keyPrefix);
+        if (tag != null) {
+            return tag;
+        }
+        if (prefixTags.size() >= properties.getMetrics().getMaxPrefixTags()) {
+            return OTHER;
+        }
+        return prefixTags.computeIfAbsent(keyPrefix, prefix -> prefix);
+    }
+
+    /**
+     * 获取或注册耗时指标
+     *
+     * @param name        指标名称
+     * @param description 指标描述
+     * @param histogram   是否允许发布百分位直方图
+     * @param tags        标签名称和标签值
+     * @return 耗时指标
+     */
+    private Timer timer(String name, String description, boolean histogram, String... tags) {
+        return timers.computeIfAbsent(name + '|' + String.join("|", tags), id -> Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram(histogram && properties.getMetrics().isHistogram())
+                .register(registry));
+    }
+
+    /**
+     * 注册缓存重建调度器的指标
+     */
+    private void bindRebuildScheduler() {
+        Gauge.builder("pear.cache.rebuild.queue", rebuildScheduler, CacheRebuildScheduler::getQueueDepth).register(registry);
+        Gauge.builder("pear.cache.rebuild.active", rebuildScheduler, CacheRebuildScheduler::getActiveCount).register(registry);
+        Gauge.builder("pear.cache.rebuild.pending", rebuildScheduler, CacheRebuildScheduler::getPendingKeyCount).register(registry);
+        FunctionCounter.builder("pear.cache.rebuild.tasks", rebuildScheduler, CacheRebuildScheduler::getSubmittedCount).tag("result", "submitted").register(registry);
+        FunctionCounter.builder("pear.cache.rebuild.tasks", rebuildScheduler, CacheRebuildScheduler::getDeduplicatedCount).tag("result", "deduplicated").register(registry);
+        FunctionCounter.builder("pear.cache.rebuild.tasks", rebuildScheduler, CacheRebuildScheduler::getRejectedCount).tag("result", REJECTED).register(registry);
+        FunctionCounter.builder("pear.cache.rebuild.tasks", rebuildScheduler, CacheRebuildScheduler::getFailedCount).tag("result", "failed").register(registry);
+        FunctionTimer.builder("pear.cache.rebuild.duration", rebuildScheduler,
+                scheduler -> scheduler.getCompletedCount() + scheduler.getFailedCount(),
+                CacheRebuildScheduler::getRebuildNanos, TimeUnit.NANOSECONDS).register(registry);
+    }
+
+    /**
+     * 注册热点key探测的指标
+     */
+    private void bindHotKeyDetector() {
+        FunctionCounter.builder("pear.cache.hotkey.hits", hotKeyDetector, HotKeyDetector::getHotHitCount).register(registry);
+        Gauge.builder("pear.cache.hotkey.promoted", hotKeyDetector, HotKeyDetector::getPromotedCount).register(registry);
+    }
+
+    /**
+     * 注册缓存value压缩的指标
+     */
+    private void bindCompression() {
+        Gauge.builder("pear.cache.compression.ratio", compression, CacheValueCompression::getCompressionRatio).register(registry);
+        FunctionTimer.builder("pear.cache.compression.compress", compression,
+                CacheValueCompression::getCompressCount, CacheValueCompression::getCompressNanos, TimeUnit.NANOSECONDS).register(registry);
+        FunctionTimer.builder("pear.cache.compression.decompress", compression,
+                CacheValueCompression::getDecompressCount, CacheValueCompression::getDecompressNanos, TimeUnit.NANOSECONDS).register(registry);
+    }
+}
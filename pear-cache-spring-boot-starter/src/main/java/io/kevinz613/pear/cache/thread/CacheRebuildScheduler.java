@@ -0,0 +1,274 @@
+package io.kevinz613.pear.cache.thread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存重建调度器，同一个key同一时刻最多只有一个等待中或执行中的重建任务，重复提交直接丢弃；
+ * 同一个key前缀同时执行的重建任务数量受限，超出的任务在前缀内排队，不占用线程池队列
+ *
+ * @author kevinz613
+ */
+@Component
+public class CacheRebuildScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(CacheRebuildScheduler.class);
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    //执行重建任务的线程池
+    private ThreadPoolExecutor executor;
+
+    //等待中或执行中的重建任务的key
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+
+    //key前缀与前缀并发控制的映射
+    private final Map<String, PrefixGate> gates = new ConcurrentHashMap<>();
+
+    //提交的重建任务数量
+    private final LongAdder submitted = new LongAdder();
+    //因为同一个key已有重建任务而丢弃的数量
+    private final LongAdder deduplicated = new LongAdder();
+    //线程池队列已满被拒绝的数量
+    private final LongAdder rejected = new LongAdder();
+    //执行完成的重建任务数量
+    private final LongAdder completed = new LongAdder();
+    //执行异常的重建任务数量
+    private final LongAdder failed = new LongAdder();
+    //重建任务执行耗时，单位纳秒
+    private final LongAdder rebuildNanos = new LongAdder();
+    //重建任务最大执行耗时，单位纳秒
+    private final LongAccumulator maxRebuildNanos = new LongAccumulator(Math::max, 0);
+    //重建任务从提交到开始执行的等待耗时，单位纳秒
+    private final LongAdder waitNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        DistributedCacheProperties.Rebuild rebuild = properties.getRebuild();
+        executor = new ThreadPoolExecutor(rebuild.getThreads(), rebuild.getThreads(), 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(rebuild.getQueueCapacity()),
+                new ThreadFactoryBuilder().setNameFormat("pear-cache-rebuild-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 提交重建任务
+     *
+     * @param keyPrefix 缓存的key前缀，用于限制同一前缀的并发重建数量
+     * @param key       缓存的key，同一个key只保留一个重建任务
+     * @param task      重建任务
+     * @return 是否提交成功，同一个key已有重建任务或线程池队列已满时返回false
+     */
+    public boolean submit(String keyPrefix, String key, Runnable task) {
+        if (pending.putIfAbsent(key, Boolean.TRUE) != null) {
+            deduplicated.increment();
+            return false;
+        }
+        submitted.increment();
+        PrefixGate gate = gates.computeIfAbsent(keyPrefix, prefix -> new PrefixGate(this.getPrefixLimit(prefix)));
+        RebuildTask rebuildTask = new RebuildTask(key, task, gate, System.nanoTime());
+        if (gate.permits.tryAcquire()) {
+            if (this.dispatch(rebuildTask)) {
+                return true;
+            }
+            this.drain(gate);
+            return false;
+        }
+        //超出前缀的并发上限，在前缀内排队
+        gate.waiting.offer(rebuildTask);
+        //排队期间可能已经有任务执行完成释放了许可
+        this.drain(gate);
+        return true;
+    }
+
+    /**
+     * 等待中的重建任务数量，包括线程池队列和前缀内排队的任务
+     *
+     * @return 数量
+     */
+    public int getQueueDepth() {
+        int depth = executor.getQueue().size();
+        for (PrefixGate gate : gates.values()) {
+            depth += gate.waiting.size();
+        }
+        return depth;
+    }
+
+    /**
+     * 执行中的重建任务数量
+     *
+     * @return 数量
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 等待中或执行中的key数量
+     *
+     * @return 数量
+     */
+    public int getPendingKeyCount() {
+        return pending.size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRebuildNanos() {
+        return rebuildNanos.sum();
+    }
+
+    public long getMaxRebuildNanos() {
+        return maxRebuildNanos.get();
+    }
+
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * 平均重建耗时，单位毫秒
+     *
+     * @return 平均耗时，没有执行过重建任务时为0
+     */
+    public double getAverageRebuildMillis() {
+        long count = completed.sum() + failed.sum();
+        return count == 0 ? 0D : rebuildNanos.sum() / 1_000_000D / count;
+    }
+
+    /**
+     * 获取前缀的并发重建上限，优先使用前缀单独配置的上限
+     *
+     * @param keyPrefix 缓存的key前缀
+     * @return 并发上限
+     */
+    private int getPrefixLimit(String keyPrefix) {
+        DistributedCacheProperties.Rebuild rebuild = properties.getRebuild();
+        Integer limit = rebuild.getPrefixLimits().get(keyPrefix);
+        return Math.max(1, limit == null ? rebuild.getMaxConcurrentPerPrefix() : limit);
+    }
+
+    /**
+     * 将已经获取到前缀许可的任务提交到线程池，提交失败时归还许可，由调用方继续调度排队的任务
+     *
+     * @param task 重建任务
+     * @return 是否提交成功
+     */
+    private boolean dispatch(RebuildTask task) {
+        try {
+            executor.execute(() -> this.run(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("cache rebuild rejected | {}", task.key());
+            pending.remove(task.key());
+            task.gate().permits.release();
+            return false;
+        }
+    }
+
+    /**
+     * 执行重建任务，完成后释放前缀许可并调度前缀内排队的任务
+     *
+     * @param task 重建任务
+     */
+    private void run(RebuildTask task) {
+        long start = System.nanoTime();
+        waitNanos.add(start - task.submitNanos());
+        try {
+            task.runnable().run();
+            completed.increment();
+        } catch (Throwable e) {
+            failed.increment();
+            logger.error("cache rebuild | {} | {}", task.key(), e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            rebuildNanos.add(elapsed);
+            maxRebuildNanos.accumulate(elapsed);
+            pending.remove(task.key());
+            task.gate().permits.release();
+            this.drain(task.gate());
+        }
+    }
+
+    /**
+     * 在前缀许可允许的范围内调度排队的任务
+     *
+     * @param gate 前缀并发控制
+     */
+    private void drain(PrefixGate gate) {
+        while (!gate.waiting.isEmpty() && gate.permits.tryAcquire()) {
+            RebuildTask next = gate.waiting.poll();
+            if (next == null) {
+                gate.permits.release();
+                continue;
+            }
+            this.dispatch(next);
+        }
+    }
+
+    /**
+     * 同一个key前缀的并发控制
+     */
+    private static class PrefixGate {
+
+        //并发重建许可
+        private final Semaphore permits;
+        //超出并发上限后排队的任务
+        private final Queue<RebuildTask> waiting = new ConcurrentLinkedQueue<>();
+
+        private PrefixGate(int limit) {
+            this.permits = new Semaphore(limit);
+        }
+    }
+
+    /**
+     * 重建任务
+     */
+    private record RebuildTask(String key, Runnable runnable, PrefixGate gate, long submitNanos) {
+    }
+}
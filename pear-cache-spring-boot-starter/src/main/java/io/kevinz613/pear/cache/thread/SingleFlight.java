@@ -0,0 +1,103 @@
+package io.kevinz613.pear.cache.thread;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并，同一个key的并发调用共享一个进行中的CompletableFuture，只有第一个线程执行加载，其他线程等待结果
+ *
+ * @author kevinz613
+ */
+public class SingleFlight {
+
+    //进行中的调用
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载，同一个key同一时刻只有一个线程执行
+     *
+     * @param key    合并请求的key
+     * @param loader 加载函数
+     * @return 加载结果，等待的线程与执行加载的线程获取到同一个结果对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return (T) await(inFlight);
+        }
+        try {
+            T result = loader.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, future);
+        }
+    }
+
+    /**
+     * 异步执行加载，同一个key同一时刻只有一个加载在进行，其他调用共享加载结果
+     *
+     * @param key    合并请求的key
+     * @param loader 异步加载函数
+     * @return 加载结果，每个调用方获取到独立的CompletableFuture，取消不会影响其他调用方
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return (CompletableFuture<T>) inFlight.copy();
+        }
+        CompletableFuture<T> loading;
+        try {
+            loading = loader.get();
+        } catch (Throwable e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((result, e) -> {
+            calls.remove(key, future);
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(result);
+            }
+        });
+        return (CompletableFuture<T>) future.copy();
+    }
+
+    /**
+     * 进行中的调用数量
+     *
+     * @return 数量
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    /**
+     * 等待进行中的调用完成，加载异常时抛出原始异常
+     *
+     * @param future 进行中的调用
+     * @return 加载结果
+     */
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
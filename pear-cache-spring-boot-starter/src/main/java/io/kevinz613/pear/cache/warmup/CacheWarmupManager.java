@@ -0,0 +1,359 @@
+package io.kevinz613.pear.cache.warmup;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.kevinz613.pear.cache.config.DistributedCacheProperties;
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 缓存预热管理，启动时或按需并行预热注册的数据源：按照批量大小分批读取业务标识，批量查询数据库后通过管道批量写入缓存，
+ * 所有数据源同时执行的批次数量受并发数限制；启动预热时在每个数据源都达到就绪比例或预热完成前阻塞启动流程，
+ * Spring在此之前不会将就绪状态切换为ACCEPTING_TRAFFIC
+ *
+ * @author kevinz613
+ */
+@Component
+@ConditionalOnProperty(name = "distribute.cache.warmup.enabled", havingValue = "true")
+public class CacheWarmupManager implements ApplicationRunner {
+
+    private final Logger logger = LoggerFactory.getLogger(CacheWarmupManager.class);
+
+    @Autowired
+    private DistributedCacheService distributedCacheService;
+
+    @Autowired
+    private DistributedCacheProperties properties;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private List<CacheWarmupSource<?, ?>> sourceList = new ArrayList<>();
+
+    //key前缀与预热数据源的映射
+    private final Map<String, CacheWarmupSource<?, ?>> sources = new ConcurrentHashMap<>();
+
+    //key前缀与执行中的预热任务的映射，同一个前缀同一时刻只有一个预热任务
+    private final Map<String, Task> running = new ConcurrentHashMap<>();
+
+    //执行批量查询和写入的线程池
+    private ThreadPoolExecutor loaderExecutor;
+
+    //读取业务标识并提交批次的线程池，每个数据源一个线程
+    private ExecutorService producerExecutor;
+
+    //定期输出预热进度
+    private ScheduledExecutorService reporter;
+
+    //同时执行的批次数量
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        for (CacheWarmupSource<?, ?> source : sourceList) {
+            this.register(source);
+        }
+        DistributedCacheProperties.Warmup warmup = properties.getWarmup();
+        loaderExecutor = new ThreadPoolExecutor(warmup.getConcurrency(), warmup.getConcurrency(), 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("pear-cache-warmup-%d").setDaemon(true).build());
+        producerExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("pear-cache-warmup-source-%d").setDaemon(true).build());
+        reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("pear-cache-warmup-report-%d").setDaemon(true).build());
+        reporter.scheduleWithFixedDelay(this::report, warmup.getProgressInterval(), warmup.getProgressInterval(), TimeUnit.SECONDS);
+        permits = new Semaphore(warmup.getConcurrency());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (producerExecutor != null) {
+            producerExecutor.shutdownNow();
+        }
+        if (loaderExecutor != null) {
+            loaderExecutor.shutdown();
+        }
+        if (reporter != null) {
+            reporter.shutdown();
+        }
+    }
+
+    /**
+     * 启动时预热所有数据源，在就绪或超时前阻塞启动流程
+     *
+     * @param args 启动参数
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        DistributedCacheProperties.Warmup warmup = properties.getWarmup();
+        if (!warmup.isOnStartup() || sources.isEmpty()) {
+            return;
+        }
+        this.awaitReady(this.start(new ArrayList<>(sources.keySet())), warmup.getReadyTimeout());
+    }
+
+    /**
+     * 注册预热数据源，同一个key前缀只能注册一个
+     *
+     * @param source 预热数据源
+     */
+    public void register(CacheWarmupSource<?, ?> source) {
+        if (sources.putIfAbsent(source.keyPrefix(), source) != null) {
+            throw new IllegalStateException("cache warmup source already registered: " + source.keyPrefix());
+        }
+    }
+
+    /**
+     * 按需预热，例如Redis故障切换后；预热期间将就绪状态切换为REFUSING_TRAFFIC，就绪或超时后恢复
+     *
+     * @param holdReadiness 是否在就绪前拒绝流量
+     * @param keyPrefixes   需要预热的key前缀，为空时预热所有数据源
+     * @return 所有数据源预热完成时完成
+     */
+    public CompletableFuture<Void> warmup(boolean holdReadiness, String... keyPrefixes) {
+        List<String> prefixes = keyPrefixes.length == 0 ? new ArrayList<>(sources.keySet()) : List.of(keyPrefixes);
+        List<Task> tasks = this.start(prefixes);
+        CompletableFuture<Void> completed = CompletableFuture.allOf(tasks.stream().map(task -> task.completed).toArray(CompletableFuture[]::new));
+        if (holdReadiness) {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            producerExecutor.execute(() -> {
+                try {
+                    this.awaitReady(tasks, properties.getWarmup().getReadyTimeout());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+                }
+            });
+        }
+        return completed;
+    }
+
+    /**
+     * 获取预热进度
+     *
+     * @return 执行中和最近一次执行的预热任务进度
+     */
+    public List<Progress> progress() {
+        return running.values().stream().map(Task::progress).toList();
+    }
+
+    /**
+     * 为每个key前缀启动预热任务，已有执行中的任务时复用
+     *
+     * @param keyPrefixes key前缀
+     * @return 预热任务
+     */
+    private List<Task> start(List<String> keyPrefixes) {
+        List<Task> tasks = new ArrayList<>(keyPrefixes.size());
+        for (String keyPrefix : keyPrefixes) {
+            CacheWarmupSource<?, ?> source = sources.get(keyPrefix);
+            if (source == null) {
+                throw new IllegalArgumentException("cache warmup source not registered: " + keyPrefix);
+            }
+            Task task = running.compute(keyPrefix, (prefix, current) -> current != null && !current.completed.isDone() ? current : new Task(source));
+            if (task.started.compareAndSet(0, 1)) {
+                logger.info("cache warmup start | {} | expected {}", keyPrefix, source.expectedCount());
+                producerExecutor.execute(() -> this.produce(task));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * 等待所有预热任务就绪，超时后不再等待，预热在后台继续执行
+     *
+     * @param tasks   预热任务
+     * @param timeout 等待时长，单位秒
+     */
+    private void awaitReady(List<Task> tasks, long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        for (Task task : tasks) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !task.ready.await(remaining, TimeUnit.NANOSECONDS)) {
+                logger.warn("cache warmup not ready within {}s | {}", timeout, task.progress());
+                return;
+            }
+        }
+        logger.info("cache warmup ready | {}", tasks.stream().map(task -> task.source.keyPrefix()).toList());
+    }
+
+    /**
+     * 按照批量大小分批读取业务标识并提交批次，同时执行的批次达到并发数时等待
+     *
+     * @param task 预热任务
+     */
+    @SuppressWarnings("unchecked")
+    private <ID, R> void produce(Task task) {
+        CacheWarmupSource<ID, R> source = (CacheWarmupSource<ID, R>) task.source;
+        int batchSize = properties.getWarmup().getBatchSize();
+        try (Stream<ID> ids = source.ids()) {
+            Iterator<ID> iterator = ids.iterator();
+            List<ID> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= batchSize) {
+                    this.submit(task, source, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                this.submit(task, source, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("cache warmup read ids | {} | {}", source.keyPrefix(), e.getMessage());
+        } finally {
+            task.produced = true;
+            task.tryComplete();
+        }
+    }
+
+    /**
+     * 提交一个批次：批量查询数据库后通过管道批量写入缓存
+     *
+     * @param task   预热任务
+     * @param source 预热数据源
+     * @param batch  业务标识
+     */
+    private <ID, R> void submit(Task task, CacheWarmupSource<ID, R> source, List<ID> batch) throws InterruptedException {
+        permits.acquire();
+        task.inflight.incrementAndGet();
+        try {
+            loaderExecutor.execute(() -> {
+                try {
+                    Map<ID, R> loaded = source.load(batch);
+                    task.loaded.add(distributedCacheService.multiSet(source.keyPrefix(), loaded, source.timeout(), source.unit()));
+                    task.processed.add(batch.size());
+                } catch (Exception e) {
+                    task.failed.add(batch.size());
+                    logger.error("cache warmup batch | {} | {} | {}", source.keyPrefix(), batch.size(), e.getMessage());
+                } finally {
+                    permits.release();
+                    task.inflight.decrementAndGet();
+                    task.tryComplete();
+                    task.checkReady(properties.getWarmup().getReadyPercent());
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            task.inflight.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 输出执行中的预热任务进度
+     */
+    private void report() {
+        for (Task task : running.values()) {
+            if (!task.completed.isDone()) {
+                logger.info("cache warmup progress | {}", task.progress());
+            }
+        }
+    }
+
+    /**
+     * 预热进度
+     *
+     * @param keyPrefix     缓存的key前缀
+     * @param expected      预计的业务标识数量，未知时为-1
+     * @param processed     已处理的业务标识数量
+     * @param loaded        已写入缓存的数据数量
+     * @param failed        处理失败的业务标识数量
+     * @param completed     是否预热完成
+     * @param elapsedMillis 已执行的毫秒数
+     * @param keysPerSecond 每秒写入缓存的数据数量
+     */
+    public record Progress(String keyPrefix, long expected, long processed, long loaded, long failed,
+                           boolean completed, long elapsedMillis, double keysPerSecond) {
+    }
+
+    /**
+     * 预热任务
+     */
+    private final class Task {
+
+        private final CacheWarmupSource<?, ?> source;
+        //开始时间，单位纳秒
+        private final long startNanos = System.nanoTime();
+        //是否已经启动
+        private final AtomicInteger started = new AtomicInteger();
+        //执行中的批次数量
+        private final AtomicInteger inflight = new AtomicInteger();
+        //已处理的业务标识数量
+        private final LongAdder processed = new LongAdder();
+        //已写入缓存的数据数量
+        private final LongAdder loaded = new LongAdder();
+        //处理失败的业务标识数量
+        private final LongAdder failed = new LongAdder();
+        //达到就绪比例或预热完成
+        private final CountDownLatch ready = new CountDownLatch(1);
+        //预热完成
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+        //业务标识是否已经全部提交
+        private volatile boolean produced;
+
+        private Task(CacheWarmupSource<?, ?> source) {
+            this.source = source;
+        }
+
+        /**
+         * 业务标识全部提交且没有执行中的批次时预热完成
+         */
+        private void tryComplete() {
+            if (produced && inflight.get() == 0 && completed.complete(null)) {
+                ready.countDown();
+                logger.info("cache warmup completed | {}", this.progress());
+            }
+        }
+
+        /**
+         * 已处理的业务标识达到预计数量的就绪比例时就绪
+         *
+         * @param readyPercent 就绪比例
+         */
+        private void checkReady(double readyPercent) {
+            long expected = source.expectedCount();
+            if (expected > 0 && ready.getCount() > 0 && processed.sum() * 100.0D >= expected * readyPercent) {
+                ready.countDown();
+            }
+        }
+
+        private Progress progress() {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            long loadedCount = loaded.sum();
+            return new Progress(source.keyPrefix(), source.expectedCount(), processed.sum(), loadedCount, failed.sum(),
+                    completed.isDone(), elapsedMillis, elapsedMillis == 0 ? 0 : loadedCount * 1000.0D / elapsedMillis);
+        }
+    }
+}
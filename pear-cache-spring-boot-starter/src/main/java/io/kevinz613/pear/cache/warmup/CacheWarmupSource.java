@@ -0,0 +1,60 @@
+package io.kevinz613.pear.cache.warmup;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 缓存预热数据源，按照key前缀声明需要预热的业务标识和批量查询方法，
+ * 实现类注册为Spring Bean或调用CacheWarmupManager.register后生效
+ *
+ * @author kevinz613
+ */
+public interface CacheWarmupSource<ID, R> {
+
+    /**
+     * 缓存的key前缀，与查询缓存时使用的key前缀一致
+     *
+     * @return key前缀
+     */
+    String keyPrefix();
+
+    /**
+     * 需要预热的业务标识，按照顺序分批读取，不需要一次加载到内存，预热结束后关闭
+     *
+     * @return 业务标识
+     */
+    Stream<ID> ids();
+
+    /**
+     * 批量查询业务数据
+     *
+     * @param ids 业务标识
+     * @return 业务标识与业务数据的映射，不存在的数据可以不返回
+     */
+    Map<ID, R> load(Collection<ID> ids);
+
+    /**
+     * 缓存时长
+     *
+     * @return 缓存时长
+     */
+    Long timeout();
+
+    /**
+     * 缓存时长单位
+     *
+     * @return 缓存时长单位
+     */
+    TimeUnit unit();
+
+    /**
+     * 预计的业务标识数量，用于计算预热进度，未知时返回-1，此时预热全部完成后才认为就绪
+     *
+     * @return 预计的数量
+     */
+    default long expectedCount() {
+        return -1;
+    }
+}
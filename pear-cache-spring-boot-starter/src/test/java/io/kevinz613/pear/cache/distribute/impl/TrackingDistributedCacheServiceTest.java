@@ -0,0 +1,196 @@
+package io.kevinz613.pear.cache.distribute.impl;
+
+import io.kevinz613.pear.cache.distribute.DistributedCacheService;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodecRegistry;
+import io.lettuce.core.KillArgs;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 客户端缓存集成测试，需要Redis 6及以上版本，Redis不可用时跳过；
+ * 通过系统属性pear.cache.it.redis.host、port、password、database指定Redis，测试会清空指定的database，默认使用15号库
+ *
+ * @author kevinz613
+ */
+@SpringBootTest(properties = {
+        "distribute.cache.type=tracking",
+        "distribute.cache.tracking.prefixes=it:",
+        "distribute.cache.tracking.local-ttl=300",
+        "distribute.lock.type=redisson",
+        "distributed.lock.type=redisson",
+        "local.cache.type=caffeine",
+        "redis.arrange.type=single",
+        "spring.data.redis.lettuce.pool.max-active=8",
+        "spring.data.redis.lettuce.pool.max-wait=-1ms",
+        "spring.data.redis.lettuce.pool.max-idle=8",
+        "spring.data.redis.lettuce.pool.min-idle=0"
+})
+class TrackingDistributedCacheServiceTest {
+
+    private static final String HOST = System.getProperty("pear.cache.it.redis.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("pear.cache.it.redis.port", 6379);
+    private static final String PASSWORD = System.getProperty("pear.cache.it.redis.password", "");
+    private static final int DATABASE = Integer.getInteger("pear.cache.it.redis.database", 15);
+
+    //等待推送消息和重新连接的超时时间
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String KEY = "it:tracking:1";
+
+    //模拟其他节点修改数据的普通连接
+    private static RedisClient otherClient;
+    private static StatefulRedisConnection<String, byte[]> otherConnection;
+    private static RedisCommands<String, byte[]> other;
+
+    @Autowired
+    private DistributedCacheService distributedCacheService;
+
+    @Autowired
+    private CacheValueCodecRegistry codecRegistry;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @ComponentScan("io.kevinz613.pear.cache")
+    static class TestApplication {
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", () -> HOST);
+        registry.add("spring.data.redis.port", () -> PORT);
+        registry.add("spring.data.redis.password", () -> PASSWORD);
+        registry.add("spring.data.redis.database", () -> DATABASE);
+        registry.add("spring.data.redis.address", () -> "redis://" + HOST + ":" + PORT);
+    }
+
+    @BeforeAll
+    static void connect() {
+        assumeTrue(reachable(), "redis is not available at " + HOST + ":" + PORT);
+        RedisURI.Builder uri = RedisURI.Builder.redis(HOST, PORT).withDatabase(DATABASE);
+        if (!PASSWORD.isEmpty()) {
+            uri.withPassword(PASSWORD.toCharArray());
+        }
+        otherClient = RedisClient.create(uri.build());
+        otherConnection = otherClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        other = otherConnection.sync();
+    }
+
+    @AfterAll
+    static void close() {
+        if (otherConnection != null) {
+            otherConnection.close();
+        }
+        if (otherClient != null) {
+            otherClient.shutdown();
+        }
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        assertInstanceOf(TrackingDistributedCacheService.class, distributedCacheService);
+        other.del(KEY);
+    }
+
+    @Test
+    void invalidatesLocalCacheOnPush() {
+        distributedCacheService.set(KEY, "first");
+        assertEquals("first", distributedCacheService.get(KEY));
+        other.set(KEY, codecRegistry.encode(KEY, "second"));
+        await(() -> "second".equals(distributedCacheService.get(KEY)));
+        other.del(KEY);
+        await(() -> distributedCacheService.get(KEY) == null);
+    }
+
+    @Test
+    void clearsLocalCacheOnFlush() {
+        distributedCacheService.set(KEY, "first");
+        assertEquals("first", distributedCacheService.get(KEY));
+        //FLUSHDB推送的失效消息中key列表为null
+        other.flushdb();
+        await(() -> distributedCacheService.get(KEY) == null);
+        assertNull(distributedCacheService.get(KEY));
+    }
+
+    @Test
+    void reEnablesTrackingAfterReconnect() {
+        distributedCacheService.set(KEY, "first");
+        assertEquals("first", distributedCacheService.get(KEY));
+        List<String> killed = trackingClientIds();
+        assertFalse(killed.isEmpty(), "tracking connection not found");
+        for (String id : killed) {
+            other.clientKill(KillArgs.Builder.id(Long.parseLong(id)));
+        }
+        //自动重连后重新开启跟踪，新连接的ID与断开的连接不同
+        await(() -> {
+            List<String> current = trackingClientIds();
+            return !current.isEmpty() && current.stream().noneMatch(killed::contains);
+        });
+        assertEquals("first", distributedCacheService.get(KEY));
+        other.set(KEY, codecRegistry.encode(KEY, "second"));
+        await(() -> "second".equals(distributedCacheService.get(KEY)));
+    }
+
+    /**
+     * 通过CLIENT LIST查找开启了客户端跟踪的连接，flags中包含t
+     *
+     * @return 连接ID列表
+     */
+    private static List<String> trackingClientIds() {
+        return other.clientList().lines()
+                .filter(line -> line.contains(" flags=") && line.split(" flags=")[1].split(" ")[0].contains("t"))
+                .map(line -> line.split("id=")[1].split(" ")[0])
+                .toList();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within " + TIMEOUT);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static boolean reachable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.kevinz613.pear.cache.local.impl;
+
+import io.kevinz613.pear.cache.config.LocalCacheProperties;
+import io.kevinz613.pear.cache.distribute.codec.CacheValueCodec;
+import io.kevinz613.pear.cache.local.LocalCacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 堆外本地缓存区域测试，使用单个4KB分段(64个索引槽位，最多48个条目)覆盖环形内存的尾部填充、CLOCK重新追加、
+ * 索引回绕时的删除移动、过期和调整容量
+ *
+ * @author kevinz613
+ */
+class OffHeapLocalCacheServiceTest {
+
+    //单个分段的字节数和索引槽位掩码
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int INDEX_MASK = 63;
+
+    //3字节key加156字节value对齐后184字节，4096字节放入22个条目后尾部剩余48字节需要填充
+    private static final int VALUE_LENGTH = 156;
+
+    @Test
+    void wrapsAroundWithPadding() {
+        OffHeapLocalCacheService<String, String> cache = newCache(SEGMENT_BYTES, 1);
+        for (int i = 0; i < 100; i++) {
+            cache.put(key(i), value(i));
+        }
+        for (int i = 100 - 21; i < 100; i++) {
+            assertEquals(value(i), cache.getIfPresent(key(i)));
+        }
+        assertNull(cache.getIfPresent(key(0)));
+        LocalCacheStats stats = cache.stats();
+        assertTrue(stats.size() <= 22);
+        assertEquals(100 - stats.size(), stats.evictionCount());
+    }
+
+    @Test
+    void reinsertsReferencedEntryWhenLogIsFull() {
+        OffHeapLocalCacheService<String, String> cache = newCache(SEGMENT_BYTES, 1);
+        cache.put("hot", value(-1));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(value(-1), cache.getIfPresent("hot"));
+            cache.put(key(i), value(i));
+        }
+        assertEquals(value(-1), cache.getIfPresent("hot"));
+        assertEquals(value(499), cache.getIfPresent(key(499)));
+    }
+
+    @Test
+    void shiftsProbeChainAcrossIndexWrap() {
+        OffHeapLocalCacheService<String, String> cache = newCache(SEGMENT_BYTES, 1);
+        //三个key的起始槽位都是最后一个槽位，依次占用63、0、1，第四个key的起始槽位是0，占用2
+        List<String> keys = keysWithHome(INDEX_MASK, 3);
+        keys.addAll(keysWithHome(0, 1));
+        for (String key : keys) {
+            cache.put(key, key);
+        }
+        cache.remove(keys.get(0));
+        assertNull(cache.getIfPresent(keys.get(0)));
+        for (String key : keys.subList(1, keys.size())) {
+            assertEquals(key, cache.getIfPresent(key));
+        }
+        cache.remove(keys.get(1));
+        assertEquals(keys.get(2), cache.getIfPresent(keys.get(2)));
+        assertEquals(keys.get(3), cache.getIfPresent(keys.get(3)));
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void dropsExpiredEntries() {
+        OffHeapLocalCacheService<String, String> cache = newCache(SEGMENT_BYTES, 1);
+        long now = System.currentTimeMillis();
+        restore(cache, "expired", now - 1);
+        restore(cache, "live", now + 60_000);
+        restore(cache, "eternal", 0);
+        assertNull(cache.getIfPresent("expired"));
+        assertEquals("live", cache.getIfPresent("live"));
+        assertEquals("eternal", cache.getIfPresent("eternal"));
+        assertEquals(2, cache.stats().size());
+
+        restore(cache, "expiring", now - 1);
+        cache.resize(SEGMENT_BYTES * 2);
+        assertNull(cache.getIfPresent("expiring"));
+        assertEquals(2, cache.stats().size());
+        assertEquals(0, cache.stats().evictionCount());
+    }
+
+    @Test
+    void resizeKeepsNewestEntries() {
+        OffHeapLocalCacheService<String, String> cache = newCache(SEGMENT_BYTES * 4, 1);
+        for (int i = 0; i < 80; i++) {
+            cache.put(key(i), value(i));
+        }
+        cache.resize(SEGMENT_BYTES * 8);
+        assertEquals(SEGMENT_BYTES * 8, cache.stats().maximum());
+        for (int i = 0; i < 80; i++) {
+            assertEquals(value(i), cache.getIfPresent(key(i)));
+        }
+        cache.resize(SEGMENT_BYTES);
+        assertEquals(value(79), cache.getIfPresent(key(79)));
+        assertNull(cache.getIfPresent(key(0)));
+        assertTrue(cache.stats().size() <= 22);
+    }
+
+    @Test
+    void resizeDoesNotLoseConcurrentRemoves() throws InterruptedException {
+        OffHeapLocalCacheService<String, String> cache = newCache(1 << 20, 16);
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            cache.put(key(i), key(i));
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread resizer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 50; i++) {
+                    cache.resize(i % 2 == 0 ? 2 << 20 : 1 << 20);
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        resizer.start();
+        for (int i = 0; i < count; i++) {
+            cache.remove(key(i));
+        }
+        resizer.join();
+        assertNull(failure.get());
+        for (int i = 0; i < count; i++) {
+            assertNull(cache.getIfPresent(key(i)));
+        }
+        assertEquals(0, cache.stats().size());
+    }
+
+    private static OffHeapLocalCacheService<String, String> newCache(long maximumWeight, int segments) {
+        LocalCacheProperties.Region region = new LocalCacheProperties.Region();
+        region.setMaximumWeight(maximumWeight);
+        region.setSegments(segments);
+        return new OffHeapLocalCacheService<>("test", region, new Utf8Codec(), String.class);
+    }
+
+    private static void restore(OffHeapLocalCacheService<String, String> cache, String key, long expireAt) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        assertTrue(cache.restore(bytes, ByteBuffer.wrap(bytes), 0, bytes.length, expireAt));
+    }
+
+    private static List<String> keysWithHome(int slot, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "w" + i;
+            if ((OffHeapLocalCacheService.hash(key.getBytes(StandardCharsets.UTF_8)) & INDEX_MASK) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static String key(int i) {
+        return String.format("%03d", i % 1000) + (i >= 1000 ? "+" + i / 1000 : "");
+    }
+
+    private static String value(int i) {
+        String prefix = i + ":";
+        return prefix + "x".repeat(VALUE_LENGTH - prefix.length());
+    }
+
+    /**
+     * 按照UTF-8编码字符串的编解码器，编码后的长度固定，便于控制条目大小
+     */
+    private static final class Utf8Codec implements CacheValueCodec {
+
+        @Override
+        public String name() {
+            return "utf8";
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public <R> R decode(byte[] bytes, Class<R> type) {
+            return type.cast(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public <R> List<R> decodeList(byte[] bytes, Class<R> type) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}